@@ -0,0 +1,74 @@
+package com.classpulse.classpulse.analytics;
+
+/**
+ * Count-Min sketch over strings: fixed memory frequency estimates that never
+ * undercount (as long as counts stay non-negative). Supports decrements so
+ * edited and deleted answers can be taken back out. Not thread-safe; callers
+ * synchronize.
+ * <p>
+ * Each item is hashed to 64 bits once; every row then mixes that hash with its
+ * own seed, so rows pick counters independently. (Deriving the rows from the
+ * 32-bit {@code String.hashCode} made items with equal hash codes, like "Aa"
+ * and "BB", collide in every row at once.)
+ */
+public class CountMinSketch {
+
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+            0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x27D4EB2F165667C5L, 0x94D049BB133111EBL };
+
+    private final int depth;
+    private final int mask;
+    private final long[][] counts;
+
+    /**
+     * @param depth number of hash rows (at most 8); more rows lower the chance of a bad estimate
+     * @param width counters per row, rounded up to a power of two; wider rows lower the error
+     */
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || depth > SEEDS.length) {
+            throw new IllegalArgumentException("depth must be between 1 and " + SEEDS.length);
+        }
+        int size = Integer.highestOneBit(Math.max(width - 1, 1)) << 1;
+        this.depth = depth;
+        this.mask = size - 1;
+        this.counts = new long[depth][size];
+    }
+
+    public void add(String item, long delta) {
+        long hash = hash64(item);
+        for (int row = 0; row < depth; row++) {
+            counts[row][index(hash, row)] += delta;
+        }
+    }
+
+    public long estimate(String item) {
+        long hash = hash64(item);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counts[row][index(hash, row)]);
+        }
+        return Math.max(min, 0);
+    }
+
+    private int index(long hash, int row) {
+        // Murmur3 64-bit finalizer over the item hash, seeded per row
+        long h = hash ^ SEEDS[row];
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    // FNV-1a over the UTF-16 chars
+    private static long hash64(String item) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < item.length(); i++) {
+            h ^= item.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return h;
+    }
+}
@@ -0,0 +1,159 @@
+package com.classpulse.classpulse.analytics;
+
+/**
+ * HyperLogLog distinct counter over user ids. With the default precision of
+ * 12 (4096 one-byte registers) the standard error is 1.04 / sqrt(4096), about
+ * 1.6%: two out of three estimates are within 1.6% of the true count and
+ * nearly all within 5%. Sketches merge losslessly (register-wise max), so a
+ * teacher or platform figure is the union of per-session sketches.
+ * <p>
+ * The serialized form is a version byte, the precision, then either all
+ * registers (dense) or (index, value) pairs for the non-zero registers
+ * (sparse), whichever is smaller. A class of 30 students takes about 100 bytes.
+ * Not thread-safe.
+ */
+public class HyperLogLog {
+
+    public static final int DEFAULT_PRECISION = 12;
+    public static final double DEFAULT_STANDARD_ERROR = 1.04 / Math.sqrt(1 << DEFAULT_PRECISION);
+
+    private static final byte FORMAT_DENSE = 1;
+    private static final byte FORMAT_SPARSE = 2;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("precision must be between 4 and 16");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Relative standard error of {@link #estimate()}
+     */
+    public double standardError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    public void add(long value) {
+        long hash = mix(value);
+        int index = (int) (hash >>> (64 - precision));
+        int rank = Math.min(Long.numberOfLeadingZeros(hash << precision), 64 - precision) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches of different precision");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        // Small range correction: linear counting is more accurate while registers are still empty
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public byte[] toBytes() {
+        int nonZero = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                nonZero++;
+            }
+        }
+        if (nonZero * 3 < registers.length) {
+            byte[] bytes = new byte[2 + nonZero * 3];
+            bytes[0] = FORMAT_SPARSE;
+            bytes[1] = (byte) precision;
+            int offset = 2;
+            for (int i = 0; i < registers.length; i++) {
+                if (registers[i] != 0) {
+                    bytes[offset++] = (byte) (i >>> 8);
+                    bytes[offset++] = (byte) i;
+                    bytes[offset++] = registers[i];
+                }
+            }
+            return bytes;
+        }
+        byte[] bytes = new byte[2 + registers.length];
+        bytes[0] = FORMAT_DENSE;
+        bytes[1] = (byte) precision;
+        System.arraycopy(registers, 0, bytes, 2, registers.length);
+        return bytes;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not a sketch written by {@link #toBytes()}
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length < 2) {
+            throw new IllegalArgumentException("Not a serialized HyperLogLog");
+        }
+        int precision = bytes[1];
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("Serialized HyperLogLog has invalid precision " + precision);
+        }
+        HyperLogLog sketch = new HyperLogLog(precision);
+        int m = sketch.registers.length;
+        if (bytes[0] == FORMAT_DENSE && bytes.length == 2 + m) {
+            for (int i = 0; i < m; i++) {
+                sketch.registers[i] = sketch.checkRank(bytes[2 + i]);
+            }
+        } else if (bytes[0] == FORMAT_SPARSE && (bytes.length - 2) % 3 == 0) {
+            for (int offset = 2; offset < bytes.length; offset += 3) {
+                int index = ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+                if (index >= m) {
+                    throw new IllegalArgumentException(
+                            "Serialized HyperLogLog has register index " + index + " of " + m);
+                }
+                sketch.registers[index] = sketch.checkRank(bytes[offset + 2]);
+            }
+        } else {
+            throw new IllegalArgumentException("Not a serialized HyperLogLog");
+        }
+        return sketch;
+    }
+
+    // add() never stores more than 64 - precision + 1
+    private byte checkRank(byte rank) {
+        if (rank < 0 || rank > 65 - precision) {
+            throw new IllegalArgumentException("Serialized HyperLogLog has invalid register value " + rank);
+        }
+        return rank;
+    }
+
+    // SplitMix64 finalizer: sequential ids spread over all 64 bits
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
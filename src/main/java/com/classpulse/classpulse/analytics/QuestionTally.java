@@ -0,0 +1,114 @@
+package com.classpulse.classpulse.analytics;
+
+import com.classpulse.classpulse.entity.QuestionType;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running answer counts for one question. Each answer bucket is a striped
+ * counter, so concurrent submits to the same question do not contend on a lock.
+ * OPEN_TEXT answers are nearly all distinct, so instead of per-answer buckets
+ * they feed a bounded {@link TermSummary}.
+ */
+public class QuestionTally {
+
+    private final Long questionId;
+    private final QuestionType type;
+    private final Map<String, LongAdder> answerCounts = new ConcurrentHashMap<>();
+    private final LongAdder responseCount = new LongAdder();
+
+    // RATING only
+    private final RatingAggregator ratings;
+    // OPEN_TEXT only
+    private final TermSummary terms;
+
+    public QuestionTally(Long questionId, QuestionType type) {
+        this.questionId = questionId;
+        this.type = type;
+        this.ratings = type == QuestionType.RATING ? new RatingAggregator() : null;
+        this.terms = type == QuestionType.OPEN_TEXT ? new TermSummary() : null;
+    }
+
+    public Long getQuestionId() {
+        return questionId;
+    }
+
+    public QuestionType getType() {
+        return type;
+    }
+
+    public void add(String answer, long count) {
+        responseCount.add(count);
+        if (terms != null) {
+            terms.add(answer, count);
+            return;
+        }
+        answerCounts.computeIfAbsent(answer, a -> new LongAdder()).add(count);
+        if (ratings != null) {
+            ratings.add(answer, count);
+        }
+    }
+
+    public void add(String answer) {
+        add(answer, 1);
+    }
+
+    public void remove(String answer) {
+        if (terms != null) {
+            terms.remove(answer);
+            responseCount.decrement();
+            return;
+        }
+        LongAdder counter = answerCounts.get(answer);
+        if (counter == null) {
+            return;
+        }
+        counter.decrement();
+        responseCount.decrement();
+        if (ratings != null) {
+            ratings.remove(answer);
+        }
+    }
+
+    public long getResponseCount() {
+        return responseCount.sum();
+    }
+
+    /**
+     * Point-in-time copy of the non-zero answer buckets (empty for OPEN_TEXT)
+     */
+    public Map<String, Long> getAnswerDistribution() {
+        Map<String, Long> distribution = new HashMap<>();
+        answerCounts.forEach((answer, counter) -> {
+            long count = counter.sum();
+            if (count > 0) {
+                distribution.put(answer, count);
+            }
+        });
+        return distribution;
+    }
+
+    public Double getAverageRating() {
+        if (ratings == null) {
+            return null;
+        }
+        return Math.round(ratings.snapshot().mean() * 100.0) / 100.0;
+    }
+
+    /**
+     * Rating statistics, or null for non-RATING questions
+     */
+    public RatingAggregator.RatingStats getRatingStats() {
+        return ratings == null ? null : ratings.snapshot();
+    }
+
+    /**
+     * Most frequent terms and phrases, or null for non-OPEN_TEXT questions
+     */
+    public Map<String, Long> getTopTerms() {
+        return terms == null ? null : terms.getTopTerms();
+    }
+}
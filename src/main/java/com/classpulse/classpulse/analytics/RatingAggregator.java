@@ -0,0 +1,231 @@
+package com.classpulse.classpulse.analytics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Running statistics for RATING answers: count, mean and variance (Welford's
+ * method) plus a fixed-bucket histogram with one bucket per whole rating from
+ * {@link #MIN_RATING} to {@link #MAX_RATING}. Values are kept in primitives,
+ * so adding a rating allocates nothing.
+ * <p>
+ * Aggregators can be merged (Chan et al.), so per-question results combine
+ * into session or teacher level statistics without revisiting any rows.
+ * Answers that are not a number are counted as invalid and kept out of the
+ * statistics. All methods are synchronized; the critical sections are a few
+ * arithmetic operations.
+ */
+public class RatingAggregator {
+
+    public static final int MIN_RATING = 0;
+    public static final int MAX_RATING = 10;
+
+    private long count;
+    private double mean;
+    private double m2;
+    private long invalid;
+    private final long[] histogram = new long[MAX_RATING - MIN_RATING + 1];
+
+    /**
+     * Add a raw answer {@code times} times
+     */
+    public void add(String answer, long times) {
+        double value = parse(answer);
+        if (Double.isNaN(value)) {
+            synchronized (this) {
+                invalid += times;
+            }
+            return;
+        }
+        add(value, times);
+    }
+
+    public synchronized void add(double value, long times) {
+        if (times <= 0) {
+            return;
+        }
+        // Merge a group of identical values: mean = value, m2 = 0
+        long total = count + times;
+        double delta = value - mean;
+        mean += delta * times / total;
+        m2 += delta * delta * count * times / total;
+        count = total;
+        histogram[bucket(value)] += times;
+    }
+
+    /**
+     * Undo one earlier {@link #add(String, long)} of the same answer
+     */
+    public void remove(String answer) {
+        double value = parse(answer);
+        if (Double.isNaN(value)) {
+            synchronized (this) {
+                if (invalid > 0) {
+                    invalid--;
+                }
+            }
+            return;
+        }
+        remove(value);
+    }
+
+    public synchronized void remove(double value) {
+        if (count == 0) {
+            return;
+        }
+        if (count == 1) {
+            count = 0;
+            mean = 0;
+            m2 = 0;
+        } else {
+            // Reverse Welford step
+            double previousMean = (count * mean - value) / (count - 1);
+            m2 -= (value - mean) * (value - previousMean);
+            mean = previousMean;
+            count--;
+            if (m2 < 0) {
+                m2 = 0;
+            }
+        }
+        int bucket = bucket(value);
+        if (histogram[bucket] > 0) {
+            histogram[bucket]--;
+        }
+    }
+
+    /**
+     * Fold another aggregator into this one
+     */
+    public void merge(RatingAggregator other) {
+        RatingStats stats = other.snapshot();
+        synchronized (this) {
+            if (stats.count() > 0) {
+                long total = count + stats.count();
+                double delta = stats.mean() - mean;
+                mean += delta * stats.count() / total;
+                m2 += stats.m2() + delta * delta * count * stats.count() / total;
+                count = total;
+                for (int i = 0; i < histogram.length; i++) {
+                    histogram[i] += stats.histogram()[i];
+                }
+            }
+            invalid += stats.invalid();
+        }
+    }
+
+    public synchronized RatingStats snapshot() {
+        return new RatingStats(count, mean, m2, invalid, histogram.clone());
+    }
+
+    /**
+     * Parse a rating without exceptions. Accepts an optional sign, digits and
+     * an optional fractional part; anything else yields NaN.
+     */
+    static double parse(String answer) {
+        if (answer == null) {
+            return Double.NaN;
+        }
+        int i = 0;
+        int end = answer.length();
+        while (i < end && answer.charAt(i) == ' ') {
+            i++;
+        }
+        while (end > i && answer.charAt(end - 1) == ' ') {
+            end--;
+        }
+        boolean negative = false;
+        if (i < end && (answer.charAt(i) == '-' || answer.charAt(i) == '+')) {
+            negative = answer.charAt(i) == '-';
+            i++;
+        }
+        double value = 0;
+        double scale = 0;
+        int digits = 0;
+        for (; i < end; i++) {
+            char c = answer.charAt(i);
+            if (c >= '0' && c <= '9') {
+                // Ratings are short; cap the digits so the value stays exact
+                if (++digits > 15) {
+                    return Double.NaN;
+                }
+                if (scale == 0) {
+                    value = value * 10 + (c - '0');
+                } else {
+                    value += (c - '0') * scale;
+                    scale /= 10;
+                }
+            } else if (c == '.' && scale == 0) {
+                scale = 0.1;
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        return negative ? -value : value;
+    }
+
+    private static int bucket(double value) {
+        long rounded = Math.round(value);
+        if (rounded < MIN_RATING) {
+            return 0;
+        }
+        if (rounded > MAX_RATING) {
+            return MAX_RATING - MIN_RATING;
+        }
+        return (int) rounded - MIN_RATING;
+    }
+
+    /**
+     * Immutable point-in-time copy of an aggregator
+     */
+    public record RatingStats(long count, double mean, double m2, long invalid, long[] histogram) {
+
+        public double variance() {
+            return count < 2 ? 0 : m2 / (count - 1);
+        }
+
+        public double stdDev() {
+            return Math.sqrt(variance());
+        }
+
+        /**
+         * Median at bucket resolution (whole ratings); the midpoint when the
+         * two middle values fall into different buckets
+         */
+        public Double median() {
+            if (count == 0) {
+                return null;
+            }
+            long lowerRank = (count - 1) / 2;
+            long upperRank = count / 2;
+            int lower = -1;
+            int upper = -1;
+            long seen = 0;
+            for (int i = 0; i < histogram.length && upper < 0; i++) {
+                seen += histogram[i];
+                if (lower < 0 && seen > lowerRank) {
+                    lower = i;
+                }
+                if (seen > upperRank) {
+                    upper = i;
+                }
+            }
+            return (lower + upper) / 2.0 + MIN_RATING;
+        }
+
+        /**
+         * Non-empty buckets in rating order, keyed by rating
+         */
+        public Map<String, Long> histogramAsMap() {
+            Map<String, Long> buckets = new LinkedHashMap<>();
+            for (int i = 0; i < histogram.length; i++) {
+                if (histogram[i] > 0) {
+                    buckets.put(String.valueOf(i + MIN_RATING), histogram[i]);
+                }
+            }
+            return buckets;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.classpulse.classpulse.analytics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Response rate of one session in fixed memory: submissions per second over
+ * the last {@link #SECOND_BUCKETS} seconds, rolled up per minute over the last
+ * {@link #MINUTE_BUCKETS} minutes (about 8 KB per session).
+ * <p>
+ * Both rings are arrays of longs that pack the bucket number (high 40 bits)
+ * with its count (low 24 bits). Recording is one CAS per ring and never
+ * blocks: a writer that finds a slot still holding an older bucket resets and
+ * claims it in the same CAS. Late counts for a bucket whose slot has already
+ * been reused are dropped. Thread-safe.
+ */
+public class ResponseTimeline {
+
+    public static final int SECOND_BUCKETS = 300;
+    public static final int MINUTE_BUCKETS = 720;
+
+    private static final int COUNT_BITS = 24;
+    private static final long MAX_COUNT = (1L << COUNT_BITS) - 1;
+
+    private final AtomicLongArray seconds = new AtomicLongArray(SECOND_BUCKETS);
+    private final AtomicLongArray minutes = new AtomicLongArray(MINUTE_BUCKETS);
+    private final long createdAt;
+
+    /**
+     * @param createdAt epoch second; series never start before it
+     */
+    public ResponseTimeline(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public void record(long epochSecond, int count) {
+        add(seconds, epochSecond, count);
+        add(minutes, Math.floorDiv(epochSecond, 60), count);
+    }
+
+    /**
+     * Per-second counts up to and including {@code now} (epoch second)
+     */
+    public TimeSeries perSecond(long now) {
+        return read(seconds, 1, now);
+    }
+
+    /**
+     * Per-minute counts up to and including the minute of {@code now} (epoch second)
+     */
+    public TimeSeries perMinute(long now) {
+        return read(minutes, 60, now);
+    }
+
+    private static void add(AtomicLongArray ring, long bucket, int count) {
+        int slot = (int) Math.floorMod(bucket, (long) ring.length());
+        long tag = bucket + 1; // 0 marks a slot that was never used
+        while (true) {
+            long current = ring.get(slot);
+            long currentTag = current >>> COUNT_BITS;
+            long next;
+            if (currentTag == tag) {
+                next = (currentTag << COUNT_BITS) | Math.min((current & MAX_COUNT) + count, MAX_COUNT);
+            } else if (currentTag < tag) {
+                next = (tag << COUNT_BITS) | Math.min(count, MAX_COUNT);
+            } else {
+                return;
+            }
+            if (ring.compareAndSet(slot, current, next)) {
+                return;
+            }
+        }
+    }
+
+    private TimeSeries read(AtomicLongArray ring, int bucketSeconds, long now) {
+        long last = Math.floorDiv(now, bucketSeconds);
+        long first = Math.max(last - ring.length() + 1, Math.floorDiv(createdAt, bucketSeconds));
+        first = Math.min(first, last);
+        long[] counts = new long[(int) (last - first + 1)];
+        for (long bucket = first; bucket <= last; bucket++) {
+            long value = ring.get((int) Math.floorMod(bucket, (long) ring.length()));
+            if (value >>> COUNT_BITS == bucket + 1) {
+                counts[(int) (bucket - first)] = value & MAX_COUNT;
+            }
+        }
+        return new TimeSeries(first * bucketSeconds, bucketSeconds, counts);
+    }
+}
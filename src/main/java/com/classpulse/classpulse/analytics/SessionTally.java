@@ -0,0 +1,61 @@
+package com.classpulse.classpulse.analytics;
+
+import com.classpulse.classpulse.entity.QuestionType;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live tallies for all questions of a session plus the set of participants.
+ * Participants are reference counted so deleting a response removes a user only
+ * once their last response in the session is gone.
+ */
+public class SessionTally {
+
+    private final Long sessionId;
+    private final long builtAt;
+    private final Map<Long, QuestionTally> questions = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> responsesByUser = new ConcurrentHashMap<>();
+
+    public SessionTally(Long sessionId) {
+        this.sessionId = sessionId;
+        this.builtAt = System.currentTimeMillis();
+    }
+
+    public Long getSessionId() {
+        return sessionId;
+    }
+
+    public long getBuiltAt() {
+        return builtAt;
+    }
+
+    public QuestionTally question(Long questionId, QuestionType type) {
+        return questions.computeIfAbsent(questionId, id -> new QuestionTally(id, type));
+    }
+
+    public QuestionTally findQuestion(Long questionId) {
+        return questions.get(questionId);
+    }
+
+    public Set<Long> getQuestionIds() {
+        return questions.keySet();
+    }
+
+    public void participantAdded(Long userId, int responses) {
+        responsesByUser.merge(userId, responses, Integer::sum);
+    }
+
+    public void participantRemoved(Long userId) {
+        responsesByUser.computeIfPresent(userId, (id, count) -> count <= 1 ? null : count - 1);
+    }
+
+    public int getUniqueParticipants() {
+        return responsesByUser.size();
+    }
+
+    public long getTotalResponses() {
+        return questions.values().stream().mapToLong(QuestionTally::getResponseCount).sum();
+    }
+}
@@ -0,0 +1,150 @@
+package com.classpulse.classpulse.analytics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Streaming summary of OPEN_TEXT answers: the most frequent terms and two-word
+ * phrases, in bounded memory regardless of how many distinct answers arrive.
+ * <p>
+ * Answers are lower-cased and split on anything that is not a letter or digit;
+ * stop words and single characters are dropped. Each term or phrase counts
+ * once per answer, so a count reads as "number of answers mentioning it".
+ * Frequencies are estimated by a {@link CountMinSketch}; a min-heap keeps the
+ * current heavy hitters as candidates for the top list.
+ */
+public class TermSummary {
+
+    public static final int TOP_TERMS = 10;
+
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_WIDTH = 2048;
+    // Track more candidates than reported so late risers can still make the top list
+    private static final int CANDIDATES = TOP_TERMS * 4;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "about", "an", "and", "are", "as", "at", "be", "but", "by", "for", "from", "has", "have", "i",
+            "if", "in", "is", "it", "its", "me", "my", "no", "not", "of", "on", "or", "so", "that",
+            "the", "this", "to", "was", "we", "were", "what", "with", "you", "your");
+
+    private final CountMinSketch sketch = new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH);
+    private final Map<String, Candidate> candidates = new HashMap<>();
+    private final PriorityQueue<Candidate> heap = new PriorityQueue<>(Comparator.comparingLong(Candidate::count));
+
+    /**
+     * Add an answer {@code times} times
+     */
+    public synchronized void add(String answer, long times) {
+        for (String term : terms(answer)) {
+            sketch.add(term, times);
+            offer(term, sketch.estimate(term));
+        }
+    }
+
+    public synchronized void remove(String answer) {
+        for (String term : terms(answer)) {
+            sketch.add(term, -1);
+            Candidate candidate = candidates.get(term);
+            if (candidate != null) {
+                heap.remove(candidate);
+                candidate.count = sketch.estimate(term);
+                heap.offer(candidate);
+            }
+        }
+    }
+
+    /**
+     * Most frequent terms and phrases, most frequent first
+     */
+    public synchronized Map<String, Long> getTopTerms() {
+        List<Candidate> sorted = new ArrayList<>(candidates.values());
+        sorted.sort(Comparator.comparingLong(Candidate::count).reversed().thenComparing(Candidate::term));
+        Map<String, Long> top = new LinkedHashMap<>();
+        for (Candidate candidate : sorted) {
+            if (top.size() == TOP_TERMS || candidate.count <= 0) {
+                break;
+            }
+            top.put(candidate.term, candidate.count);
+        }
+        return top;
+    }
+
+    private void offer(String term, long estimate) {
+        Candidate candidate = candidates.get(term);
+        if (candidate != null) {
+            heap.remove(candidate);
+            candidate.count = estimate;
+            heap.offer(candidate);
+            return;
+        }
+        if (candidates.size() == CANDIDATES) {
+            if (heap.peek().count >= estimate) {
+                return;
+            }
+            candidates.remove(heap.poll().term);
+        }
+        candidate = new Candidate(term, estimate);
+        candidates.put(term, candidate);
+        heap.offer(candidate);
+    }
+
+    /**
+     * Distinct normalized terms and adjacent-term phrases of one answer
+     */
+    static Set<String> terms(String answer) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (answer == null) {
+            return terms;
+        }
+        String previous = null;
+        int start = -1;
+        String text = answer.toLowerCase(Locale.ROOT);
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String word = text.substring(start, i);
+                start = -1;
+                if (word.length() < 2 || STOP_WORDS.contains(word)) {
+                    // Phrases never span a dropped word
+                    previous = null;
+                    continue;
+                }
+                terms.add(word);
+                if (previous != null) {
+                    terms.add(previous + " " + word);
+                }
+                previous = word;
+            }
+        }
+        return terms;
+    }
+
+    private static final class Candidate {
+
+        private final String term;
+        private long count;
+
+        private Candidate(String term, long count) {
+            this.term = term;
+            this.count = count;
+        }
+
+        private String term() {
+            return term;
+        }
+
+        private long count() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.classpulse.classpulse.analytics;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Counts in consecutive buckets of {@code bucketSeconds}, the first one
+ * starting at {@code start} (epoch second).
+ * <p>
+ * The serialized form is a version byte followed by varints: bucket size,
+ * start, number of buckets, then the counts, where every zero is followed by
+ * the number of further zeros. Idle stretches therefore cost two bytes, and a
+ * one-hour class at per-minute resolution takes well under 100 bytes.
+ */
+public record TimeSeries(long start, int bucketSeconds, long[] counts) {
+
+    private static final byte FORMAT_VARINT = 1;
+
+    public long total() {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + counts.length);
+        out.write(FORMAT_VARINT);
+        writeVarint(out, bucketSeconds);
+        writeVarint(out, start);
+        writeVarint(out, counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            writeVarint(out, counts[i]);
+            if (counts[i] == 0) {
+                int run = 0;
+                while (i + 1 < counts.length && counts[i + 1] == 0) {
+                    run++;
+                    i++;
+                }
+                writeVarint(out, run);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    public static TimeSeries fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0 || bytes[0] != FORMAT_VARINT) {
+            throw new IllegalArgumentException("Not a serialized TimeSeries");
+        }
+        int[] offset = { 1 };
+        int bucketSeconds = (int) readVarint(bytes, offset);
+        long start = readVarint(bytes, offset);
+        long length = readVarint(bytes, offset);
+        if (bucketSeconds <= 0 || length > bytes.length * 128L) {
+            throw new IllegalArgumentException("Not a serialized TimeSeries");
+        }
+        long[] counts = new long[(int) length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = readVarint(bytes, offset);
+            if (counts[i] == 0) {
+                i += (int) readVarint(bytes, offset);
+            }
+        }
+        if (offset[0] != bytes.length) {
+            throw new IllegalArgumentException("Not a serialized TimeSeries");
+        }
+        return new TimeSeries(start, bucketSeconds, counts);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] bytes, int[] offset) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (offset[0] >= bytes.length) {
+                throw new IllegalArgumentException("Not a serialized TimeSeries");
+            }
+            byte b = bytes[offset[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Not a serialized TimeSeries");
+    }
+}
@@ -0,0 +1,131 @@
+package com.classpulse.classpulse.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops calls to a failing dependency. After {@code failureThreshold}
+ * consecutive failures (a call slower than {@code slowCall} counts as one) the
+ * circuit opens and {@link #tryAcquire()} refuses every call. Once per
+ * {@code openDuration} a single call is let through as a probe; if it
+ * succeeds the circuit closes again and the recovery listener runs.
+ */
+public class CircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final long slowCallNanos;
+    private final LongSupplier clock;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong nextProbeAt = new AtomicLong();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private volatile Runnable recoveryListener = () -> {
+    };
+
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration, Duration slowCall) {
+        this(name, failureThreshold, openDuration, slowCall, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, int failureThreshold, Duration openDuration, Duration slowCall, LongSupplier clock) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.slowCallNanos = slowCall.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * Runs when the circuit closes after having been open
+     */
+    public void onRecovery(Runnable listener) {
+        this.recoveryListener = listener;
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public boolean isClosed() {
+        return state.get() == State.CLOSED;
+    }
+
+    /**
+     * Whether a call may go ahead; every permitted call must report back
+     * through {@link #recordSuccess} or {@link #recordFailure}
+     */
+    public boolean tryAcquire() {
+        if (state.get() == State.CLOSED) {
+            return true;
+        }
+        long now = clock.getAsLong();
+        long probeAt = nextProbeAt.get();
+        // A lost probe (one that never reported back) doesn't block the next one
+        if (now - probeAt >= 0 && nextProbeAt.compareAndSet(probeAt, now + openNanos)) {
+            state.compareAndSet(State.OPEN, State.HALF_OPEN);
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public void recordSuccess(long elapsedNanos) {
+        if (elapsedNanos > slowCallNanos) {
+            recordFailure();
+            return;
+        }
+        consecutiveFailures.set(0);
+        if (state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+            log.info("Circuit {} closed, {} is reachable again", name, name);
+            recoveryListener.run();
+        }
+    }
+
+    public void recordFailure() {
+        failures.increment();
+        if (state.compareAndSet(State.HALF_OPEN, State.OPEN)) {
+            return;
+        }
+        // Calls still in flight when the circuit opened don't postpone the probe
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold && state.get() == State.CLOSED) {
+            nextProbeAt.set(clock.getAsLong() + openNanos);
+            if (state.compareAndSet(State.CLOSED, State.OPEN)) {
+                log.warn("Circuit {} opened after {} consecutive failures, retrying every {} ms",
+                        name, failureThreshold, openNanos / 1_000_000);
+            }
+        }
+    }
+
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("classpulse.circuit.state", state, s -> s.get().ordinal())
+                .description("0 closed, 1 open, 2 half-open (probing)")
+                .tags("circuit", name)
+                .register(registry);
+        FunctionCounter.builder("classpulse.circuit.failures", failures, LongAdder::sum)
+                .tags("circuit", name)
+                .register(registry);
+        FunctionCounter.builder("classpulse.circuit.rejected", rejected, LongAdder::sum)
+                .description("Calls skipped because the circuit was open")
+                .tags("circuit", name)
+                .register(registry);
+    }
+}
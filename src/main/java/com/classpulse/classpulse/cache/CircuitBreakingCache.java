@@ -0,0 +1,126 @@
+package com.classpulse.classpulse.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * Guards a Redis cache with a {@link CircuitBreaker}. While Redis fails or the
+ * circuit is open, reads are misses and writes are dropped, so callers fall
+ * back to the L1 tier or compute the value themselves. Evictions and clears
+ * throw instead: losing one would leave a stale entry behind, so the caller
+ * has to retry them.
+ */
+class CircuitBreakingCache implements Cache {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreakingCache.class);
+
+    private final Cache delegate;
+    private final CircuitBreaker circuitBreaker;
+
+    CircuitBreakingCache(Cache delegate, CircuitBreaker circuitBreaker) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return degrade(() -> delegate.get(key));
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return degrade(() -> delegate.get(key, type));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        degrade(() -> {
+            delegate.put(key, value);
+            return null;
+        });
+    }
+
+    @Override
+    public void evict(Object key) {
+        require(() -> {
+            delegate.evict(key);
+            return null;
+        });
+    }
+
+    @Override
+    public void clear() {
+        require(() -> {
+            delegate.clear();
+            return null;
+        });
+    }
+
+    private <T> T degrade(Supplier<T> call) {
+        if (!circuitBreaker.tryAcquire()) {
+            return null;
+        }
+        try {
+            return invoke(call);
+        } catch (DataAccessException e) {
+            log.debug("Redis cache {} unavailable: {}", getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private <T> T require(Supplier<T> call) {
+        if (!circuitBreaker.tryAcquire()) {
+            throw new RedisConnectionFailureException("Circuit for Redis cache " + getName() + " is open");
+        }
+        return invoke(call);
+    }
+
+    private <T> T invoke(Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            circuitBreaker.recordSuccess(System.nanoTime() - start);
+            return result;
+        } catch (DataAccessException e) {
+            circuitBreaker.recordFailure();
+            throw e;
+        } catch (RuntimeException e) {
+            // Redis answered; the value itself was the problem
+            circuitBreaker.recordSuccess(0);
+            throw e;
+        }
+    }
+}
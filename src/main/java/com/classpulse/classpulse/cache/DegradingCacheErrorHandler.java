@@ -0,0 +1,39 @@
+package com.classpulse.classpulse.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.interceptor.CacheErrorHandler;
+
+/**
+ * Never lets a cache failure fail the request: a failed read is a miss, so
+ * the annotated method computes the value directly, and failed writes are
+ * skipped. Redis outages are mostly absorbed by {@link CircuitBreakingCache}
+ * already; this covers whatever still gets through (a failed invalidation
+ * broadcast, a value that can't be serialized).
+ */
+public class DegradingCacheErrorHandler implements CacheErrorHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(DegradingCacheErrorHandler.class);
+
+    @Override
+    public void handleCacheGetError(RuntimeException exception, Cache cache, Object key) {
+        log.warn("Cache {} read failed for key {}, computing directly: {}", cache.getName(), key,
+                exception.getMessage());
+    }
+
+    @Override
+    public void handleCachePutError(RuntimeException exception, Cache cache, Object key, Object value) {
+        log.warn("Cache {} write failed for key {}: {}", cache.getName(), key, exception.getMessage());
+    }
+
+    @Override
+    public void handleCacheEvictError(RuntimeException exception, Cache cache, Object key) {
+        log.warn("Cache {} eviction failed for key {}: {}", cache.getName(), key, exception.getMessage());
+    }
+
+    @Override
+    public void handleCacheClearError(RuntimeException exception, Cache cache) {
+        log.warn("Cache {} clear failed: {}", cache.getName(), exception.getMessage());
+    }
+}
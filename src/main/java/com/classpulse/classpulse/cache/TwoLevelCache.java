@@ -0,0 +1,224 @@
+package com.classpulse.classpulse.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache with a bounded in-process tier (L1, Caffeine) in front of the shared
+ * Redis cache (L2). Reads try L1, then L2, and copy L2 hits into L1; writes go
+ * to both tiers.
+ * <p>
+ * An eviction drops the L1 entry at once and marks the key pending. The
+ * manager later deletes the L2 entry and broadcasts the key to the other
+ * nodes, in batches. Until then a pending key bypasses both tiers, so this
+ * node never reads the stale L2 value back. Keys are compared as strings,
+ * which is also how Redis stores them.
+ */
+public class TwoLevelCache implements Cache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final Runnable clearListener;
+
+    private final Queue<String> queuedEvictions = new ConcurrentLinkedQueue<>();
+    private final Map<String, Integer> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder localMisses = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+
+    /**
+     * @param clearListener runs after {@link #clear()}, to tell the other nodes
+     */
+    public TwoLevelCache(String name, Cache remote, long localMaxSize, Duration localTtl, Runnable clearListener) {
+        this.name = name;
+        this.remote = remote;
+        this.clearListener = clearListener;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = String.valueOf(key);
+        if (pending.containsKey(localKey)) {
+            localMisses.increment();
+            return null;
+        }
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            localHits.increment();
+            return new SimpleValueWrapper(value);
+        }
+        localMisses.increment();
+
+        ValueWrapper wrapper = remote.get(localKey);
+        if (wrapper == null || wrapper.get() == null) {
+            remoteMisses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        local.put(localKey, wrapper.get());
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String localKey = String.valueOf(key);
+        // A value computed while an eviction is pending may predate the change
+        if (value == null || pending.containsKey(localKey)) {
+            return;
+        }
+        remote.put(localKey, value);
+        local.put(localKey, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        String localKey = String.valueOf(key);
+        pending.merge(localKey, 1, Integer::sum);
+        queuedEvictions.add(localKey);
+        local.invalidate(localKey);
+    }
+
+    @Override
+    public void clear() {
+        local.invalidateAll();
+        remote.clear();
+        clearListener.run();
+    }
+
+    /**
+     * Entry changed on another node (or L2 was updated by this one)
+     */
+    void evictLocal(String key) {
+        local.invalidate(key);
+    }
+
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    /**
+     * Evictions queued since the last flush, by key, with how often each was queued
+     */
+    Map<String, Integer> drainEvictions() {
+        Map<String, Integer> drained = new LinkedHashMap<>();
+        String key;
+        while ((key = queuedEvictions.poll()) != null) {
+            drained.merge(key, 1, Integer::sum);
+        }
+        return drained;
+    }
+
+    void evictRemote(String key) {
+        remote.evict(key);
+    }
+
+    /**
+     * L2 entries are gone; keys that were not evicted again meanwhile become cacheable
+     */
+    void completeEvictions(Map<String, Integer> drained) {
+        drained.forEach((key, count) -> pending.computeIfPresent(key, (k, n) -> n > count ? n - count : null));
+    }
+
+    /**
+     * Flush failed; try the same keys again next time
+     */
+    void requeueEvictions(Map<String, Integer> drained) {
+        drained.forEach((key, count) -> {
+            for (int i = 0; i < count; i++) {
+                queuedEvictions.add(key);
+            }
+        });
+    }
+
+    void bindTo(MeterRegistry registry) {
+        counter(registry, "l1", "hit", localHits);
+        counter(registry, "l1", "miss", localMisses);
+        counter(registry, "l2", "hit", remoteHits);
+        counter(registry, "l2", "miss", remoteMisses);
+        Gauge.builder("classpulse.cache.hit.ratio", this, c -> ratio(c.localHits, c.localMisses))
+                .description("Share of lookups answered by this tier since startup")
+                .tags("cache", name, "tier", "l1")
+                .register(registry);
+        Gauge.builder("classpulse.cache.hit.ratio", this, c -> ratio(c.remoteHits, c.remoteMisses))
+                .description("Share of lookups answered by this tier since startup")
+                .tags("cache", name, "tier", "l2")
+                .register(registry);
+        Gauge.builder("classpulse.cache.local.size", local, com.github.benmanes.caffeine.cache.Cache::estimatedSize)
+                .tags("cache", name)
+                .register(registry);
+        Gauge.builder("classpulse.cache.pending.evictions", pending, Map::size)
+                .tags("cache", name)
+                .register(registry);
+    }
+
+    private void counter(MeterRegistry registry, String tier, String result, LongAdder adder) {
+        FunctionCounter.builder("classpulse.cache.gets", adder, LongAdder::sum)
+                .tags("cache", name, "tier", tier, "result", result)
+                .register(registry);
+    }
+
+    private static double ratio(LongAdder hits, LongAdder misses) {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+}
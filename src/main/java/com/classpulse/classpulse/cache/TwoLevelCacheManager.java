@@ -0,0 +1,165 @@
+package com.classpulse.classpulse.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Wraps every cache of a Redis-backed {@link CacheManager} in a
+ * {@link TwoLevelCache}, and keeps the L1 tiers of all nodes coherent.
+ * Evictions are flushed every {@code cache.invalidation.flush-ms}: the L2
+ * entries are deleted, then the keys are published on a Redis channel that
+ * every node (this one included) listens to and drops from its L1.
+ * <p>
+ * Message format: one line per key, {@code evict<TAB>cache<TAB>key}, or
+ * {@code clear<TAB>cache}.
+ * <p>
+ * All Redis cache access goes through one {@link CircuitBreaker}. While it is
+ * open the caches run on L1 alone and evictions stay queued. Invalidations
+ * from other nodes may have been lost in the meantime, so every L1 is
+ * cleared once Redis is reachable again.
+ */
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TwoLevelCacheManager.class);
+
+    private final CacheManager remote;
+    private final CircuitBreaker circuitBreaker;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String channel;
+    private final long localMaxSize;
+    private final Duration localTtl;
+
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    private final Map<String, List<InvalidationListener>> listeners = new ConcurrentHashMap<>();
+
+    /**
+     * Told about every eviction of a cache on any node, for state derived from
+     * cached entries that lives outside the cache
+     */
+    public interface InvalidationListener {
+
+        void evicted(String key);
+
+        /**
+         * The whole cache was cleared, or invalidations may have been missed
+         */
+        void cleared();
+    }
+
+    public TwoLevelCacheManager(CacheManager remote, CircuitBreaker circuitBreaker, StringRedisTemplate redisTemplate,
+            MeterRegistry meterRegistry, String channel, long localMaxSize, Duration localTtl) {
+        this.remote = remote;
+        this.circuitBreaker = circuitBreaker;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.channel = channel;
+        this.localMaxSize = localMaxSize;
+        this.localTtl = localTtl;
+        circuitBreaker.onRecovery(() -> {
+            caches.values().forEach(TwoLevelCache::clearLocal);
+            listeners.values().forEach(list -> list.forEach(InvalidationListener::cleared));
+        });
+        circuitBreaker.bindTo(meterRegistry);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, n -> {
+            Cache remoteCache = remote.getCache(n);
+            if (remoteCache == null) {
+                return null;
+            }
+            // Clears are rare (admin operations), so they are broadcast immediately
+            TwoLevelCache cache = new TwoLevelCache(n, new CircuitBreakingCache(remoteCache, circuitBreaker),
+                    localMaxSize, localTtl,
+                    () -> redisTemplate.convertAndSend(channel, "clear\t" + n));
+            cache.bindTo(meterRegistry);
+            return cache;
+        });
+    }
+
+    CircuitBreaker circuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public void addInvalidationListener(String cacheName, InvalidationListener listener) {
+        listeners.computeIfAbsent(cacheName, n -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remote.getCacheNames();
+    }
+
+    @Scheduled(fixedDelayString = "${cache.invalidation.flush-ms:100}")
+    public void flushEvictions() {
+        Map<TwoLevelCache, Map<String, Integer>> drained = new HashMap<>();
+        StringBuilder message = new StringBuilder();
+        for (TwoLevelCache cache : caches.values()) {
+            Map<String, Integer> keys = cache.drainEvictions();
+            if (!keys.isEmpty()) {
+                drained.put(cache, keys);
+                keys.keySet().forEach(key -> message.append("evict\t").append(cache.getName()).append('\t')
+                        .append(key).append('\n'));
+            }
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+        try {
+            drained.forEach((cache, keys) -> keys.keySet().forEach(cache::evictRemote));
+            redisTemplate.convertAndSend(channel, message.toString());
+            drained.forEach(TwoLevelCache::completeEvictions);
+        } catch (DataAccessException e) {
+            // While the circuit is open the evictions are refused without a Redis call; the keys stay
+            // pending, bypassing both tiers, and a flush doubles as the probe that detects recovery
+            if (circuitBreaker.isClosed()) {
+                log.warn("Could not flush {} cache eviction(s), retrying: {}",
+                        drained.values().stream().mapToInt(Map::size).sum(), e.getMessage());
+            }
+            drained.forEach(TwoLevelCache::requeueEvictions);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        for (String line : body.split("\n")) {
+            String[] parts = line.split("\t", 3);
+            if (parts.length < 2) {
+                continue;
+            }
+            TwoLevelCache cache = caches.get(parts[1]);
+            List<InvalidationListener> cacheListeners = listeners.getOrDefault(parts[1], List.of());
+            if ("evict".equals(parts[0]) && parts.length == 3) {
+                if (cache != null) {
+                    cache.evictLocal(parts[2]);
+                }
+                cacheListeners.forEach(listener -> listener.evicted(parts[2]));
+            } else if ("clear".equals(parts[0])) {
+                if (cache != null) {
+                    cache.clearLocal();
+                }
+                cacheListeners.forEach(InvalidationListener::cleared);
+            }
+        }
+    }
+}
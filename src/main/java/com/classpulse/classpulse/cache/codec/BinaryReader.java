@@ -0,0 +1,116 @@
+package com.classpulse.classpulse.cache.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads what {@link BinaryWriter} wrote. Malformed input fails with
+ * {@link IllegalArgumentException} rather than an index or allocation error.
+ */
+public final class BinaryReader {
+
+    private final byte[] bytes;
+    private int offset;
+
+    public BinaryReader(byte[] bytes, int offset) {
+        this.bytes = bytes;
+        this.offset = offset;
+    }
+
+    public int readByte() {
+        if (offset >= bytes.length) {
+            throw new IllegalArgumentException("Truncated cache value");
+        }
+        return bytes[offset++] & 0xFF;
+    }
+
+    public boolean readBoolean() {
+        return readByte() != 0;
+    }
+
+    public long readVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in cache value");
+    }
+
+    public int readInt() {
+        return Math.toIntExact(readSignedVarint());
+    }
+
+    public long readSignedVarint() {
+        long value = readVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public double readDouble() {
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = (bits << 8) | readByte();
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    public Long readNullableLong() {
+        return readBoolean() ? readSignedVarint() : null;
+    }
+
+    public Double readNullableDouble() {
+        return readBoolean() ? readDouble() : null;
+    }
+
+    public String readString() {
+        int length = readLength();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(bytes, offset, length, StandardCharsets.UTF_8);
+        offset += length;
+        return value;
+    }
+
+    public <E extends Enum<E>> E readEnum(Class<E> type) {
+        String name = readString();
+        return name == null ? null : Enum.valueOf(type, name);
+    }
+
+    public Map<String, Long> readCountMap() {
+        int size = readLength();
+        if (size < 0) {
+            return null;
+        }
+        Map<String, Long> map = LinkedHashMap.newLinkedHashMap(size);
+        for (int i = 0; i < size; i++) {
+            map.put(readString(), readNullableLong());
+        }
+        return map;
+    }
+
+    /** Element count of a nullable collection, -1 for null. */
+    public int readLength() {
+        long encoded = readVarint();
+        // Every element takes at least one byte, which bounds what we allocate
+        if (encoded - 1 > bytes.length - offset) {
+            throw new IllegalArgumentException("Malformed length in cache value");
+        }
+        return (int) encoded - 1;
+    }
+
+    public byte[] remaining() {
+        byte[] rest = new byte[bytes.length - offset];
+        System.arraycopy(bytes, offset, rest, 0, rest.length);
+        offset = bytes.length;
+        return rest;
+    }
+
+    public boolean isExhausted() {
+        return offset == bytes.length;
+    }
+}
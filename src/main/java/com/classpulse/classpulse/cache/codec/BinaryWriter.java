@@ -0,0 +1,119 @@
+package com.classpulse.classpulse.cache.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Growable byte buffer with the primitives the cache codecs are built from.
+ * Integers are varints (zigzag for values that may be negative), doubles are
+ * eight raw bytes. Nullable values carry their own marker: strings and maps
+ * store length + 1 with 0 meaning null, boxed numbers a presence byte.
+ */
+public final class BinaryWriter {
+
+    private byte[] buffer;
+    private int size;
+
+    public BinaryWriter(int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) value;
+    }
+
+    public void writeBoolean(boolean value) {
+        writeByte(value ? 1 : 0);
+    }
+
+    public void writeVarint(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    public void writeSignedVarint(long value) {
+        writeVarint((value << 1) ^ (value >> 63));
+    }
+
+    public void writeInt(int value) {
+        writeSignedVarint(value);
+    }
+
+    public void writeDouble(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[size++] = (byte) (bits >>> shift);
+        }
+    }
+
+    public void writeNullableLong(Long value) {
+        writeBoolean(value != null);
+        if (value != null) {
+            writeSignedVarint(value);
+        }
+    }
+
+    public void writeNullableDouble(Double value) {
+        writeBoolean(value != null);
+        if (value != null) {
+            writeDouble(value);
+        }
+    }
+
+    public void writeString(String value) {
+        if (value == null) {
+            writeVarint(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length + 1L);
+        writeBytes(bytes);
+    }
+
+    public void writeEnum(Enum<?> value) {
+        // By name, so reordering constants can't silently change cached values
+        writeString(value == null ? null : value.name());
+    }
+
+    /** Map of string to count; iteration order is preserved on read. */
+    public void writeCountMap(Map<String, Long> map) {
+        if (map == null) {
+            writeVarint(0);
+            return;
+        }
+        writeVarint(map.size() + 1L);
+        for (Map.Entry<String, Long> entry : map.entrySet()) {
+            writeString(entry.getKey());
+            writeNullableLong(entry.getValue());
+        }
+    }
+
+    /** Element count of a nullable collection; pair with {@link BinaryReader#readLength()}. */
+    public void writeLength(Collection<?> collection) {
+        writeVarint(collection == null ? 0 : collection.size() + 1L);
+    }
+
+    public void writeBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+}
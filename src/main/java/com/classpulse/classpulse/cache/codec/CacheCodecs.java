@@ -0,0 +1,296 @@
+package com.classpulse.classpulse.cache.codec;
+
+import com.classpulse.classpulse.dto.response.SessionAnalyticsResponse;
+import com.classpulse.classpulse.dto.response.SessionAnalyticsResponse.QuestionAnalytics;
+import com.classpulse.classpulse.dto.response.SessionAnalyticsSnapshotResponse;
+import com.classpulse.classpulse.dto.response.SessionResponse;
+import com.classpulse.classpulse.dto.response.TeacherDashboardResponse;
+import com.classpulse.classpulse.dto.response.UserResponse;
+import com.classpulse.classpulse.entity.Role;
+import com.classpulse.classpulse.entity.SessionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Codecs for the DTOs kept in the Redis caches ({@code analytics},
+ * {@code sessions}, {@code users}). Adding a field to one of these DTOs means
+ * adding it here too, behind a version bump; until then the field is simply
+ * not cached.
+ */
+public final class CacheCodecs {
+
+    public static final ValueCodec<SessionAnalyticsResponse> SESSION_ANALYTICS = new SessionAnalyticsCodec();
+
+    private CacheCodecs() {
+    }
+
+    public static List<ValueCodec<?>> all() {
+        return List.of(SESSION_ANALYTICS, new TeacherDashboardCodec(), new SessionCodec(), new UserCodec(),
+                new AnalyticsSnapshotCodec());
+    }
+
+    /**
+     * Standalone form of a value kept outside Redis: layout version, then the
+     * fields. There is no JSON fallback, so the codec must be able to read every
+     * version ever stored.
+     */
+    public static <T> byte[] encode(ValueCodec<T> codec, T value) {
+        BinaryWriter out = new BinaryWriter(256);
+        out.writeVarint(codec.version());
+        codec.write(value, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are malformed or were written by a newer codec
+     */
+    public static <T> T decode(ValueCodec<T> codec, byte[] bytes) {
+        BinaryReader in = new BinaryReader(bytes, 0);
+        long version = in.readVarint();
+        if (version < 1 || version > codec.version()) {
+            throw new IllegalArgumentException("Unsupported " + codec.type().getSimpleName() + " version " + version);
+        }
+        T value = codec.read(in, (int) version);
+        if (!in.isExhausted()) {
+            throw new IllegalArgumentException("Trailing bytes after " + codec.type().getSimpleName());
+        }
+        return value;
+    }
+
+    static final class SessionAnalyticsCodec implements ValueCodec<SessionAnalyticsResponse> {
+
+        @Override
+        public int typeId() {
+            return 1;
+        }
+
+        @Override
+        public Class<SessionAnalyticsResponse> type() {
+            return SessionAnalyticsResponse.class;
+        }
+
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public void write(SessionAnalyticsResponse value, BinaryWriter out) {
+            out.writeNullableLong(value.getSessionId());
+            out.writeString(value.getSessionTitle());
+            out.writeString(value.getSessionStatus());
+            out.writeInt(value.getTotalQuestions());
+            out.writeInt(value.getTotalResponses());
+            out.writeInt(value.getUniqueParticipants());
+            out.writeDouble(value.getAverageResponsesPerQuestion());
+            List<QuestionAnalytics> questions = value.getQuestionAnalytics();
+            out.writeLength(questions);
+            if (questions != null) {
+                for (QuestionAnalytics question : questions) {
+                    out.writeNullableLong(question.getQuestionId());
+                    out.writeString(question.getQuestionText());
+                    out.writeString(question.getQuestionType());
+                    out.writeInt(question.getResponseCount());
+                    out.writeCountMap(question.getAnswerDistribution());
+                    out.writeNullableDouble(question.getAverageRating());
+                    out.writeNullableDouble(question.getRatingStdDev());
+                    out.writeNullableDouble(question.getRatingMedian());
+                    out.writeCountMap(question.getRatingHistogram());
+                    out.writeCountMap(question.getTopTerms());
+                }
+            }
+        }
+
+        @Override
+        public SessionAnalyticsResponse read(BinaryReader in, int version) {
+            SessionAnalyticsResponse.SessionAnalyticsResponseBuilder builder = SessionAnalyticsResponse.builder()
+                    .sessionId(in.readNullableLong())
+                    .sessionTitle(in.readString())
+                    .sessionStatus(in.readString())
+                    .totalQuestions(in.readInt())
+                    .totalResponses(in.readInt())
+                    .uniqueParticipants(in.readInt())
+                    .averageResponsesPerQuestion(in.readDouble());
+            int count = in.readLength();
+            if (count >= 0) {
+                List<QuestionAnalytics> questions = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    questions.add(QuestionAnalytics.builder()
+                            .questionId(in.readNullableLong())
+                            .questionText(in.readString())
+                            .questionType(in.readString())
+                            .responseCount(in.readInt())
+                            .answerDistribution(in.readCountMap())
+                            .averageRating(in.readNullableDouble())
+                            .ratingStdDev(in.readNullableDouble())
+                            .ratingMedian(in.readNullableDouble())
+                            .ratingHistogram(in.readCountMap())
+                            .topTerms(in.readCountMap())
+                            .build());
+                }
+                builder.questionAnalytics(questions);
+            }
+            return builder.build();
+        }
+    }
+
+    // Reuses the session analytics layout; bump together with SessionAnalyticsCodec
+    static final class AnalyticsSnapshotCodec implements ValueCodec<SessionAnalyticsSnapshotResponse> {
+
+        @Override
+        public int typeId() {
+            return 5;
+        }
+
+        @Override
+        public Class<SessionAnalyticsSnapshotResponse> type() {
+            return SessionAnalyticsSnapshotResponse.class;
+        }
+
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public void write(SessionAnalyticsSnapshotResponse value, BinaryWriter out) {
+            out.writeString(value.getEtag());
+            SESSION_ANALYTICS.write(value.getAnalytics(), out);
+        }
+
+        @Override
+        public SessionAnalyticsSnapshotResponse read(BinaryReader in, int version) {
+            String etag = in.readString();
+            return new SessionAnalyticsSnapshotResponse(etag, SESSION_ANALYTICS.read(in, version));
+        }
+    }
+
+    static final class TeacherDashboardCodec implements ValueCodec<TeacherDashboardResponse> {
+
+        @Override
+        public int typeId() {
+            return 2;
+        }
+
+        @Override
+        public Class<TeacherDashboardResponse> type() {
+            return TeacherDashboardResponse.class;
+        }
+
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public void write(TeacherDashboardResponse value, BinaryWriter out) {
+            out.writeNullableLong(value.getTeacherId());
+            out.writeString(value.getTeacherName());
+            out.writeInt(value.getTotalSessions());
+            out.writeInt(value.getActiveSessions());
+            out.writeInt(value.getEndedSessions());
+            out.writeInt(value.getTotalQuestions());
+            out.writeInt(value.getTotalResponses());
+            out.writeInt(value.getTotalUniqueStudents());
+            out.writeBoolean(value.isUniqueStudentsApproximate());
+            out.writeNullableDouble(value.getUniqueStudentsStandardError());
+            out.writeDouble(value.getAverageResponsesPerSession());
+            out.writeDouble(value.getAverageQuestionsPerSession());
+        }
+
+        @Override
+        public TeacherDashboardResponse read(BinaryReader in, int version) {
+            return TeacherDashboardResponse.builder()
+                    .teacherId(in.readNullableLong())
+                    .teacherName(in.readString())
+                    .totalSessions(in.readInt())
+                    .activeSessions(in.readInt())
+                    .endedSessions(in.readInt())
+                    .totalQuestions(in.readInt())
+                    .totalResponses(in.readInt())
+                    .totalUniqueStudents(in.readInt())
+                    .uniqueStudentsApproximate(in.readBoolean())
+                    .uniqueStudentsStandardError(in.readNullableDouble())
+                    .averageResponsesPerSession(in.readDouble())
+                    .averageQuestionsPerSession(in.readDouble())
+                    .build();
+        }
+    }
+
+    static final class SessionCodec implements ValueCodec<SessionResponse> {
+
+        @Override
+        public int typeId() {
+            return 3;
+        }
+
+        @Override
+        public Class<SessionResponse> type() {
+            return SessionResponse.class;
+        }
+
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public void write(SessionResponse value, BinaryWriter out) {
+            out.writeNullableLong(value.getId());
+            out.writeString(value.getTitle());
+            out.writeString(value.getCode());
+            out.writeEnum(value.getStatus());
+            out.writeNullableLong(value.getCreatedById());
+            out.writeString(value.getCreatedByName());
+        }
+
+        @Override
+        public SessionResponse read(BinaryReader in, int version) {
+            SessionResponse response = new SessionResponse();
+            response.setId(in.readNullableLong());
+            response.setTitle(in.readString());
+            response.setCode(in.readString());
+            response.setStatus(in.readEnum(SessionStatus.class));
+            response.setCreatedById(in.readNullableLong());
+            response.setCreatedByName(in.readString());
+            return response;
+        }
+    }
+
+    static final class UserCodec implements ValueCodec<UserResponse> {
+
+        @Override
+        public int typeId() {
+            return 4;
+        }
+
+        @Override
+        public Class<UserResponse> type() {
+            return UserResponse.class;
+        }
+
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public void write(UserResponse value, BinaryWriter out) {
+            out.writeNullableLong(value.getId());
+            out.writeString(value.getName());
+            out.writeString(value.getEmail());
+            out.writeEnum(value.getRole());
+        }
+
+        @Override
+        public UserResponse read(BinaryReader in, int version) {
+            UserResponse response = new UserResponse();
+            response.setId(in.readNullableLong());
+            response.setName(in.readString());
+            response.setEmail(in.readString());
+            response.setRole(in.readEnum(Role.class));
+            return response;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.classpulse.classpulse.cache.codec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Redis value serializer for the caches. Every value starts with a format byte:
+ * <ul>
+ * <li>{@code BINARY}: type id and layout version (varints), then the fields as
+ * written by the type's {@link ValueCodec}. Used for the registered DTOs.</li>
+ * <li>{@code JSON}: class name, then the value as JSON. Used for types without
+ * a codec, or for everything when binary encoding is switched off (e.g. while
+ * nodes with different codec versions run side by side).</li>
+ * </ul>
+ * Both formats are always readable. A value this node cannot read (written by
+ * a newer codec version, by JDK serialization before this format existed, or
+ * corrupt) deserializes to {@code null}, which the cache treats as a miss.
+ */
+public class CacheValueSerializer implements RedisSerializer<Object> {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheValueSerializer.class);
+
+    static final byte FORMAT_BINARY = 1;
+    static final byte FORMAT_JSON = 2;
+
+    // Only our own DTOs may be instantiated from a class name found in Redis
+    private static final String JSON_TYPE_PREFIX = "com.classpulse.classpulse.dto.";
+
+    private final Map<Class<?>, ValueCodec<?>> codecsByType = new HashMap<>();
+    private final Map<Integer, ValueCodec<?>> codecsById = new HashMap<>();
+    private final JsonMapper jsonMapper;
+    private final boolean binary;
+
+    /**
+     * @param binary {@code false} writes JSON for every type
+     */
+    public CacheValueSerializer(List<ValueCodec<?>> codecs, JsonMapper jsonMapper, boolean binary) {
+        for (ValueCodec<?> codec : codecs) {
+            if (codecsById.put(codec.typeId(), codec) != null || codecsByType.put(codec.type(), codec) != null) {
+                throw new IllegalArgumentException("Duplicate cache codec for " + codec.type().getName());
+            }
+        }
+        this.jsonMapper = jsonMapper;
+        this.binary = binary;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return null;
+        }
+        ValueCodec<?> codec = binary ? codecsByType.get(value.getClass()) : null;
+        if (codec != null) {
+            return writeBinary(codec, value);
+        }
+        try {
+            BinaryWriter out = new BinaryWriter(256);
+            out.writeByte(FORMAT_JSON);
+            out.writeString(value.getClass().getName());
+            out.writeBytes(jsonMapper.writeValueAsBytes(value));
+            return out.toByteArray();
+        } catch (JacksonException e) {
+            throw new SerializationException("Cannot serialize " + value.getClass().getName() + " for the cache", e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            BinaryReader in = new BinaryReader(bytes, 1);
+            return switch (bytes[0]) {
+                case FORMAT_BINARY -> readBinary(in);
+                case FORMAT_JSON -> readJson(in);
+                default -> null;
+            };
+        } catch (IllegalArgumentException | ArithmeticException | JacksonException | ClassNotFoundException e) {
+            log.warn("Dropping unreadable cache value: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> byte[] writeBinary(ValueCodec<T> codec, Object value) {
+        BinaryWriter out = new BinaryWriter(128);
+        out.writeByte(FORMAT_BINARY);
+        out.writeVarint(codec.typeId());
+        out.writeVarint(codec.version());
+        codec.write((T) value, out);
+        return out.toByteArray();
+    }
+
+    private Object readBinary(BinaryReader in) {
+        ValueCodec<?> codec = codecsById.get((int) in.readVarint());
+        long version = in.readVarint();
+        if (codec == null || version > codec.version()) {
+            // Written by a newer node; recompute rather than guess
+            return null;
+        }
+        Object value = codec.read(in, (int) version);
+        if (!in.isExhausted()) {
+            throw new IllegalArgumentException("Trailing bytes after " + codec.type().getSimpleName());
+        }
+        return value;
+    }
+
+    private Object readJson(BinaryReader in) throws ClassNotFoundException {
+        String typeName = in.readString();
+        if (typeName == null || !typeName.startsWith(JSON_TYPE_PREFIX)) {
+            throw new IllegalArgumentException("Unexpected cached type " + typeName);
+        }
+        Class<?> type = Class.forName(typeName, false, getClass().getClassLoader());
+        return jsonMapper.readValue(in.remaining(), type);
+    }
+}
@@ -0,0 +1,27 @@
+package com.classpulse.classpulse.cache.codec;
+
+/**
+ * Hand-written binary form of one cached type. Codecs write fields in a fixed
+ * order with no names or type information, so they must be changed with care:
+ * any change to the layout bumps {@link #version()}, and {@link #read} keeps
+ * accepting every older version that can still be found in Redis.
+ *
+ * @param <T> the exact class encoded; subclasses are not matched
+ */
+public interface ValueCodec<T> {
+
+    /** Stable id written into every value; never reuse an id for another type. */
+    int typeId();
+
+    Class<T> type();
+
+    /** Layout version that {@link #write} produces. */
+    int version();
+
+    void write(T value, BinaryWriter out);
+
+    /**
+     * @param version layout version of the stored value, at most {@link #version()}
+     */
+    T read(BinaryReader in, int version);
+}
@@ -0,0 +1,20 @@
+package com.classpulse.classpulse.coalescing;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Concurrent calls with equal arguments share one execution: the first caller
+ * runs the method, the others wait for its result (or exception). Calls made
+ * after it finished run again. Applied outside caching and transactions, so
+ * waiting callers hold no database connection. Only for reads whose result
+ * does not depend on the caller.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Coalesced {
+}
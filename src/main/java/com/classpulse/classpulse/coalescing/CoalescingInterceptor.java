@@ -0,0 +1,75 @@
+package com.classpulse.classpulse.coalescing;
+
+import com.classpulse.classpulse.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs {@link Coalesced} methods through a {@link SingleFlight} keyed by method
+ * and arguments. Metrics, tagged by method:
+ * {@code classpulse.coalescing.calls} (every call),
+ * {@code classpulse.coalescing.saved} (calls served by another call's execution) and
+ * {@code classpulse.coalescing.timeouts} (callers that gave up waiting, answered with 503).
+ */
+public class CoalescingInterceptor implements MethodInterceptor {
+
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final long timeoutMillis;
+
+    private final Map<Method, Meters> meters = new ConcurrentHashMap<>();
+
+    public CoalescingInterceptor(ObjectProvider<MeterRegistry> meterRegistry, long timeoutMillis) {
+        this.meterRegistry = meterRegistry;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        Meters methodMeters = meters.computeIfAbsent(method, this::register);
+        methodMeters.calls.increment();
+
+        List<Object> key = Arrays.asList(method, Arrays.asList(invocation.getArguments()));
+        try {
+            SingleFlight.Result result = singleFlight.execute(key, timeoutMillis, invocation::proceed);
+            if (result.shared()) {
+                methodMeters.saved.increment();
+            }
+            return result.value();
+        } catch (TimeoutException e) {
+            methodMeters.timeouts.increment();
+            throw new ServiceUnavailableException("Timed out waiting for a concurrent request. Please retry shortly.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for a concurrent request.");
+        }
+    }
+
+    private Meters register(Method method) {
+        String name = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        MeterRegistry registry = meterRegistry.getObject();
+        if (meters.isEmpty()) {
+            Gauge.builder("classpulse.coalescing.in.flight", singleFlight, SingleFlight::inFlightCount)
+                    .register(registry);
+        }
+        return new Meters(
+                Counter.builder("classpulse.coalescing.calls").tag("method", name).register(registry),
+                Counter.builder("classpulse.coalescing.saved").tag("method", name).register(registry),
+                Counter.builder("classpulse.coalescing.timeouts").tag("method", name).register(registry));
+    }
+
+    private record Meters(Counter calls, Counter saved, Counter timeouts) {
+    }
+}
@@ -0,0 +1,60 @@
+package com.classpulse.classpulse.coalescing;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Deduplicates concurrent executions per key. The caller that finds no
+ * execution in flight runs it on its own thread; callers arriving meanwhile
+ * wait for that result.
+ */
+public class SingleFlight {
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param timeoutMillis how long a waiting caller waits for the running execution
+     * @throws TimeoutException when waiting for another caller's execution timed out
+     */
+    public Result execute(Object key, long timeoutMillis, Call call) throws Throwable {
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, own);
+        if (running == null) {
+            try {
+                Object value = call.run();
+                own.complete(value);
+                return new Result(value, false);
+            } catch (Throwable t) {
+                own.completeExceptionally(t);
+                throw t;
+            } finally {
+                inFlight.remove(key, own);
+            }
+        }
+
+        try {
+            return new Result(running.get(timeoutMillis, TimeUnit.MILLISECONDS), true);
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    @FunctionalInterface
+    public interface Call {
+        Object run() throws Throwable;
+    }
+
+    /**
+     * @param shared true when the value came from another caller's execution
+     */
+    public record Result(Object value, boolean shared) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.classpulse.classpulse.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+// @Async methods run on Spring Boot's application task executor (spring.task.execution.*)
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
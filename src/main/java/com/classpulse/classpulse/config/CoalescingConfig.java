@@ -0,0 +1,32 @@
+package com.classpulse.classpulse.config;
+
+import com.classpulse.classpulse.coalescing.Coalesced;
+import com.classpulse.classpulse.coalescing.CoalescingInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class CoalescingConfig {
+
+    // Outside the cache and transaction advisors (both LOWEST_PRECEDENCE), so a
+    // waiting caller has not opened a transaction and the result is cached once
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor coalescingAdvisor(ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${coalescing.timeout-ms:10000}") long timeoutMillis) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(Coalesced.class),
+                new CoalescingInterceptor(meterRegistry, timeoutMillis));
+        advisor.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        return advisor;
+    }
+}
@@ -1,31 +1,56 @@
 package com.classpulse.classpulse.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Rate limiting filter using Bucket4j
  * Limits requests per IP address: 100 requests per minute
+ * <p>
+ * Buckets live in a Caffeine cache bounded by {@code rate-limit.max-buckets}
+ * and dropped after {@code rate-limit.idle-ms} without requests, so clients
+ * that rotate addresses cannot grow the heap. Eviction is amortized per
+ * access: no scans of the whole store and no global lock. An idle bucket has
+ * refilled completely after a minute, so dropping it later changes nothing
+ * for its client.
  */
 @Component
 public class RateLimitingFilter extends OncePerRequestFilter {
 
-    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Cache<String, Bucket> buckets;
 
     // Rate limit: 100 requests per minute per IP
     private static final long REQUESTS_PER_MINUTE = 100;
+    private static final Duration REFILL_PERIOD = Duration.ofMinutes(1);
+
+    public RateLimitingFilter(MeterRegistry meterRegistry,
+            @Value("${rate-limit.max-buckets:100000}") long maxBuckets,
+            @Value("${rate-limit.idle-ms:120000}") long idleMillis) {
+        // Expiring sooner would hand an active client a full bucket early
+        Duration idle = Duration.ofMillis(Math.max(idleMillis, REFILL_PERIOD.toMillis()));
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(idle)
+                .recordStats()
+                .build();
+        // cache.size is the number of live buckets, cache.evictions counts drops
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rate-limit-buckets");
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -33,7 +58,7 @@ public class RateLimitingFilter extends OncePerRequestFilter {
             FilterChain filterChain) throws ServletException, IOException {
 
         String clientIP = getClientIP(request);
-        Bucket bucket = buckets.computeIfAbsent(clientIP, this::createBucket);
+        Bucket bucket = buckets.get(clientIP, this::createBucket);
 
         if (bucket.tryConsume(1)) {
             // Add rate limit headers
@@ -55,10 +80,16 @@ public class RateLimitingFilter extends OncePerRequestFilter {
     private Bucket createBucket(String key) {
         // Bucket4j 8.x simple API
         return Bucket.builder()
-                .addLimit(Bandwidth.simple(REQUESTS_PER_MINUTE, Duration.ofMinutes(1)))
+                .addLimit(Bandwidth.simple(REQUESTS_PER_MINUTE, REFILL_PERIOD))
                 .build();
     }
 
+    // Live buckets once pending evictions have run
+    long bucketCount() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+
     private String getClientIP(HttpServletRequest request) {
         String xForwardedFor = request.getHeader("X-Forwarded-For");
         if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
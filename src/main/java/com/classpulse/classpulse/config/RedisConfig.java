@@ -1,30 +1,59 @@
 package com.classpulse.classpulse.config;
 
+import com.classpulse.classpulse.cache.CircuitBreaker;
+import com.classpulse.classpulse.cache.DegradingCacheErrorHandler;
+import com.classpulse.classpulse.cache.TwoLevelCacheManager;
+import com.classpulse.classpulse.cache.codec.CacheCodecs;
+import com.classpulse.classpulse.cache.codec.CacheValueSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CachingConfigurer;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.CacheErrorHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import tools.jackson.databind.json.JsonMapper;
 
 import java.time.Duration;
 
 @Configuration
 @EnableCaching
-public class RedisConfig {
+public class RedisConfig implements CachingConfigurer {
 
+        // Redis (L2) behind an in-process near cache (L1), see TwoLevelCacheManager
         @Bean
-        public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+        public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                        StringRedisTemplate redisTemplate,
+                        MeterRegistry meterRegistry,
+                        JsonMapper jsonMapper,
+                        @Value("${cache.invalidation.channel:classpulse:cache-invalidation}") String invalidationChannel,
+                        @Value("${cache.codec.binary:true}") boolean binaryValues,
+                        @Value("${cache.local.max-size:10000}") long localMaxSize,
+                        @Value("${cache.local.ttl-ms:60000}") long localTtlMillis,
+                        @Value("${cache.circuit.failure-threshold:5}") int failureThreshold,
+                        @Value("${cache.circuit.open-ms:5000}") long openMillis,
+                        @Value("${cache.circuit.slow-call-ms:100}") long slowCallMillis) {
                 RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
                                 .entryTtl(Duration.ofMinutes(10)) // Default TTL: 10 minutes
                                 .serializeKeysWith(
                                                 RedisSerializationContext.SerializationPair
                                                                 .fromSerializer(new StringRedisSerializer()))
+                                // Compact binary for the cached DTOs, JSON for anything else
+                                .serializeValuesWith(
+                                                RedisSerializationContext.SerializationPair
+                                                                .fromSerializer(new CacheValueSerializer(
+                                                                                CacheCodecs.all(), jsonMapper, binaryValues)))
                                 .disableCachingNullValues();
 
-                return RedisCacheManager.builder(connectionFactory)
+                RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                                 .cacheDefaults(config)
                                 // Custom TTL for specific caches
                                 .withCacheConfiguration("sessions",
@@ -34,5 +63,30 @@ public class RedisConfig {
                                 .withCacheConfiguration("users",
                                                 config.entryTtl(Duration.ofMinutes(15)))
                                 .build();
+                // Not a bean of its own; load the configured caches here
+                redisCacheManager.afterPropertiesSet();
+
+                CircuitBreaker circuitBreaker = new CircuitBreaker("redis-cache", failureThreshold,
+                                Duration.ofMillis(openMillis), Duration.ofMillis(slowCallMillis));
+
+                return new TwoLevelCacheManager(redisCacheManager, circuitBreaker, redisTemplate, meterRegistry,
+                                invalidationChannel, localMaxSize, Duration.ofMillis(localTtlMillis));
+        }
+
+        // Cache failures degrade to computing the value instead of failing the request
+        @Override
+        public CacheErrorHandler errorHandler() {
+                return new DegradingCacheErrorHandler();
+        }
+
+        // Delivers evictions made on any node to every node's L1
+        @Bean
+        public RedisMessageListenerContainer cacheInvalidationListener(RedisConnectionFactory connectionFactory,
+                        TwoLevelCacheManager cacheManager,
+                        @Value("${cache.invalidation.channel:classpulse:cache-invalidation}") String invalidationChannel) {
+                RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+                container.setConnectionFactory(connectionFactory);
+                container.addMessageListener(cacheManager, new ChannelTopic(invalidationChannel));
+                return container;
         }
 }
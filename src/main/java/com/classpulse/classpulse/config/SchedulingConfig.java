@@ -0,0 +1,10 @@
+package com.classpulse.classpulse.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// @Scheduled methods run on Spring Boot's task scheduler, sized by spring.task.scheduling.pool.size
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
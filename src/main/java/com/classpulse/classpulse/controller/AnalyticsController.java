@@ -1,13 +1,28 @@
 package com.classpulse.classpulse.controller;
 
 import com.classpulse.classpulse.dto.response.SessionAnalyticsResponse;
+import com.classpulse.classpulse.dto.response.SessionAnalyticsSnapshotResponse;
+import com.classpulse.classpulse.dto.response.SessionTimelineResponse;
+import com.classpulse.classpulse.dto.response.TallyVerificationResponse;
+import com.classpulse.classpulse.dto.response.TeacherActivityResponse;
 import com.classpulse.classpulse.dto.response.TeacherDashboardResponse;
 import com.classpulse.classpulse.service.AnalyticsService;
+import com.classpulse.classpulse.service.AnalyticsSnapshotService;
+import com.classpulse.classpulse.service.AnalyticsStreamService;
+import com.classpulse.classpulse.service.ResponseTimelineService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/analytics")
@@ -16,22 +31,70 @@ import org.springframework.web.bind.annotation.*;
 public class AnalyticsController {
 
     private final AnalyticsService analyticsService;
+    private final AnalyticsStreamService analyticsStreamService;
+    private final ResponseTimelineService responseTimelineService;
+    private final AnalyticsSnapshotService analyticsSnapshotService;
 
-    public AnalyticsController(AnalyticsService analyticsService) {
+    public AnalyticsController(AnalyticsService analyticsService, AnalyticsStreamService analyticsStreamService,
+            ResponseTimelineService responseTimelineService, AnalyticsSnapshotService analyticsSnapshotService) {
         this.analyticsService = analyticsService;
+        this.analyticsStreamService = analyticsStreamService;
+        this.responseTimelineService = responseTimelineService;
+        this.analyticsSnapshotService = analyticsSnapshotService;
     }
 
-    @Operation(summary = "Get session analytics", description = "Get detailed participation stats for a session including question-wise breakdown")
+    // Ended sessions are served from their frozen snapshot and can be revalidated with If-None-Match
+    @Operation(summary = "Get session analytics", description = "Get detailed participation stats for a session including question-wise breakdown. Ended sessions carry a strong ETag")
     @GetMapping("/session/{sessionId}")
-    public ResponseEntity<SessionAnalyticsResponse> getSessionAnalytics(@PathVariable Long sessionId) {
-        SessionAnalyticsResponse analytics = analyticsService.getSessionAnalytics(sessionId);
-        return ResponseEntity.ok(analytics);
+    public ResponseEntity<SessionAnalyticsResponse> getSessionAnalytics(@PathVariable Long sessionId,
+            WebRequest request) {
+        Optional<SessionAnalyticsSnapshotResponse> snapshot = analyticsSnapshotService.findSnapshot(sessionId);
+        if (snapshot.isEmpty()) {
+            return ResponseEntity.ok(analyticsService.getSessionAnalytics(sessionId));
+        }
+        String etag = snapshot.get().getEtag();
+        if (request.checkNotModified(etag)) {
+            // 304, headers already set
+            return null;
+        }
+        // Revalidate every time: a deletion can still replace the snapshot
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(snapshot.get().getAnalytics());
+    }
+
+    @Operation(summary = "Stream session analytics", description = "Server-Sent Events: a full snapshot followed by coalesced per-question deltas (at most 4 frames per second). Sessions that are not ACTIVE get the snapshot and an ended event, then the stream closes")
+    @GetMapping(value = "/session/{sessionId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSessionAnalytics(@PathVariable Long sessionId) {
+        return analyticsStreamService.subscribe(sessionId);
+    }
+
+    @Operation(summary = "Get session response timeline", description = "Responses per second (last 5 minutes) and per minute. Live sessions are counted in memory on the serving node only (nodeLocal=true): with several nodes the live series show that node's share. Ended sessions return the stored per-minute series, which covers all nodes")
+    @GetMapping("/session/{sessionId}/timeline")
+    public ResponseEntity<SessionTimelineResponse> getSessionTimeline(@PathVariable Long sessionId) {
+        return ResponseEntity.ok(responseTimelineService.getSessionTimeline(sessionId));
     }
 
-    @Operation(summary = "Get teacher dashboard", description = "Get overall stats for a teacher including all sessions and engagement metrics")
+    @Operation(summary = "Verify live tally", description = "Rebuild the live answer counters of a session from the database and report any drift")
+    @PostMapping("/session/{sessionId}/tally/verify")
+    public ResponseEntity<TallyVerificationResponse> verifySessionTally(@PathVariable Long sessionId) {
+        return ResponseEntity.ok(analyticsService.verifySessionTally(sessionId));
+    }
+
+    @Operation(summary = "Get teacher dashboard", description = "Get overall stats for a teacher including all sessions and engagement metrics. Unique students are estimated (about 1.6% standard error) unless exact=true")
     @GetMapping("/teacher/{teacherId}/dashboard")
-    public ResponseEntity<TeacherDashboardResponse> getTeacherDashboard(@PathVariable Long teacherId) {
-        TeacherDashboardResponse dashboard = analyticsService.getTeacherDashboard(teacherId);
+    public ResponseEntity<TeacherDashboardResponse> getTeacherDashboard(@PathVariable Long teacherId,
+            @RequestParam(defaultValue = "false") boolean exact) {
+        TeacherDashboardResponse dashboard = analyticsService.getTeacherDashboard(teacherId, exact);
         return ResponseEntity.ok(dashboard);
     }
+
+    @Operation(summary = "Get teacher activity", description = "Sessions and questions created and responses received per day within a date range (at most 366 days)")
+    @GetMapping("/teacher/{teacherId}/activity")
+    public ResponseEntity<TeacherActivityResponse> getTeacherActivity(@PathVariable Long teacherId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(analyticsService.getTeacherActivity(teacherId, from, to));
+    }
 }
@@ -3,33 +3,41 @@ package com.classpulse.classpulse.controller;
 import com.classpulse.classpulse.dto.request.LoginRequest;
 import com.classpulse.classpulse.dto.request.RegisterRequest;
 import com.classpulse.classpulse.dto.response.AuthResponse;
+import com.classpulse.classpulse.security.PasswordHashingExecutor;
 import com.classpulse.classpulse.service.AuthService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
 
     private final AuthService authService;
+    private final PasswordHashingExecutor passwordHashingExecutor;
 
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, PasswordHashingExecutor passwordHashingExecutor) {
         this.authService = authService;
+        this.passwordHashingExecutor = passwordHashingExecutor;
     }
 
+    // Both endpoints hash a password: they run on the bounded hashing pool and
+    // release the servlet thread meanwhile. A full pool answers 503.
+
     // POST /api/auth/register - Register new user
     @PostMapping("/register")
-    public ResponseEntity<AuthResponse> register(@Valid @RequestBody RegisterRequest request) {
-        AuthResponse response = authService.register(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    public CompletableFuture<ResponseEntity<AuthResponse>> register(@Valid @RequestBody RegisterRequest request) {
+        return passwordHashingExecutor.submit(() -> authService.register(request))
+                .thenApply(response -> ResponseEntity.status(HttpStatus.CREATED).body(response));
     }
 
     // POST /api/auth/login - Login user
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
-        AuthResponse response = authService.login(request);
-        return ResponseEntity.ok(response);
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@Valid @RequestBody LoginRequest request) {
+        return passwordHashingExecutor.submit(() -> authService.login(request))
+                .thenApply(ResponseEntity::ok);
     }
 }
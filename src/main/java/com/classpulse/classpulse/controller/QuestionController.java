@@ -44,9 +44,7 @@ public class QuestionController {
     // GET /api/questions/session/{sessionId} - Get questions by session
     @GetMapping("/session/{sessionId}")
     public ResponseEntity<List<QuestionResponse>> getQuestionsBySession(@PathVariable Long sessionId) {
-        List<QuestionResponse> questions = questionService.getQuestionsBySession(sessionId).stream()
-                .map(QuestionResponse::fromEntity)
-                .collect(Collectors.toList());
+        List<QuestionResponse> questions = questionService.getQuestionResponsesBySession(sessionId);
         return ResponseEntity.ok(questions);
     }
 
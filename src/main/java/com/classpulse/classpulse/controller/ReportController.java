@@ -8,6 +8,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -22,10 +23,12 @@ public class ReportController {
         this.reportService = reportService;
     }
 
-    @Operation(summary = "Get platform report", description = "Get aggregated platform statistics including top teachers and recent sessions")
+    @Operation(summary = "Get platform report", description = "Get aggregated platform statistics including top teachers and recent sessions. Served from a periodically refreshed snapshot (see generatedAt); refresh=true rebuilds it now. Unique participants are estimated (about 1.6% standard error) unless exact=true. Reports built by refresh=true or exact=true are reused for up to a minute, so repeating them returns the same report")
     @GetMapping("/platform")
-    public ResponseEntity<PlatformReportResponse> getPlatformReport() {
-        PlatformReportResponse report = reportService.generatePlatformReport();
+    public ResponseEntity<PlatformReportResponse> getPlatformReport(
+            @RequestParam(defaultValue = "false") boolean refresh,
+            @RequestParam(defaultValue = "false") boolean exact) {
+        PlatformReportResponse report = reportService.getPlatformReport(refresh, exact);
         return ResponseEntity.ok(report);
     }
 }
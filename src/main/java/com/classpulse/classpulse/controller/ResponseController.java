@@ -1,8 +1,14 @@
 package com.classpulse.classpulse.controller;
 
+import com.classpulse.classpulse.dto.request.BatchSubmitResponseRequest;
 import com.classpulse.classpulse.dto.request.SubmitResponseRequest;
+import com.classpulse.classpulse.dto.response.BatchSubmitResponse;
+import com.classpulse.classpulse.dto.response.IngestReceiptResponse;
 import com.classpulse.classpulse.dto.response.ResponseResponse;
 import com.classpulse.classpulse.entity.Response;
+import com.classpulse.classpulse.exception.BadRequestException;
+import com.classpulse.classpulse.security.AuthenticatedUser;
+import com.classpulse.classpulse.service.ResponseIngestionService;
 import com.classpulse.classpulse.service.ResponseService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
@@ -12,6 +18,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -23,9 +30,12 @@ import java.util.stream.Collectors;
 public class ResponseController {
 
     private final ResponseService responseService;
+    private final ResponseIngestionService responseIngestionService;
 
-    public ResponseController(ResponseService responseService) {
+    public ResponseController(ResponseService responseService,
+            ResponseIngestionService responseIngestionService) {
         this.responseService = responseService;
+        this.responseIngestionService = responseIngestionService;
     }
 
     // GET /api/responses - Get all responses (TEACHER only - to see all responses)
@@ -78,12 +88,47 @@ public class ResponseController {
     // POST /api/responses - Submit a response (STUDENT only)
     @PostMapping
     @PreAuthorize("hasRole('STUDENT')")
-    public ResponseEntity<ResponseResponse> submitResponse(@Valid @RequestBody SubmitResponseRequest request) {
-        Response response = responseService.submitResponse(
+    public ResponseEntity<ResponseResponse> submitResponse(@Valid @RequestBody SubmitResponseRequest request,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        ResponseResponse response = responseService.submitResponse(
                 request.getQuestionId(),
-                request.getUserId(),
+                respondingUserId(request, user),
                 request.getAnswer());
-        return ResponseEntity.status(HttpStatus.CREATED).body(ResponseResponse.fromEntity(response));
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    // POST /api/responses/batch - Submit several answers at once, e.g. a whole
+    // quiz (STUDENT only). Returns a result per item instead of failing the batch.
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<BatchSubmitResponse> submitResponses(
+            @Valid @RequestBody BatchSubmitResponseRequest request,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        request.getResponses().forEach(item -> respondingUserId(item, user));
+        BatchSubmitResponse response = responseService.submitResponses(request.getResponses(), user.id());
+        return ResponseEntity.ok(response);
+    }
+
+    // POST /api/responses/queued - Submit a response through the write-behind
+    // queue (STUDENT only). Returns a receipt to poll for the persistence outcome.
+    @PostMapping("/queued")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<IngestReceiptResponse> submitResponseQueued(
+            @Valid @RequestBody SubmitResponseRequest request,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        IngestReceiptResponse receipt = responseIngestionService.enqueue(
+                request.getQuestionId(),
+                respondingUserId(request, user),
+                request.getAnswer());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(receipt);
+    }
+
+    // GET /api/responses/queued/{receiptId} - Check an own queued submission
+    @GetMapping("/queued/{receiptId}")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<IngestReceiptResponse> getQueuedReceipt(@PathVariable String receiptId,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(responseIngestionService.getReceipt(receiptId, user.id()));
     }
 
     // PUT /api/responses/{id} - Update response (STUDENT only)
@@ -104,4 +149,12 @@ public class ResponseController {
         responseService.deleteResponse(id);
         return ResponseEntity.noContent().build();
     }
+
+    // Students answer as themselves; a userId in the body is only accepted if it agrees
+    private Long respondingUserId(SubmitResponseRequest request, AuthenticatedUser user) {
+        if (request.getUserId() != null && !request.getUserId().equals(user.id())) {
+            throw new BadRequestException("Cannot submit a response for another user");
+        }
+        return user.id();
+    }
 }
@@ -4,6 +4,7 @@ import com.classpulse.classpulse.dto.request.CreateSessionRequest;
 import com.classpulse.classpulse.dto.response.SessionResponse;
 import com.classpulse.classpulse.entity.Session;
 import com.classpulse.classpulse.entity.SessionStatus;
+import com.classpulse.classpulse.service.QuestionService;
 import com.classpulse.classpulse.service.SessionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -14,9 +15,11 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -27,9 +30,11 @@ import java.util.stream.Collectors;
 public class SessionController {
 
     private final SessionService sessionService;
+    private final QuestionService questionService;
 
-    public SessionController(SessionService sessionService) {
+    public SessionController(SessionService sessionService, QuestionService questionService) {
         this.sessionService = sessionService;
+        this.questionService = questionService;
     }
 
     // GET /api/sessions - Get all sessions (paginated) - Any authenticated user
@@ -61,10 +66,18 @@ public class SessionController {
     // students to join)
     @GetMapping("/code/{code}")
     public ResponseEntity<SessionResponse> getSessionByCode(@PathVariable String code) {
-        SessionResponse session = SessionResponse.fromEntity(sessionService.getSessionByCode(code));
+        SessionResponse session = sessionService.getSessionByCode(code);
         return ResponseEntity.ok(session);
     }
 
+    // GET /api/sessions/code/{code}/questions/stream - Live question updates over
+    // SSE (PUBLIC - replaces polling the question list)
+    @GetMapping(value = "/code/{code}/questions/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream session questions", description = "Server-Sent Events: a snapshot of the question list, then question-created, question-updated and question-deleted events; ended when the session ends")
+    public SseEmitter streamQuestionsByCode(@PathVariable String code) {
+        return questionService.streamQuestionsByCode(code);
+    }
+
     // GET /api/sessions/teacher/{teacherId} - Get sessions by teacher
     @GetMapping("/teacher/{teacherId}")
     public ResponseEntity<List<SessionResponse>> getSessionsByTeacher(@PathVariable Long teacherId) {
@@ -1,14 +1,17 @@
 package com.classpulse.classpulse.controller;
 
 import com.classpulse.classpulse.dto.request.CreateUserRequest;
+import com.classpulse.classpulse.dto.response.UserImportJobResponse;
 import com.classpulse.classpulse.dto.response.UserResponse;
 import com.classpulse.classpulse.entity.User;
+import com.classpulse.classpulse.service.UserImportService;
 import com.classpulse.classpulse.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -18,9 +21,11 @@ import java.util.stream.Collectors;
 public class UserController {
 
     private final UserService userService;
+    private final UserImportService userImportService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserImportService userImportService) {
         this.userService = userService;
+        this.userImportService = userImportService;
     }
 
     // GET /api/users - Get all users (TEACHER only - for admin purposes)
@@ -36,7 +41,7 @@ public class UserController {
     // GET /api/users/{id} - Get user by ID
     @GetMapping("/{id}")
     public ResponseEntity<UserResponse> getUserById(@PathVariable Long id) {
-        UserResponse user = UserResponse.fromEntity(userService.getUserById(id));
+        UserResponse user = userService.getUserResponseById(id);
         return ResponseEntity.ok(user);
     }
 
@@ -73,6 +78,22 @@ public class UserController {
         return ResponseEntity.status(HttpStatus.CREATED).body(UserResponse.fromEntity(createdUser));
     }
 
+    // POST /api/users/import - Import users from a CSV or NDJSON file (TEACHER
+    // only). Runs in the background; poll the returned job for progress.
+    @PostMapping("/import")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<UserImportJobResponse> importUsers(@RequestParam("file") MultipartFile file) {
+        UserImportJobResponse job = userImportService.start(file);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    // GET /api/users/import/{jobId} - Import progress and rejected rows (TEACHER only)
+    @GetMapping("/import/{jobId}")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<UserImportJobResponse> getImportJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(userImportService.getJob(jobId));
+    }
+
     // PUT /api/users/{id} - Update user
     @PutMapping("/{id}")
     public ResponseEntity<UserResponse> updateUser(@PathVariable Long id,
@@ -0,0 +1,19 @@
+package com.classpulse.classpulse.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class BatchSubmitResponseRequest {
+
+    @NotEmpty(message = "At least one response is required")
+    @Size(max = 100, message = "A batch can contain at most 100 responses")
+    @Valid
+    private List<SubmitResponseRequest> responses;
+}
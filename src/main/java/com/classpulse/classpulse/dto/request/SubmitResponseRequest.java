@@ -12,7 +12,7 @@ public class SubmitResponseRequest {
     @NotNull(message = "Question ID is required")
     private Long questionId;
 
-    @NotNull(message = "User ID is required")
+    // Optional; taken from the authenticated user and must match it if given
     private Long userId;
 
     @NotBlank(message = "Answer is required")
@@ -0,0 +1,33 @@
+package com.classpulse.classpulse.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+public class BatchSubmitResponse {
+
+    private int created;
+    private int rejected;
+
+    // One entry per submitted item, in request order
+    private List<ItemResult> results;
+
+    @Getter
+    @Setter
+    @Builder
+    @AllArgsConstructor
+    public static class ItemResult {
+        private int index;
+        private Long questionId;
+        private String status; // CREATED, DUPLICATE, SESSION_NOT_ACTIVE or NOT_FOUND
+        private Long responseId;
+        private String message;
+    }
+}
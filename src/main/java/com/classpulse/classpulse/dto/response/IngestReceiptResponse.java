@@ -0,0 +1,17 @@
+package com.classpulse.classpulse.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class IngestReceiptResponse {
+
+    private String receiptId;
+    private Long questionId;
+    private Long userId;
+    private String status; // QUEUED, PERSISTED, REJECTED or FAILED
+    private String message;
+}
@@ -3,13 +3,16 @@ package com.classpulse.classpulse.dto.response;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Getter
 @Setter
 @Builder
+@NoArgsConstructor
 @AllArgsConstructor
 public class PlatformReportResponse {
 
@@ -21,14 +24,21 @@ public class PlatformReportResponse {
     private long activeSessions;
     private long totalQuestions;
     private long totalResponses;
+    private boolean countsApproximate; // Totals taken from Postgres planner statistics
+    private long uniqueParticipants; // Students with at least one response
+    private boolean uniqueParticipantsApproximate;
+    private Double uniqueParticipantsStandardError; // Relative, null for exact counts
 
     // Top performers
     private List<TeacherStats> topTeachers;
     private List<SessionStats> recentSessions;
 
+    private LocalDateTime generatedAt;
+
     @Getter
     @Setter
     @Builder
+    @NoArgsConstructor
     @AllArgsConstructor
     public static class TeacherStats {
         private Long teacherId;
@@ -40,6 +50,7 @@ public class PlatformReportResponse {
     @Getter
     @Setter
     @Builder
+    @NoArgsConstructor
     @AllArgsConstructor
     public static class SessionStats {
         private Long sessionId;
@@ -4,6 +4,8 @@ import com.classpulse.classpulse.entity.Response;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.time.LocalDateTime;
+
 @Getter
 @Setter
 public class ResponseResponse {
@@ -13,6 +15,7 @@ public class ResponseResponse {
     private Long userId;
     private String userName;
     private String answer;
+    private LocalDateTime createdAt;
 
     public static ResponseResponse fromEntity(Response response) {
         ResponseResponse dto = new ResponseResponse();
@@ -21,6 +24,7 @@ public class ResponseResponse {
         dto.setUserId(response.getUser().getId());
         dto.setUserName(response.getUser().getName());
         dto.setAnswer(response.getAnswer());
+        dto.setCreatedAt(response.getCreatedAt());
         return dto;
     }
 }
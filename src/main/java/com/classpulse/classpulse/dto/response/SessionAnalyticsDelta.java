@@ -0,0 +1,22 @@
+package com.classpulse.classpulse.dto.response;
+
+import com.classpulse.classpulse.dto.response.SessionAnalyticsResponse.QuestionAnalytics;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+// Streamed frame: session totals plus only the questions that changed since the last frame
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+public class SessionAnalyticsDelta {
+
+    private Long sessionId;
+    private long totalResponses;
+    private int uniqueParticipants;
+    private List<QuestionAnalytics> changedQuestions;
+}
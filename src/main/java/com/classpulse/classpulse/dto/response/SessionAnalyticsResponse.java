@@ -3,16 +3,21 @@ package com.classpulse.classpulse.dto.response;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
 
 @Getter
 @Setter
 @Builder
+@NoArgsConstructor
 @AllArgsConstructor
-public class SessionAnalyticsResponse {
+public class SessionAnalyticsResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private Long sessionId;
     private String sessionTitle;
@@ -30,13 +35,21 @@ public class SessionAnalyticsResponse {
     @Getter
     @Setter
     @Builder
+    @NoArgsConstructor
     @AllArgsConstructor
-    public static class QuestionAnalytics {
+    public static class QuestionAnalytics implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
         private Long questionId;
         private String questionText;
         private String questionType;
         private int responseCount;
         private Map<String, Long> answerDistribution; // For MCQ: answer -> count
         private Double averageRating; // For RATING type
+        private Double ratingStdDev; // For RATING type
+        private Double ratingMedian; // For RATING type, at whole-rating resolution
+        private Map<String, Long> ratingHistogram; // For RATING type: rating -> count
+        private Map<String, Long> topTerms; // For OPEN_TEXT: term or phrase -> answers mentioning it, most frequent first
     }
 }
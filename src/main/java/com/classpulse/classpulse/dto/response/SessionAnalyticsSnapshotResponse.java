@@ -0,0 +1,17 @@
+package com.classpulse.classpulse.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Frozen analytics of an ended session with the strong ETag they are served under
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionAnalyticsSnapshotResponse {
+
+    private String etag;
+    private SessionAnalyticsResponse analytics;
+}
@@ -5,9 +5,13 @@ import com.classpulse.classpulse.entity.SessionStatus;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.io.Serializable;
+
 @Getter
 @Setter
-public class SessionResponse {
+public class SessionResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private Long id;
     private String title;
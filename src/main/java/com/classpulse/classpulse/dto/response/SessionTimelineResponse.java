@@ -0,0 +1,38 @@
+package com.classpulse.classpulse.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+public class SessionTimelineResponse {
+
+    private Long sessionId;
+    private String status;
+
+    private boolean live; // Counted in memory while the session is ACTIVE
+
+    // True for live series: they only count submissions accepted by the node
+    // serving the request, so behind a load balancer they show that node's share
+    private boolean nodeLocal;
+
+    private Series perSecond; // Last 5 minutes, live sessions only
+    private Series perMinute;
+
+    @Getter
+    @Setter
+    @Builder
+    @AllArgsConstructor
+    public static class Series {
+        private LocalDateTime start; // Null when there are no buckets
+        private int bucketSeconds;
+        private long total;
+        private long[] counts;
+    }
+}
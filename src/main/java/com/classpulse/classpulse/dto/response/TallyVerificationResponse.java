@@ -0,0 +1,18 @@
+package com.classpulse.classpulse.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class TallyVerificationResponse {
+
+    private Long sessionId;
+    private boolean consistent;
+    private List<Long> driftedQuestionIds; // Questions whose live counters differed from the database
+    private boolean participantsDrifted;
+}
@@ -0,0 +1,39 @@
+package com.classpulse.classpulse.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+public class TeacherActivityResponse {
+
+    private Long teacherId;
+    private LocalDate from;
+    private LocalDate to;
+
+    // Totals over the range
+    private long sessionsCreated;
+    private long questionsCreated;
+    private long responsesReceived;
+
+    // Days without activity are left out
+    private List<DailyActivity> days;
+
+    @Getter
+    @Setter
+    @Builder
+    @AllArgsConstructor
+    public static class DailyActivity {
+        private LocalDate day;
+        private long sessionsCreated;
+        private long questionsCreated;
+        private long responsesReceived;
+    }
+}
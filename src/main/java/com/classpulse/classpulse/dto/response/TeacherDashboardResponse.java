@@ -3,13 +3,19 @@ package com.classpulse.classpulse.dto.response;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.io.Serializable;
+
 @Getter
 @Setter
 @Builder
+@NoArgsConstructor
 @AllArgsConstructor
-public class TeacherDashboardResponse {
+public class TeacherDashboardResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private Long teacherId;
     private String teacherName;
@@ -23,6 +29,8 @@ public class TeacherDashboardResponse {
     private int totalQuestions;
     private int totalResponses;
     private int totalUniqueStudents;
+    private boolean uniqueStudentsApproximate; // HyperLogLog estimate, see uniqueStudentsStandardError
+    private Double uniqueStudentsStandardError; // Relative, null for exact counts
 
     // Averages
     private double averageResponsesPerSession;
@@ -0,0 +1,42 @@
+package com.classpulse.classpulse.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+public class UserImportJobResponse {
+
+    private String jobId;
+    private String fileName;
+    private String status; // QUEUED, RUNNING, COMPLETED or FAILED
+    private String message;
+
+    // Data rows read so far and their outcome
+    private int processed;
+    private int created;
+    private int rejected;
+
+    // Rejected rows in file order, capped; rejected counts them all
+    private List<RowError> errors;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+
+    @Getter
+    @Setter
+    @Builder
+    @AllArgsConstructor
+    public static class RowError {
+        private int line;
+        private String email;
+        private String message;
+    }
+}
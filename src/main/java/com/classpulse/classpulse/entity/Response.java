@@ -4,16 +4,21 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "responses")
+@Table(name = "responses", uniqueConstraints = @UniqueConstraint(name = "uk_responses_question_user", columnNames = {
+        "question_id", "user_id" }))
 @Getter
 @Setter
 @NoArgsConstructor
 public class Response {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "responses_seq")
+    @SequenceGenerator(name = "responses_seq", sequenceName = "responses_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -26,4 +31,9 @@ public class Response {
 
     @Column(nullable = false, columnDefinition = "TEXT")
     private String answer;
+
+    // Raw SQL inserts rely on the column default (db/upgrade/003)
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
 }
@@ -0,0 +1,38 @@
+package com.classpulse.classpulse.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+// Final analytics of an ended session, encoded with CacheCodecs.SESSION_ANALYTICS.
+// Never updated: a change deletes the row and a new one is stored.
+@Entity
+@Table(name = "session_analytics_snapshots")
+@Getter
+@NoArgsConstructor
+public class SessionAnalyticsSnapshot {
+
+    @Id
+    @Column(name = "session_id")
+    private Long sessionId;
+
+    @Column(nullable = false, updatable = false)
+    private byte[] analytics;
+
+    // Strong validator for HTTP caching, derived from the encoded analytics
+    @Column(nullable = false, updatable = false, length = 64)
+    private String etag;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    public SessionAnalyticsSnapshot(Long sessionId, byte[] analytics, String etag) {
+        this.sessionId = sessionId;
+        this.analytics = analytics;
+        this.etag = etag;
+    }
+}
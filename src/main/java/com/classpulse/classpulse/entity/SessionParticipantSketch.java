@@ -0,0 +1,34 @@
+package com.classpulse.classpulse.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+// Serialized HyperLogLog of the users that answered in a session
+@Entity
+@Table(name = "session_participant_sketches")
+@Getter
+@Setter
+@NoArgsConstructor
+public class SessionParticipantSketch {
+
+    @Id
+    @Column(name = "session_id")
+    private Long sessionId;
+
+    @Column(nullable = false)
+    private byte[] sketch;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public SessionParticipantSketch(Long sessionId, byte[] sketch) {
+        this.sessionId = sessionId;
+        this.sketch = sketch;
+    }
+}
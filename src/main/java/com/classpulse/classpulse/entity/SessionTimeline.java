@@ -0,0 +1,34 @@
+package com.classpulse.classpulse.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+// Serialized per-minute response counts of an ended session
+@Entity
+@Table(name = "session_timelines")
+@Getter
+@Setter
+@NoArgsConstructor
+public class SessionTimeline {
+
+    @Id
+    @Column(name = "session_id")
+    private Long sessionId;
+
+    @Column(nullable = false)
+    private byte[] series;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public SessionTimeline(Long sessionId, byte[] series) {
+        this.sessionId = sessionId;
+        this.series = series;
+    }
+}
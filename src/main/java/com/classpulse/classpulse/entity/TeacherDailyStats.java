@@ -0,0 +1,46 @@
+package com.classpulse.classpulse.entity;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// Activity of a teacher per day: what was created or received on that day. Sessions
+// and responses deleted since are taken out of their day; questions are not.
+@Entity
+@Table(name = "teacher_daily_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+public class TeacherDailyStats {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "sessions_created", nullable = false)
+    private long sessionsCreated;
+
+    @Column(name = "questions_created", nullable = false)
+    private long questionsCreated;
+
+    @Column(nullable = false)
+    private long responses;
+
+    @Embeddable
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        @Column(name = "teacher_id")
+        private Long teacherId;
+
+        @Column(name = "day")
+        private LocalDate day;
+    }
+}
@@ -0,0 +1,44 @@
+package com.classpulse.classpulse.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Running totals per teacher, kept up to date by the writes that change them
+@Entity
+@Table(name = "teacher_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+public class TeacherStats {
+
+    @Id
+    @Column(name = "teacher_id")
+    private Long teacherId;
+
+    // Sessions by status
+    @Column(name = "created_sessions", nullable = false)
+    private long createdSessions;
+
+    @Column(name = "active_sessions", nullable = false)
+    private long activeSessions;
+
+    @Column(name = "ended_sessions", nullable = false)
+    private long endedSessions;
+
+    @Column(name = "total_questions", nullable = false)
+    private long totalQuestions;
+
+    @Column(name = "total_responses", nullable = false)
+    private long totalResponses;
+
+    // HyperLogLog estimate, refreshed when a session ends and by reconciliation
+    @Column(name = "unique_students", nullable = false)
+    private long uniqueStudents;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,168 @@
+package com.classpulse.classpulse.realtime;
+
+import com.classpulse.classpulse.exception.ServiceUnavailableException;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Event subscribers grouped by a key (e.g. a session id).
+ * Every broadcast is built once from an already serialized payload and the same
+ * frame is written to all subscribers of the group.
+ */
+public class SseBroadcaster {
+
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("heartbeat").build();
+
+    private final String name;
+    private final int maxConnections;
+    private final long timeoutMillis;
+
+    private final Map<Long, Set<SseEmitter>> groups = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    public SseBroadcaster(String name, int maxConnections, long timeoutMillis) {
+        this.name = name;
+        this.maxConnections = maxConnections;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Register a new subscriber, or fail with 503 when this node is at capacity
+     */
+    public SseEmitter subscribe(Long key) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            throw new ServiceUnavailableException("Too many open " + name + " streams. Please retry later.");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        groups.compute(key, (k, group) -> {
+            Set<SseEmitter> members = group != null ? group : ConcurrentHashMap.newKeySet();
+            members.add(emitter);
+            return members;
+        });
+        emitter.onCompletion(() -> remove(key, emitter));
+        emitter.onTimeout(() -> remove(key, emitter));
+        emitter.onError(e -> remove(key, emitter));
+        return emitter;
+    }
+
+    /**
+     * A stream that receives the given event and a final one and is closed at
+     * once, e.g. for a session that is not live. It is not registered and does
+     * not count against the connection limit.
+     */
+    public SseEmitter completed(String eventName, String json, String finalEventName, String finalJson) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        try {
+            emitter.send(event(eventName, json));
+            emitter.send(event(finalEventName, finalJson));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    public boolean hasSubscribers(Long key) {
+        return groups.containsKey(key);
+    }
+
+    public Set<Long> keys() {
+        return groups.keySet();
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    public int getSubscriberCount(Long key) {
+        Set<SseEmitter> group = groups.get(key);
+        return group == null ? 0 : group.size();
+    }
+
+    /**
+     * Send one event to a single subscriber
+     */
+    public void send(Long key, SseEmitter emitter, String eventName, String json) {
+        write(key, emitter, event(eventName, json));
+    }
+
+    /**
+     * Send one event to every subscriber of a group.
+     *
+     * @return number of subscribers the frame was written to
+     */
+    public int broadcast(Long key, String eventName, String json) {
+        Set<SseEmitter> group = groups.get(key);
+        if (group == null) {
+            return 0;
+        }
+        Set<DataWithMediaType> frame = event(eventName, json);
+        int delivered = 0;
+        for (SseEmitter emitter : group) {
+            if (write(key, emitter, frame)) {
+                delivered++;
+            }
+        }
+        return delivered;
+    }
+
+    /**
+     * Keep idle connections (and proxies in between) from timing out
+     */
+    public void heartbeat() {
+        groups.forEach((key, group) -> group.forEach(emitter -> write(key, emitter, HEARTBEAT)));
+    }
+
+    /**
+     * Send a final event and close all subscribers of a group
+     */
+    public void complete(Long key, String eventName, String json) {
+        Set<SseEmitter> group = groups.remove(key);
+        if (group == null) {
+            return;
+        }
+        Set<DataWithMediaType> frame = event(eventName, json);
+        for (SseEmitter emitter : group) {
+            try {
+                emitter.send(frame);
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+            connections.decrementAndGet();
+        }
+    }
+
+    private boolean write(Long key, SseEmitter emitter, Set<DataWithMediaType> frame) {
+        try {
+            emitter.send(frame);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the error callback is not always invoked
+            remove(key, emitter);
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private void remove(Long key, SseEmitter emitter) {
+        groups.computeIfPresent(key, (k, group) -> {
+            if (group.remove(emitter)) {
+                connections.decrementAndGet();
+            }
+            return group.isEmpty() ? null : group;
+        });
+    }
+
+    private static Set<DataWithMediaType> event(String eventName, String json) {
+        return SseEmitter.event().name(eventName).data(json, MediaType.APPLICATION_JSON).build();
+    }
+}
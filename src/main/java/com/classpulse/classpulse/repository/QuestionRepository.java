@@ -2,10 +2,15 @@ package com.classpulse.classpulse.repository;
 
 import com.classpulse.classpulse.entity.Question;
 import com.classpulse.classpulse.entity.Session;
+import com.classpulse.classpulse.entity.SessionStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface QuestionRepository extends JpaRepository<Question, Long> {
@@ -13,4 +18,27 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
     List<Question> findBySession(Session session);
 
     List<Question> findBySessionId(Long sessionId);
+
+    // Status of the owning session without hydrating Question or Session
+    @Query("SELECT q.session.status FROM Question q WHERE q.id = :questionId")
+    Optional<SessionStatus> findSessionStatusById(@Param("questionId") Long questionId);
+
+    @Query("SELECT q.id AS questionId, q.session.id AS sessionId, q.session.status AS sessionStatus " +
+            "FROM Question q WHERE q.id = :questionId")
+    Optional<QuestionSessionStatus> findSessionStatusByQuestionId(@Param("questionId") Long questionId);
+
+    @Query("SELECT q.id AS questionId, q.session.id AS sessionId, q.session.status AS sessionStatus " +
+            "FROM Question q WHERE q.id IN :questionIds")
+    List<QuestionSessionStatus> findSessionStatusesByIdIn(@Param("questionIds") Collection<Long> questionIds);
+
+    @Query("SELECT COUNT(q) FROM Question q WHERE q.session.createdBy.id = :teacherId")
+    long countByTeacherId(@Param("teacherId") Long teacherId);
+
+    interface QuestionSessionStatus {
+        Long getQuestionId();
+
+        Long getSessionId();
+
+        SessionStatus getSessionStatus();
+    }
 }
@@ -6,13 +6,16 @@ import com.classpulse.classpulse.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ResponseRepository extends JpaRepository<Response, Long> {
+public interface ResponseRepository extends JpaRepository<Response, Long>, ResponseRepositoryCustom {
 
     List<Response> findByQuestion(Question question);
 
@@ -26,4 +29,55 @@ public interface ResponseRepository extends JpaRepository<Response, Long> {
     Optional<Response> findByQuestionAndUser(Question question, User user);
 
     boolean existsByQuestionAndUser(Question question, User user);
+
+    // Changes the answer only while the question's session is ACTIVE; 0 otherwise
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Response r SET r.answer = :answer WHERE r.id = :id AND EXISTS (" +
+            "SELECT 1 FROM Question q WHERE q.id = r.question.id " +
+            "AND q.session.status = com.classpulse.classpulse.entity.SessionStatus.ACTIVE)")
+    int updateAnswerIfSessionActive(@Param("id") Long id, @Param("answer") String answer);
+
+    // Aggregates used to (re)build live tallies without hydrating Response rows
+    @Query("SELECT r.question.id AS questionId, r.answer AS answer, COUNT(r) AS responseCount " +
+            "FROM Response r WHERE r.question.session.id = :sessionId GROUP BY r.question.id, r.answer")
+    List<AnswerCount> countAnswersBySessionId(@Param("sessionId") Long sessionId);
+
+    @Query("SELECT r.user.id AS userId, COUNT(r) AS responseCount " +
+            "FROM Response r WHERE r.question.session.id = :sessionId GROUP BY r.user.id")
+    List<UserResponseCount> countResponsesByUserForSession(@Param("sessionId") Long sessionId);
+
+    @Query("SELECT DISTINCT r.user.id FROM Response r WHERE r.question.session.id = :sessionId")
+    List<Long> findParticipantIdsBySessionId(@Param("sessionId") Long sessionId);
+
+    @Query("SELECT COUNT(DISTINCT r.user.id) FROM Response r")
+    long countDistinctUsers();
+
+    @Query("SELECT COUNT(r) FROM Response r WHERE r.question.session.createdBy.id = :teacherId")
+    long countByTeacherId(@Param("teacherId") Long teacherId);
+
+    @Query("SELECT COUNT(DISTINCT r.user.id) FROM Response r WHERE r.question.session.createdBy.id = :teacherId")
+    long countDistinctUsersByTeacherId(@Param("teacherId") Long teacherId);
+
+    // Participants of sessions that have no stored sketch, for sketch unions
+    @Query("SELECT DISTINCT r.user.id FROM Response r WHERE r.question.session.createdBy.id = :teacherId " +
+            "AND NOT EXISTS (SELECT 1 FROM SessionParticipantSketch k WHERE k.sessionId = r.question.session.id)")
+    List<Long> findUnsketchedParticipantIdsByTeacherId(@Param("teacherId") Long teacherId);
+
+    @Query("SELECT DISTINCT r.user.id FROM Response r " +
+            "WHERE NOT EXISTS (SELECT 1 FROM SessionParticipantSketch k WHERE k.sessionId = r.question.session.id)")
+    List<Long> findUnsketchedParticipantIds();
+
+    interface AnswerCount {
+        Long getQuestionId();
+
+        String getAnswer();
+
+        Long getResponseCount();
+    }
+
+    interface UserResponseCount {
+        Long getUserId();
+
+        Long getResponseCount();
+    }
 }
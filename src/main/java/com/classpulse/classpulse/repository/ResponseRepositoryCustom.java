@@ -0,0 +1,46 @@
+package com.classpulse.classpulse.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ResponseRepositoryCustom {
+
+    /**
+     * Insert a response in one round trip. Returns empty when the question does
+     * not exist, its session is not ACTIVE, the user does not exist or the user
+     * already answered the question.
+     */
+    Optional<InsertedResponse> insertIfAbsent(Long questionId, Long userId, String answer);
+
+    /**
+     * Insert all rows as a single JDBC batch. A row is skipped (update count 0)
+     * when the user already answered the question or its session is not ACTIVE.
+     */
+    int[] insertAllIfAbsent(List<ResponseRow> rows);
+
+    /**
+     * Insert all rows with one multi-row statement and return the generated ids.
+     * Rows that conflict with an existing answer or whose session is not ACTIVE
+     * are skipped and absent from the result.
+     */
+    List<InsertedRow> insertAllReturningIds(List<ResponseRow> rows);
+
+    /**
+     * Responses of a session per minute of created_at, oldest first. Minutes
+     * without responses and responses without a timestamp are left out.
+     */
+    List<MinuteCount> countPerMinuteBySessionId(Long sessionId);
+
+    record InsertedResponse(Long id, String userName, LocalDateTime createdAt) {
+    }
+
+    record InsertedRow(Long id, Long questionId, Long userId) {
+    }
+
+    /**
+     * @param minute epoch second at which the minute starts
+     */
+    record MinuteCount(long minute, long responseCount) {
+    }
+}
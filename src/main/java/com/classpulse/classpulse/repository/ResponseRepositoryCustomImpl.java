@@ -0,0 +1,120 @@
+package com.classpulse.classpulse.repository;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public class ResponseRepositoryCustomImpl implements ResponseRepositoryCustom {
+
+    // Session status check, user lookup and duplicate check (via the
+    // uk_responses_question_user index) all happen inside the insert itself
+    private static final String INSERT_IF_ABSENT_SQL = """
+            WITH inserted AS (
+                INSERT INTO responses (question_id, user_id, answer)
+                SELECT q.id, u.id, ?
+                FROM questions q
+                JOIN sessions s ON s.id = q.session_id
+                JOIN users u ON u.id = ?
+                WHERE q.id = ? AND s.status = 'ACTIVE'
+                ON CONFLICT (question_id, user_id) DO NOTHING
+                RETURNING id, user_id, created_at
+            )
+            SELECT i.id, u.name, i.created_at FROM inserted i JOIN users u ON u.id = i.user_id
+            """;
+
+    private static final String BATCH_INSERT_IF_ABSENT_SQL = """
+            INSERT INTO responses (question_id, user_id, answer)
+            SELECT q.id, ?, ?
+            FROM questions q
+            JOIN sessions s ON s.id = q.session_id
+            WHERE q.id = ? AND s.status = 'ACTIVE'
+            ON CONFLICT (question_id, user_id) DO NOTHING
+            """;
+
+    // Column arrays are unnested server side so any number of rows is one statement
+    private static final String MULTI_ROW_INSERT_SQL = """
+            INSERT INTO responses (question_id, user_id, answer)
+            SELECT r.question_id, r.user_id, r.answer
+            FROM unnest(?::bigint[], ?::bigint[], ?::text[]) AS r(question_id, user_id, answer)
+            JOIN questions q ON q.id = r.question_id
+            JOIN sessions s ON s.id = q.session_id
+            WHERE s.status = 'ACTIVE'
+            ON CONFLICT (question_id, user_id) DO NOTHING
+            RETURNING id, question_id, user_id
+            """;
+
+    // created_at is a local timestamp; the cast applies the session (JVM) time zone
+    private static final String COUNT_PER_MINUTE_SQL = """
+            SELECT CAST(EXTRACT(EPOCH FROM CAST(date_trunc('minute', r.created_at) AS timestamptz)) AS bigint),
+                   COUNT(*)
+            FROM responses r
+            JOIN questions q ON q.id = r.question_id
+            WHERE q.session_id = ? AND r.created_at IS NOT NULL
+            GROUP BY 1
+            ORDER BY 1
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ResponseRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<InsertedResponse> insertIfAbsent(Long questionId, Long userId, String answer) {
+        List<InsertedResponse> rows = jdbcTemplate.query(INSERT_IF_ABSENT_SQL,
+                (rs, rowNum) -> new InsertedResponse(rs.getLong(1), rs.getString(2),
+                        rs.getObject(3, LocalDateTime.class)),
+                answer, userId, questionId);
+        return rows.stream().findFirst();
+    }
+
+    @Override
+    public int[] insertAllIfAbsent(List<ResponseRow> rows) {
+        return jdbcTemplate.batchUpdate(BATCH_INSERT_IF_ABSENT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ResponseRow row = rows.get(i);
+                ps.setLong(1, row.userId());
+                ps.setString(2, row.answer());
+                ps.setLong(3, row.questionId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    @Override
+    public List<InsertedRow> insertAllReturningIds(List<ResponseRow> rows) {
+        Long[] questionIds = new Long[rows.size()];
+        Long[] userIds = new Long[rows.size()];
+        String[] answers = new String[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            questionIds[i] = rows.get(i).questionId();
+            userIds[i] = rows.get(i).userId();
+            answers[i] = rows.get(i).answer();
+        }
+
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(MULTI_ROW_INSERT_SQL);
+            ps.setArray(1, con.createArrayOf("bigint", questionIds));
+            ps.setArray(2, con.createArrayOf("bigint", userIds));
+            ps.setArray(3, con.createArrayOf("text", answers));
+            return ps;
+        }, (rs, rowNum) -> new InsertedRow(rs.getLong(1), rs.getLong(2), rs.getLong(3)));
+    }
+
+    @Override
+    public List<MinuteCount> countPerMinuteBySessionId(Long sessionId) {
+        return jdbcTemplate.query(COUNT_PER_MINUTE_SQL,
+                (rs, rowNum) -> new MinuteCount(rs.getLong(1), rs.getLong(2)), sessionId);
+    }
+}
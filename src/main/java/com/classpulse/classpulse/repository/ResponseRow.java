@@ -0,0 +1,7 @@
+package com.classpulse.classpulse.repository;
+
+/**
+ * Plain column values for a response insert that bypasses entity hydration
+ */
+public record ResponseRow(Long questionId, Long userId, String answer) {
+}
@@ -0,0 +1,16 @@
+package com.classpulse.classpulse.repository;
+
+import com.classpulse.classpulse.entity.SessionAnalyticsSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SessionAnalyticsSnapshotRepository extends JpaRepository<SessionAnalyticsSnapshot, Long> {
+
+    @Modifying
+    @Query("DELETE FROM SessionAnalyticsSnapshot s WHERE s.sessionId = :sessionId")
+    void deleteBySessionId(@Param("sessionId") Long sessionId);
+}
@@ -0,0 +1,22 @@
+package com.classpulse.classpulse.repository;
+
+import com.classpulse.classpulse.entity.SessionParticipantSketch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SessionParticipantSketchRepository extends JpaRepository<SessionParticipantSketch, Long> {
+
+    @Query("SELECT k FROM SessionParticipantSketch k WHERE k.sessionId IN " +
+            "(SELECT s.id FROM Session s WHERE s.createdBy.id = :teacherId)")
+    List<SessionParticipantSketch> findByTeacherId(@Param("teacherId") Long teacherId);
+
+    @Modifying
+    @Query("DELETE FROM SessionParticipantSketch s WHERE s.sessionId = :sessionId")
+    void deleteBySessionId(@Param("sessionId") Long sessionId);
+}
@@ -3,9 +3,11 @@ package com.classpulse.classpulse.repository;
 import com.classpulse.classpulse.entity.Session;
 import com.classpulse.classpulse.entity.SessionStatus;
 import com.classpulse.classpulse.entity.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -23,8 +25,46 @@ public interface SessionRepository extends JpaRepository<Session, Long> {
 
     List<Session> findByStatus(SessionStatus status);
 
+    long countByStatus(SessionStatus status);
+
     boolean existsByCode(String code);
 
+    @Query("SELECT s.code FROM Session s WHERE s.createdBy.id = :teacherId")
+    List<String> findCodesByTeacherId(@Param("teacherId") Long teacherId);
+
+    // Dashboard aggregates
+    @Query("SELECT s.status AS status, COUNT(s) AS sessionCount FROM Session s " +
+            "WHERE s.createdBy.id = :teacherId GROUP BY s.status")
+    List<StatusCount> countByStatusForTeacher(@Param("teacherId") Long teacherId);
+
+    // Latest sessions with their question and response counts, in one query
+    @Query("SELECT s.id AS sessionId, s.title AS sessionTitle, u.name AS teacherName, s.status AS status, " +
+            "(SELECT COUNT(q) FROM Question q WHERE q.session.id = s.id) AS questionCount, " +
+            "(SELECT COUNT(r) FROM Response r WHERE r.question.session.id = s.id) AS responseCount " +
+            "FROM Session s JOIN s.createdBy u ORDER BY s.createdAt DESC")
+    List<SessionCounts> findRecentWithCounts(Pageable pageable);
+
+    // Ended sessions whose participants are not (yet) covered by a stored sketch
+    @Query("SELECT s.id FROM Session s WHERE s.status = com.classpulse.classpulse.entity.SessionStatus.ENDED " +
+            "AND NOT EXISTS (SELECT 1 FROM SessionParticipantSketch k WHERE k.sessionId = s.id) ORDER BY s.id")
+    List<Long> findEndedIdsWithoutParticipantSketch(Pageable pageable);
+
+    // Ended sessions without a stored analytics snapshot, by id after the given one
+    @Query("SELECT s.id FROM Session s WHERE s.status = com.classpulse.classpulse.entity.SessionStatus.ENDED " +
+            "AND s.id > :afterId " +
+            "AND NOT EXISTS (SELECT 1 FROM SessionAnalyticsSnapshot a WHERE a.sessionId = s.id) ORDER BY s.id")
+    List<Long> findEndedIdsWithoutAnalyticsSnapshot(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Row lock serializing writers of a session's derived data
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Session s WHERE s.id = :id")
+    Optional<Session> findByIdForUpdate(@Param("id") Long id);
+
+    // Shared row lock: concurrent holders proceed, but ending the session waits for them
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT s FROM Session s WHERE s.id = :id")
+    Optional<Session> findByIdForShare(@Param("id") Long id);
+
     // Filtering queries
     Page<Session> findByStatus(SessionStatus status, Pageable pageable);
 
@@ -44,4 +84,24 @@ public interface SessionRepository extends JpaRepository<Session, Long> {
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate,
             Pageable pageable);
+
+    interface SessionCounts {
+        Long getSessionId();
+
+        String getSessionTitle();
+
+        String getTeacherName();
+
+        SessionStatus getStatus();
+
+        Long getQuestionCount();
+
+        Long getResponseCount();
+    }
+
+    interface StatusCount {
+        SessionStatus getStatus();
+
+        Long getSessionCount();
+    }
 }
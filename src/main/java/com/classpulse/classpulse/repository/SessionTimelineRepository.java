@@ -0,0 +1,16 @@
+package com.classpulse.classpulse.repository;
+
+import com.classpulse.classpulse.entity.SessionTimeline;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SessionTimelineRepository extends JpaRepository<SessionTimeline, Long> {
+
+    @Modifying
+    @Query("DELETE FROM SessionTimeline t WHERE t.sessionId = :sessionId")
+    void deleteBySessionId(@Param("sessionId") Long sessionId);
+}
@@ -0,0 +1,33 @@
+package com.classpulse.classpulse.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Row count estimates from the Postgres planner statistics (pg_class.reltuples).
+ * Free to read, but only as fresh as the last ANALYZE / autovacuum.
+ */
+@Repository
+public class TableStatisticsRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TableStatisticsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Estimated row count, or empty when the table has never been analyzed
+     */
+    public OptionalLong estimateRowCount(String table) {
+        List<Long> rows = jdbcTemplate.queryForList(
+                "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)", Long.class, table);
+        if (rows.isEmpty() || rows.get(0) == null || rows.get(0) < 0) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(rows.get(0));
+    }
+}
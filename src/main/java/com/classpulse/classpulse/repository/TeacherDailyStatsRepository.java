@@ -0,0 +1,20 @@
+package com.classpulse.classpulse.repository;
+
+import com.classpulse.classpulse.entity.TeacherDailyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface TeacherDailyStatsRepository extends JpaRepository<TeacherDailyStats, TeacherDailyStats.Key> {
+
+    // Primary key range scan
+    @Query("SELECT d FROM TeacherDailyStats d WHERE d.id.teacherId = :teacherId " +
+            "AND d.id.day BETWEEN :from AND :to ORDER BY d.id.day")
+    List<TeacherDailyStats> findRange(@Param("teacherId") Long teacherId,
+            @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
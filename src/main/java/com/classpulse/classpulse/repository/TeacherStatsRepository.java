@@ -0,0 +1,48 @@
+package com.classpulse.classpulse.repository;
+
+import com.classpulse.classpulse.entity.TeacherStats;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TeacherStatsRepository extends JpaRepository<TeacherStats, Long>, TeacherStatsRepositoryCustom {
+
+    // Dashboard row and teacher name in one primary key lookup
+    @Query("SELECT t AS stats, u.name AS teacherName FROM TeacherStats t JOIN User u ON u.id = t.teacherId " +
+            "WHERE t.teacherId = :teacherId")
+    Optional<TeacherStatsRow> findRowByTeacherId(@Param("teacherId") Long teacherId);
+
+    @Query("SELECT t.teacherId AS teacherId, u.name AS teacherName, " +
+            "t.createdSessions + t.activeSessions + t.endedSessions AS sessionCount, " +
+            "t.totalResponses AS totalResponses " +
+            "FROM TeacherStats t JOIN User u ON u.id = t.teacherId " +
+            "ORDER BY t.createdSessions + t.activeSessions + t.endedSessions DESC, t.teacherId")
+    List<TeacherRanking> findTopBySessionCount(Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE TeacherStats t SET t.uniqueStudents = :uniqueStudents WHERE t.teacherId = :teacherId")
+    int updateUniqueStudents(@Param("teacherId") Long teacherId, @Param("uniqueStudents") long uniqueStudents);
+
+    interface TeacherRanking {
+        Long getTeacherId();
+
+        String getTeacherName();
+
+        Long getSessionCount();
+
+        Long getTotalResponses();
+    }
+
+    interface TeacherStatsRow {
+        TeacherStats getStats();
+
+        String getTeacherName();
+    }
+}
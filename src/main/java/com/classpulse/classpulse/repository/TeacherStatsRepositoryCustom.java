@@ -0,0 +1,63 @@
+package com.classpulse.classpulse.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface TeacherStatsRepositoryCustom {
+
+    /**
+     * Add the given deltas to a teacher's totals and to the activity bucket of
+     * the delta's day in one statement. Rows are created on first use.
+     */
+    void applyDelta(Long teacherId, TeacherStatsDelta delta);
+
+    /**
+     * Queue one received response per entry (ids may repeat) in the current
+     * transaction, counted towards today's bucket. Appends rows only, so
+     * concurrent submits do not wait on each other.
+     */
+    void queueResponsesAdded(Collection<Long> questionIds);
+
+    /**
+     * Queue the removal of one response in the current transaction
+     *
+     * @param day the response's creation day, taken out of that day's bucket;
+     *            null for responses from before creation times were stored
+     */
+    void queueResponseRemoved(Long questionId, LocalDate day);
+
+    /**
+     * Drain the queued response deltas and add them to the totals of the
+     * teachers owning the questions in one statement. The teacher is resolved
+     * in SQL, so callers need no lookups. Questions deleted since are skipped.
+     *
+     * @return ids of the teachers whose row changed
+     */
+    List<Long> applyResponseDeltas();
+
+    /**
+     * Recompute all totals from the source tables, less the response deltas
+     * still queued, and overwrite rows that differ (or are missing).
+     *
+     * @return ids of the teachers whose row was repaired or created
+     */
+    List<Long> reconcile();
+
+    /**
+     * Recount the daily sessions and responses from their creation times, less
+     * the response deltas still queued, and overwrite buckets that differ (or
+     * are missing)
+     *
+     * @return ids of the teachers with a bucket repaired, once per bucket
+     */
+    List<Long> reconcileDaily();
+
+    /**
+     * Changes to a teacher's totals; the daily fields count sessions and
+     * questions created on {@code day} (today when null)
+     */
+    record TeacherStatsDelta(long createdSessions, long activeSessions, long endedSessions, long questions,
+            long sessionsCreated, long questionsCreated, LocalDate day) {
+    }
+}
@@ -0,0 +1,219 @@
+package com.classpulse.classpulse.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public class TeacherStatsRepositoryCustomImpl implements TeacherStatsRepositoryCustom {
+
+    private static final String APPLY_DELTA_SQL = """
+            WITH delta (teacher_id, created_sessions, active_sessions, ended_sessions, questions,
+                        sessions_created, questions_created) AS (
+                VALUES (?::bigint, ?::bigint, ?::bigint, ?::bigint, ?::bigint, ?::bigint, ?::bigint)
+            ), daily AS (
+                INSERT INTO teacher_daily_stats (teacher_id, day, sessions_created, questions_created, responses)
+                SELECT teacher_id, COALESCE(?::date, CURRENT_DATE), sessions_created, questions_created, 0 FROM delta
+                WHERE sessions_created <> 0 OR questions_created <> 0
+                ON CONFLICT (teacher_id, day) DO UPDATE SET
+                    sessions_created = teacher_daily_stats.sessions_created + EXCLUDED.sessions_created,
+                    questions_created = teacher_daily_stats.questions_created + EXCLUDED.questions_created
+            )
+            INSERT INTO teacher_stats (teacher_id, created_sessions, active_sessions, ended_sessions,
+                                       total_questions, total_responses, unique_students, updated_at)
+            SELECT teacher_id, created_sessions, active_sessions, ended_sessions, questions, 0, 0, now() FROM delta
+            ON CONFLICT (teacher_id) DO UPDATE SET
+                created_sessions = teacher_stats.created_sessions + EXCLUDED.created_sessions,
+                active_sessions = teacher_stats.active_sessions + EXCLUDED.active_sessions,
+                ended_sessions = teacher_stats.ended_sessions + EXCLUDED.ended_sessions,
+                total_questions = teacher_stats.total_questions + EXCLUDED.total_questions,
+                updated_at = now()
+            """;
+
+    private static final String QUEUE_RESPONSES_ADDED_SQL = """
+            INSERT INTO teacher_response_deltas (question_id, day, added, removed)
+            SELECT question_id, CURRENT_DATE, COUNT(*), 0 FROM unnest(?::bigint[]) AS x(question_id)
+            GROUP BY question_id
+            """;
+
+    private static final String QUEUE_RESPONSE_REMOVED_SQL = """
+            INSERT INTO teacher_response_deltas (question_id, day, added, removed) VALUES (?, ?, 0, 1)
+            """;
+
+    // Deltas of questions deleted since are dropped with them. Rows are touched
+    // in teacher id order so concurrent flushes cannot deadlock; a flush that
+    // finds rows another flush is draining skips them once that one commits.
+    private static final String APPLY_RESPONSE_DELTAS_SQL = """
+            WITH drained AS (
+                DELETE FROM teacher_response_deltas RETURNING question_id, day, added, removed
+            ), by_teacher AS (
+                SELECT s.created_by AS teacher_id, x.day, x.added, x.removed
+                FROM drained x
+                JOIN questions q ON q.id = x.question_id
+                JOIN sessions s ON s.id = q.session_id
+            ), delta AS (
+                SELECT teacher_id, SUM(added - removed) AS responses FROM by_teacher GROUP BY teacher_id
+            ), daily AS (
+                INSERT INTO teacher_daily_stats (teacher_id, day, sessions_created, questions_created, responses)
+                SELECT teacher_id, day, 0, 0, SUM(added - removed) FROM by_teacher
+                WHERE day IS NOT NULL
+                GROUP BY teacher_id, day
+                HAVING SUM(added - removed) <> 0
+                ORDER BY teacher_id, day
+                ON CONFLICT (teacher_id, day) DO UPDATE SET
+                    responses = teacher_daily_stats.responses + EXCLUDED.responses
+            )
+            INSERT INTO teacher_stats (teacher_id, created_sessions, active_sessions, ended_sessions,
+                                       total_questions, total_responses, unique_students, updated_at)
+            SELECT teacher_id, 0, 0, 0, 0, responses, 0, now() FROM delta
+            ORDER BY teacher_id
+            ON CONFLICT (teacher_id) DO UPDATE SET
+                total_responses = teacher_stats.total_responses + EXCLUDED.total_responses,
+                updated_at = now()
+            RETURNING teacher_id
+            """;
+
+    // Queued deltas commit with their responses, so within this statement's
+    // snapshot a correct total equals the recount minus the queued deltas
+    private static final String RECONCILE_SQL = """
+            WITH session_counts AS (
+                SELECT created_by AS teacher_id,
+                       COUNT(*) FILTER (WHERE status = 'CREATED') AS created_sessions,
+                       COUNT(*) FILTER (WHERE status = 'ACTIVE') AS active_sessions,
+                       COUNT(*) FILTER (WHERE status = 'ENDED') AS ended_sessions
+                FROM sessions GROUP BY created_by
+            ), question_counts AS (
+                SELECT s.created_by AS teacher_id, COUNT(*) AS total_questions
+                FROM questions q JOIN sessions s ON s.id = q.session_id
+                GROUP BY s.created_by
+            ), response_counts AS (
+                SELECT s.created_by AS teacher_id, COUNT(*) AS total_responses
+                FROM responses r JOIN questions q ON q.id = r.question_id JOIN sessions s ON s.id = q.session_id
+                GROUP BY s.created_by
+            ), queued_counts AS (
+                SELECT s.created_by AS teacher_id, SUM(x.added - x.removed) AS queued_responses
+                FROM teacher_response_deltas x JOIN questions q ON q.id = x.question_id
+                JOIN sessions s ON s.id = q.session_id
+                GROUP BY s.created_by
+            ), actual AS (
+                SELECT u.id AS teacher_id,
+                       COALESCE(sc.created_sessions, 0) AS created_sessions,
+                       COALESCE(sc.active_sessions, 0) AS active_sessions,
+                       COALESCE(sc.ended_sessions, 0) AS ended_sessions,
+                       COALESCE(qc.total_questions, 0) AS total_questions,
+                       COALESCE(rc.total_responses, 0) - COALESCE(xc.queued_responses, 0) AS total_responses
+                FROM users u
+                LEFT JOIN session_counts sc ON sc.teacher_id = u.id
+                LEFT JOIN question_counts qc ON qc.teacher_id = u.id
+                LEFT JOIN response_counts rc ON rc.teacher_id = u.id
+                LEFT JOIN queued_counts xc ON xc.teacher_id = u.id
+                WHERE u.role = 'TEACHER' OR sc.teacher_id IS NOT NULL
+            )
+            INSERT INTO teacher_stats (teacher_id, created_sessions, active_sessions, ended_sessions,
+                                       total_questions, total_responses, unique_students, updated_at)
+            SELECT a.teacher_id, a.created_sessions, a.active_sessions, a.ended_sessions,
+                   a.total_questions, a.total_responses, 0, now()
+            FROM actual a LEFT JOIN teacher_stats t ON t.teacher_id = a.teacher_id
+            WHERE t.teacher_id IS NULL
+               OR (t.created_sessions, t.active_sessions, t.ended_sessions, t.total_questions, t.total_responses)
+                  <> (a.created_sessions, a.active_sessions, a.ended_sessions, a.total_questions, a.total_responses)
+            ORDER BY a.teacher_id
+            ON CONFLICT (teacher_id) DO UPDATE SET
+                created_sessions = EXCLUDED.created_sessions,
+                active_sessions = EXCLUDED.active_sessions,
+                ended_sessions = EXCLUDED.ended_sessions,
+                total_questions = EXCLUDED.total_questions,
+                total_responses = EXCLUDED.total_responses,
+                updated_at = now()
+            RETURNING teacher_id
+            """;
+
+    // Daily sessions and responses recounted from their created_at, less the
+    // response deltas still queued; days left with nothing drop to zero.
+    // Questions carry no creation time, so their daily counts are kept as is.
+    private static final String RECONCILE_DAILY_SQL = """
+            WITH actual AS (
+                SELECT teacher_id, day, SUM(sessions_created) AS sessions_created, SUM(responses) AS responses
+                FROM (
+                    SELECT created_by AS teacher_id, CAST(created_at AS date) AS day,
+                           COUNT(*) AS sessions_created, 0 AS responses
+                    FROM sessions WHERE created_at IS NOT NULL
+                    GROUP BY created_by, CAST(created_at AS date)
+                    UNION ALL
+                    SELECT s.created_by, CAST(r.created_at AS date), 0, COUNT(*)
+                    FROM responses r JOIN questions q ON q.id = r.question_id JOIN sessions s ON s.id = q.session_id
+                    WHERE r.created_at IS NOT NULL
+                    GROUP BY s.created_by, CAST(r.created_at AS date)
+                    UNION ALL
+                    SELECT s.created_by, x.day, 0, -SUM(x.added - x.removed)
+                    FROM teacher_response_deltas x JOIN questions q ON q.id = x.question_id
+                    JOIN sessions s ON s.id = q.session_id
+                    WHERE x.day IS NOT NULL
+                    GROUP BY s.created_by, x.day
+                ) counts
+                GROUP BY teacher_id, day
+            ), compared AS (
+                SELECT COALESCE(a.teacher_id, d.teacher_id) AS teacher_id, COALESCE(a.day, d.day) AS day,
+                       COALESCE(a.sessions_created, 0) AS sessions_created, COALESCE(a.responses, 0) AS responses,
+                       COALESCE(d.sessions_created, 0) AS stored_sessions_created,
+                       COALESCE(d.responses, 0) AS stored_responses
+                FROM actual a
+                FULL JOIN teacher_daily_stats d ON d.teacher_id = a.teacher_id AND d.day = a.day
+            )
+            INSERT INTO teacher_daily_stats (teacher_id, day, sessions_created, questions_created, responses)
+            SELECT teacher_id, day, sessions_created, 0, responses FROM compared
+            WHERE (sessions_created, responses) <> (stored_sessions_created, stored_responses)
+            ORDER BY teacher_id, day
+            ON CONFLICT (teacher_id, day) DO UPDATE SET
+                sessions_created = EXCLUDED.sessions_created,
+                responses = EXCLUDED.responses
+            RETURNING teacher_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TeacherStatsRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void applyDelta(Long teacherId, TeacherStatsDelta delta) {
+        jdbcTemplate.update(APPLY_DELTA_SQL, teacherId, delta.createdSessions(), delta.activeSessions(),
+                delta.endedSessions(), delta.questions(), delta.sessionsCreated(), delta.questionsCreated(), delta.day());
+    }
+
+    @Override
+    public void queueResponsesAdded(Collection<Long> questionIds) {
+        if (questionIds.isEmpty()) {
+            return;
+        }
+        Long[] ids = questionIds.toArray(Long[]::new);
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(QUEUE_RESPONSES_ADDED_SQL);
+            ps.setArray(1, con.createArrayOf("bigint", ids));
+            return ps;
+        });
+    }
+
+    @Override
+    public void queueResponseRemoved(Long questionId, LocalDate day) {
+        jdbcTemplate.update(QUEUE_RESPONSE_REMOVED_SQL, questionId, day);
+    }
+
+    @Override
+    public List<Long> applyResponseDeltas() {
+        return jdbcTemplate.queryForList(APPLY_RESPONSE_DELTAS_SQL, Long.class);
+    }
+
+    @Override
+    public List<Long> reconcile() {
+        return jdbcTemplate.queryForList(RECONCILE_SQL, Long.class);
+    }
+
+    @Override
+    public List<Long> reconcileDaily() {
+        return jdbcTemplate.queryForList(RECONCILE_DAILY_SQL, Long.class);
+    }
+}
@@ -0,0 +1,32 @@
+package com.classpulse.classpulse.security;
+
+import com.classpulse.classpulse.entity.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal of a JWT-authenticated request, built from the token's claims
+ * (see {@link JwtUtil#toPrincipal}). Immutable and detached from JPA, so it
+ * can be shared between requests; carries no password.
+ */
+public record AuthenticatedUser(Long id, String email, Role role, int tokenVersion) implements UserDetails {
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+}
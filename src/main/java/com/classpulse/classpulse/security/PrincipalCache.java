@@ -0,0 +1,110 @@
+package com.classpulse.classpulse.security;
+
+import com.classpulse.classpulse.cache.TwoLevelCacheManager;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Verified principals by token, so a repeated token skips signature
+ * verification and the user lookup. Keys are SHA-256 digests; raw tokens are
+ * never held. An entry lives until its token expires, at most
+ * {@code security.principal-cache.ttl-ms}.
+ * <p>
+ * A changed or deleted user is dropped on every node: the {@code users} cache
+ * eviction is broadcast by {@link TwoLevelCacheManager}, and this node also
+ * drops it directly once the change commits. The TTL bounds staleness if a
+ * broadcast is lost.
+ */
+@Component
+public class PrincipalCache {
+
+    private final Cache<String, Entry> principals;
+    // Bumped by every invalidation; a principal loaded before one is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private record Entry(AuthenticatedUser user, long expiresAtMillis) {
+    }
+
+    public PrincipalCache(TwoLevelCacheManager cacheManager, MeterRegistry meterRegistry,
+            @Value("${security.principal-cache.max-size:10000}") long maxSize,
+            @Value("${security.principal-cache.ttl-ms:300000}") long ttlMillis) {
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "principals");
+        cacheManager.addInvalidationListener("users", new TwoLevelCacheManager.InvalidationListener() {
+            @Override
+            public void evicted(String key) {
+                userChanged(Long.valueOf(key));
+            }
+
+            @Override
+            public void cleared() {
+                clear();
+            }
+        });
+    }
+
+    public Optional<AuthenticatedUser> get(String token) {
+        String key = digest(token);
+        Entry entry = principals.getIfPresent(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.expiresAtMillis() <= System.currentTimeMillis()) {
+            principals.invalidate(key);
+            return Optional.empty();
+        }
+        return Optional.of(entry.user());
+    }
+
+    /**
+     * Current generation; pass it to {@link #put} with a principal loaded afterwards
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    public void put(String token, AuthenticatedUser user, long expiresAtMillis, long loadedAtGeneration) {
+        String key = digest(token);
+        principals.put(key, new Entry(user, expiresAtMillis));
+        // Invalidated while loading: the principal may predate the change
+        if (generation.get() != loadedAtGeneration) {
+            principals.invalidate(key);
+        }
+    }
+
+    public void userChanged(Long userId) {
+        generation.incrementAndGet();
+        // Rare (user update or delete), so a scan beats maintaining a per-user index
+        principals.asMap().values().removeIf(entry -> entry.user().id().equals(userId));
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        principals.invalidateAll();
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.classpulse.classpulse.security;
+
+import com.classpulse.classpulse.cache.TwoLevelCacheManager;
+import com.classpulse.classpulse.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Current token version per user, the only per-request check against user
+ * state. A token is accepted while its version matches; deleted users have
+ * none. Versions are loaded with a single-column query and dropped on every
+ * node when the user changes, like {@link PrincipalCache}; the TTL bounds how
+ * long a lost invalidation can keep a revoked token working.
+ */
+@Component
+public class TokenVersionCache {
+
+    // Cached for users that no longer exist
+    private static final int NO_USER = -1;
+
+    private final LoadingCache<Long, Integer> versions;
+
+    public TokenVersionCache(UserRepository userRepository, TwoLevelCacheManager cacheManager,
+            MeterRegistry meterRegistry,
+            @Value("${security.token-version.max-size:100000}") long maxSize,
+            @Value("${security.token-version.ttl-ms:30000}") long ttlMillis) {
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .build(userId -> userRepository.findTokenVersionById(userId).orElse(NO_USER));
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "token-versions");
+        cacheManager.addInvalidationListener("users", new TwoLevelCacheManager.InvalidationListener() {
+            @Override
+            public void evicted(String key) {
+                userChanged(Long.valueOf(key));
+            }
+
+            @Override
+            public void cleared() {
+                versions.invalidateAll();
+            }
+        });
+    }
+
+    public boolean isCurrent(AuthenticatedUser principal) {
+        return versions.get(principal.id()) == principal.tokenVersion();
+    }
+
+    public void userChanged(Long userId) {
+        versions.invalidate(userId);
+    }
+}
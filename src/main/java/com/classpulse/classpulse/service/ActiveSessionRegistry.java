@@ -0,0 +1,186 @@
+package com.classpulse.classpulse.service;
+
+import com.classpulse.classpulse.dto.response.QuestionResponse;
+import com.classpulse.classpulse.entity.Question;
+import com.classpulse.classpulse.entity.Session;
+import com.classpulse.classpulse.entity.SessionStatus;
+import com.classpulse.classpulse.repository.QuestionRepository;
+import com.classpulse.classpulse.repository.QuestionRepository.QuestionSessionStatus;
+import com.classpulse.classpulse.repository.SessionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process registry of ACTIVE sessions and the questions that belong to them,
+ * so the write path can check session status without loading Question and
+ * Session entities.
+ *
+ * Consistency: the registry only ever answers "active" from memory. Unknown
+ * sessions and questions are loaded from the database, and every entry is
+ * reloaded once it is older than the configured TTL. Local changes are applied
+ * after the surrounding transaction commits, so a rolled back write never
+ * becomes visible. On a multi-node deployment another
+ * node may therefore keep treating an ended session as active for at most one
+ * TTL. Inserts stay safe because the response insert statements re-check the
+ * session status in SQL. Only the status checks that rely on the registry alone
+ * (response updates, queued submits) are subject to that window.
+ */
+@Component
+public class ActiveSessionRegistry {
+
+    private final SessionRepository sessionRepository;
+    private final QuestionRepository questionRepository;
+    private final long ttlMillis;
+
+    private final Map<Long, ActiveSession> sessions = new ConcurrentHashMap<>();
+    private final Map<Long, Long> sessionIdByQuestionId = new ConcurrentHashMap<>();
+
+    public ActiveSessionRegistry(SessionRepository sessionRepository,
+            QuestionRepository questionRepository,
+            @Value("${sessions.registry.ttl-ms:30000}") long ttlMillis) {
+        this.sessionRepository = sessionRepository;
+        this.questionRepository = questionRepository;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Active session entry, or empty when the session does not exist or is not ACTIVE
+     */
+    public Optional<ActiveSession> findActiveSession(Long sessionId) {
+        ActiveSession entry = sessions.get(sessionId);
+        if (entry != null && !entry.isExpired(ttlMillis)) {
+            return Optional.of(entry);
+        }
+        return Optional.ofNullable(load(sessionId));
+    }
+
+    /**
+     * Id of the active session owning the question, or empty when the question
+     * does not exist or its session is not ACTIVE
+     */
+    public Optional<Long> findActiveSessionIdOfQuestion(Long questionId) {
+        Long sessionId = knownActiveSessionIdOf(questionId);
+        if (sessionId != null) {
+            return Optional.of(sessionId);
+        }
+
+        QuestionSessionStatus status = questionRepository.findSessionStatusByQuestionId(questionId).orElse(null);
+        if (status == null || status.getSessionStatus() != SessionStatus.ACTIVE) {
+            return Optional.empty();
+        }
+        return findActiveSession(status.getSessionId()).map(ActiveSession::sessionId);
+    }
+
+    public boolean isQuestionActive(Long questionId) {
+        return findActiveSessionIdOfQuestion(questionId).isPresent();
+    }
+
+    /**
+     * Memory-only check; false means "unknown", not "inactive"
+     */
+    public boolean isKnownActive(Long questionId) {
+        return knownActiveSessionIdOf(questionId) != null;
+    }
+
+    private Long knownActiveSessionIdOf(Long questionId) {
+        Long sessionId = sessionIdByQuestionId.get(questionId);
+        if (sessionId == null) {
+            return null;
+        }
+        ActiveSession entry = sessions.get(sessionId);
+        boolean valid = entry != null && !entry.isExpired(ttlMillis) && entry.questionIds().contains(questionId);
+        return valid ? sessionId : null;
+    }
+
+    public void sessionStarted(Session session, List<Question> questions) {
+        ActiveSession entry = ActiveSession.of(session.getId(), session.getCreatedBy().getId(),
+                questions.stream().map(QuestionResponse::fromEntity).toList());
+        TransactionHooks.afterCommit(() -> put(entry));
+    }
+
+    public void sessionStopped(Long sessionId) {
+        TransactionHooks.afterCommit(() -> remove(sessionId));
+    }
+
+    public void questionSaved(Question question) {
+        QuestionResponse snapshot = QuestionResponse.fromEntity(question);
+        TransactionHooks.afterCommit(() -> sessions.computeIfPresent(snapshot.getSessionId(), (id, entry) -> {
+            sessionIdByQuestionId.put(snapshot.getId(), id);
+            return entry.withQuestion(snapshot);
+        }));
+    }
+
+    public void questionDeleted(Long questionId) {
+        TransactionHooks.afterCommit(() -> {
+            Long sessionId = sessionIdByQuestionId.remove(questionId);
+            if (sessionId != null) {
+                sessions.computeIfPresent(sessionId, (id, entry) -> entry.withoutQuestion(questionId));
+            }
+        });
+    }
+
+    private ActiveSession load(Long sessionId) {
+        Session session = sessionRepository.findById(sessionId).orElse(null);
+        if (session == null || session.getStatus() != SessionStatus.ACTIVE) {
+            remove(sessionId);
+            return null;
+        }
+        ActiveSession entry = ActiveSession.of(session.getId(), session.getCreatedBy().getId(),
+                questionRepository.findBySessionId(sessionId).stream().map(QuestionResponse::fromEntity).toList());
+        put(entry);
+        return entry;
+    }
+
+    private void put(ActiveSession entry) {
+        sessions.put(entry.sessionId(), entry);
+        entry.questionIds().forEach(questionId -> sessionIdByQuestionId.put(questionId, entry.sessionId()));
+    }
+
+    private void remove(Long sessionId) {
+        ActiveSession removed = sessions.remove(sessionId);
+        if (removed != null) {
+            removed.questionIds().forEach(sessionIdByQuestionId::remove);
+        }
+    }
+
+    /**
+     * Immutable view of an active session. Questions are ordered by id.
+     */
+    public record ActiveSession(Long sessionId, Long teacherId, List<QuestionResponse> questions,
+            Set<Long> questionIds, long loadedAt) {
+
+        static ActiveSession of(Long sessionId, Long teacherId, List<QuestionResponse> questions) {
+            return create(sessionId, teacherId, questions, System.currentTimeMillis());
+        }
+
+        private static ActiveSession create(Long sessionId, Long teacherId, List<QuestionResponse> questions,
+                long loadedAt) {
+            List<QuestionResponse> sorted = questions.stream()
+                    .sorted(Comparator.comparing(QuestionResponse::getId))
+                    .toList();
+            Set<Long> ids = new HashSet<>();
+            sorted.forEach(q -> ids.add(q.getId()));
+            return new ActiveSession(sessionId, teacherId, sorted, Collections.unmodifiableSet(ids), loadedAt);
+        }
+
+        boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt > ttlMillis;
+        }
+
+        ActiveSession withQuestion(QuestionResponse question) {
+            List<QuestionResponse> updated = new ArrayList<>(questions);
+            updated.removeIf(q -> q.getId().equals(question.getId()));
+            updated.add(question);
+            return create(sessionId, teacherId, updated, loadedAt);
+        }
+
+        ActiveSession withoutQuestion(Long questionId) {
+            List<QuestionResponse> updated = new ArrayList<>(questions);
+            updated.removeIf(q -> q.getId().equals(questionId));
+            return create(sessionId, teacherId, updated, loadedAt);
+        }
+    }
+}
@@ -1,18 +1,35 @@
 package com.classpulse.classpulse.service;
 
+import com.classpulse.classpulse.analytics.HyperLogLog;
+import com.classpulse.classpulse.analytics.QuestionTally;
+import com.classpulse.classpulse.analytics.RatingAggregator.RatingStats;
+import com.classpulse.classpulse.analytics.SessionTally;
+import com.classpulse.classpulse.coalescing.Coalesced;
+import com.classpulse.classpulse.dto.response.QuestionResponse;
 import com.classpulse.classpulse.dto.response.SessionAnalyticsResponse;
 import com.classpulse.classpulse.dto.response.SessionAnalyticsResponse.QuestionAnalytics;
+import com.classpulse.classpulse.dto.response.TallyVerificationResponse;
+import com.classpulse.classpulse.dto.response.TeacherActivityResponse;
+import com.classpulse.classpulse.dto.response.TeacherActivityResponse.DailyActivity;
 import com.classpulse.classpulse.dto.response.TeacherDashboardResponse;
 import com.classpulse.classpulse.entity.*;
+import com.classpulse.classpulse.exception.BadRequestException;
 import com.classpulse.classpulse.exception.ResourceNotFoundException;
 import com.classpulse.classpulse.repository.QuestionRepository;
 import com.classpulse.classpulse.repository.ResponseRepository;
 import com.classpulse.classpulse.repository.SessionRepository;
+import com.classpulse.classpulse.repository.SessionRepository.StatusCount;
+import com.classpulse.classpulse.repository.TeacherDailyStatsRepository;
+import com.classpulse.classpulse.repository.TeacherStatsRepository;
+import com.classpulse.classpulse.repository.TeacherStatsRepository.TeacherStatsRow;
 import com.classpulse.classpulse.repository.UserRepository;
+import com.classpulse.classpulse.service.ActiveSessionRegistry.ActiveSession;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -20,106 +37,203 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class AnalyticsService {
 
+    // Longest range served by the teacher activity endpoint
+    private static final int MAX_ACTIVITY_DAYS = 366;
+
     private final SessionRepository sessionRepository;
     private final QuestionRepository questionRepository;
     private final ResponseRepository responseRepository;
     private final UserRepository userRepository;
+    private final LiveTallyService liveTallyService;
+    private final ActiveSessionRegistry activeSessionRegistry;
+    private final ParticipantSketchService participantSketchService;
+    private final TeacherStatsRepository teacherStatsRepository;
+    private final TeacherDailyStatsRepository teacherDailyStatsRepository;
 
     public AnalyticsService(SessionRepository sessionRepository,
             QuestionRepository questionRepository,
             ResponseRepository responseRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            LiveTallyService liveTallyService,
+            ActiveSessionRegistry activeSessionRegistry,
+            ParticipantSketchService participantSketchService,
+            TeacherStatsRepository teacherStatsRepository,
+            TeacherDailyStatsRepository teacherDailyStatsRepository) {
         this.sessionRepository = sessionRepository;
         this.questionRepository = questionRepository;
         this.responseRepository = responseRepository;
         this.userRepository = userRepository;
+        this.liveTallyService = liveTallyService;
+        this.activeSessionRegistry = activeSessionRegistry;
+        this.participantSketchService = participantSketchService;
+        this.teacherStatsRepository = teacherStatsRepository;
+        this.teacherDailyStatsRepository = teacherDailyStatsRepository;
     }
 
     /**
-     * Get detailed analytics for a specific session
+     * Get detailed analytics for a specific session.
+     * Counts come from the live tally, never from individual response rows.
+     * Sessions that are not ACTIVE are cached; live ones change with every answer.
      */
+    @Coalesced
+    @Cacheable(cacheNames = "analytics", key = "'session:' + #sessionId", unless = "#result.sessionStatus == 'ACTIVE'")
     public SessionAnalyticsResponse getSessionAnalytics(Long sessionId) {
+        return computeSessionAnalytics(sessionId);
+    }
+
+    /**
+     * Session analytics computed now, bypassing the cache
+     */
+    public SessionAnalyticsResponse computeSessionAnalytics(Long sessionId) {
         Session session = sessionRepository.findById(sessionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Session", sessionId));
 
-        List<Question> questions = questionRepository.findBySessionId(sessionId);
+        boolean live = session.getStatus() == SessionStatus.ACTIVE;
+        List<QuestionResponse> questions = getQuestions(sessionId, live);
+        SessionTally tally = liveTallyService.getSessionTally(sessionId, questionTypes(questions), live);
 
-        // Collect all responses for this session's questions
-        List<Response> allResponses = new ArrayList<>();
-        List<QuestionAnalytics> questionAnalyticsList = new ArrayList<>();
+        List<QuestionAnalytics> questionAnalyticsList = questions.stream()
+                .map(q -> buildQuestionAnalytics(q, tally.findQuestion(q.getId())))
+                .collect(Collectors.toList());
 
-        for (Question question : questions) {
-            List<Response> responses = responseRepository.findByQuestionId(question.getId());
-            allResponses.addAll(responses);
-
-            // Build question analytics
-            QuestionAnalytics qa = buildQuestionAnalytics(question, responses);
-            questionAnalyticsList.add(qa);
-        }
-
-        // Calculate unique participants
-        Set<Long> uniqueUserIds = allResponses.stream()
-                .map(r -> r.getUser().getId())
-                .collect(Collectors.toSet());
-
-        double avgResponsesPerQuestion = questions.isEmpty() ? 0 : (double) allResponses.size() / questions.size();
+        long totalResponses = tally.getTotalResponses();
+        double avgResponsesPerQuestion = questions.isEmpty() ? 0 : (double) totalResponses / questions.size();
 
         return SessionAnalyticsResponse.builder()
                 .sessionId(session.getId())
                 .sessionTitle(session.getTitle())
                 .sessionStatus(session.getStatus().name())
                 .totalQuestions(questions.size())
-                .totalResponses(allResponses.size())
-                .uniqueParticipants(uniqueUserIds.size())
+                .totalResponses((int) totalResponses)
+                .uniqueParticipants(tally.getUniqueParticipants())
                 .averageResponsesPerQuestion(Math.round(avgResponsesPerQuestion * 100.0) / 100.0)
                 .questionAnalytics(questionAnalyticsList)
                 .build();
     }
 
     /**
-     * Get teacher dashboard with overall stats
+     * Rebuild the live tally of a session from the database and report drift
      */
-    public TeacherDashboardResponse getTeacherDashboard(Long teacherId) {
-        User teacher = userRepository.findById(teacherId)
-                .orElseThrow(() -> new ResourceNotFoundException("Teacher", teacherId));
+    public TallyVerificationResponse verifySessionTally(Long sessionId) {
+        Session session = sessionRepository.findById(sessionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Session", sessionId));
+        boolean live = session.getStatus() == SessionStatus.ACTIVE;
+        return liveTallyService.verify(sessionId, questionTypes(getQuestions(sessionId, live)), live);
+    }
 
-        List<Session> sessions = sessionRepository.findByCreatedBy(teacher);
+    // Active sessions are served from the registry snapshot
+    private List<QuestionResponse> getQuestions(Long sessionId, boolean live) {
+        if (live) {
+            Optional<ActiveSession> active = activeSessionRegistry.findActiveSession(sessionId);
+            if (active.isPresent()) {
+                return active.get().questions();
+            }
+        }
+        return questionRepository.findBySessionId(sessionId).stream()
+                .map(QuestionResponse::fromEntity)
+                .toList();
+    }
 
-        int activeSessions = (int) sessions.stream()
-                .filter(s -> s.getStatus() == SessionStatus.ACTIVE)
-                .count();
-        int endedSessions = (int) sessions.stream()
-                .filter(s -> s.getStatus() == SessionStatus.ENDED)
-                .count();
+    private Map<Long, QuestionType> questionTypes(List<QuestionResponse> questions) {
+        Map<Long, QuestionType> types = new HashMap<>();
+        questions.forEach(q -> types.put(q.getId(), q.getType()));
+        return types;
+    }
 
-        // Collect all questions and responses
-        int totalQuestions = 0;
-        int totalResponses = 0;
-        Set<Long> uniqueStudents = new HashSet<>();
+    /**
+     * Get teacher dashboard with overall stats, read from the teacher_stats row.
+     * Unique students are a HyperLogLog estimate as of the teacher's last ended
+     * session unless {@code exact} is set. The estimated variant is cached.
+     */
+    @Coalesced
+    @Cacheable(cacheNames = "analytics", key = "'teacher:' + #teacherId", condition = "!#exact")
+    public TeacherDashboardResponse getTeacherDashboard(Long teacherId, boolean exact) {
+        Optional<TeacherStatsRow> row = teacherStatsRepository.findRowByTeacherId(teacherId);
+        if (row.isEmpty()) {
+            // Not reconciled yet
+            return computeTeacherDashboard(teacherId, exact);
+        }
+        TeacherStats stats = row.get().getStats();
+        int totalSessions = (int) (stats.getCreatedSessions() + stats.getActiveSessions() + stats.getEndedSessions());
+        long totalUniqueStudents = exact
+                ? responseRepository.countDistinctUsersByTeacherId(teacherId)
+                : stats.getUniqueStudents();
+        return buildTeacherDashboard(teacherId, row.get().getTeacherName(), totalSessions,
+                (int) stats.getActiveSessions(), (int) stats.getEndedSessions(), (int) stats.getTotalQuestions(),
+                (int) stats.getTotalResponses(), (int) totalUniqueStudents, exact);
+    }
+
+    /**
+     * Teacher activity per day in a date range, from the daily buckets
+     */
+    @Coalesced
+    public TeacherActivityResponse getTeacherActivity(Long teacherId, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_ACTIVITY_DAYS) {
+            throw new BadRequestException("Date range must not exceed " + MAX_ACTIVITY_DAYS + " days");
+        }
+        List<DailyActivity> days = teacherDailyStatsRepository.findRange(teacherId, from, to).stream()
+                .map(d -> DailyActivity.builder()
+                        .day(d.getId().getDay())
+                        .sessionsCreated(d.getSessionsCreated())
+                        .questionsCreated(d.getQuestionsCreated())
+                        .responsesReceived(d.getResponses())
+                        .build())
+                .toList();
+        return TeacherActivityResponse.builder()
+                .teacherId(teacherId)
+                .from(from)
+                .to(to)
+                .sessionsCreated(days.stream().mapToLong(DailyActivity::getSessionsCreated).sum())
+                .questionsCreated(days.stream().mapToLong(DailyActivity::getQuestionsCreated).sum())
+                .responsesReceived(days.stream().mapToLong(DailyActivity::getResponsesReceived).sum())
+                .days(days)
+                .build();
+    }
 
-        for (Session session : sessions) {
-            List<Question> questions = questionRepository.findBySessionId(session.getId());
-            totalQuestions += questions.size();
+    // Dashboard straight from the source tables
+    private TeacherDashboardResponse computeTeacherDashboard(Long teacherId, boolean exact) {
+        User teacher = userRepository.findById(teacherId)
+                .orElseThrow(() -> new ResourceNotFoundException("Teacher", teacherId));
 
-            for (Question question : questions) {
-                List<Response> responses = responseRepository.findByQuestionId(question.getId());
-                totalResponses += responses.size();
-                responses.forEach(r -> uniqueStudents.add(r.getUser().getId()));
-            }
+        // A fixed number of aggregate queries, however many sessions the teacher has
+        Map<SessionStatus, Long> sessionsByStatus = new EnumMap<>(SessionStatus.class);
+        for (StatusCount count : sessionRepository.countByStatusForTeacher(teacherId)) {
+            sessionsByStatus.put(count.getStatus(), count.getSessionCount());
         }
+        int totalSessions = (int) sessionsByStatus.values().stream().mapToLong(Long::longValue).sum();
+        int totalQuestions = (int) questionRepository.countByTeacherId(teacherId);
+        int totalResponses = (int) responseRepository.countByTeacherId(teacherId);
 
-        double avgResponsesPerSession = sessions.isEmpty() ? 0 : (double) totalResponses / sessions.size();
-        double avgQuestionsPerSession = sessions.isEmpty() ? 0 : (double) totalQuestions / sessions.size();
+        int totalUniqueStudents = (int) (exact
+                ? responseRepository.countDistinctUsersByTeacherId(teacherId)
+                : participantSketchService.teacherUnion(teacherId).estimate());
+
+        return buildTeacherDashboard(teacher.getId(), teacher.getName(), totalSessions,
+                sessionsByStatus.getOrDefault(SessionStatus.ACTIVE, 0L).intValue(),
+                sessionsByStatus.getOrDefault(SessionStatus.ENDED, 0L).intValue(),
+                totalQuestions, totalResponses, totalUniqueStudents, exact);
+    }
+
+    private TeacherDashboardResponse buildTeacherDashboard(Long teacherId, String teacherName, int totalSessions,
+            int activeSessions, int endedSessions, int totalQuestions, int totalResponses,
+            int totalUniqueStudents, boolean exact) {
+        double avgResponsesPerSession = totalSessions == 0 ? 0 : (double) totalResponses / totalSessions;
+        double avgQuestionsPerSession = totalSessions == 0 ? 0 : (double) totalQuestions / totalSessions;
 
         return TeacherDashboardResponse.builder()
-                .teacherId(teacher.getId())
-                .teacherName(teacher.getName())
-                .totalSessions(sessions.size())
+                .teacherId(teacherId)
+                .teacherName(teacherName)
+                .totalSessions(totalSessions)
                 .activeSessions(activeSessions)
                 .endedSessions(endedSessions)
                 .totalQuestions(totalQuestions)
                 .totalResponses(totalResponses)
-                .totalUniqueStudents(uniqueStudents.size())
+                .totalUniqueStudents(totalUniqueStudents)
+                .uniqueStudentsApproximate(!exact)
+                .uniqueStudentsStandardError(exact ? null : HyperLogLog.DEFAULT_STANDARD_ERROR)
                 .averageResponsesPerSession(Math.round(avgResponsesPerSession * 100.0) / 100.0)
                 .averageQuestionsPerSession(Math.round(avgQuestionsPerSession * 100.0) / 100.0)
                 .build();
@@ -128,32 +242,27 @@ public class AnalyticsService {
     /**
      * Build analytics for a single question
      */
-    private QuestionAnalytics buildQuestionAnalytics(Question question, List<Response> responses) {
-        Map<String, Long> answerDistribution = responses.stream()
-                .collect(Collectors.groupingBy(Response::getAnswer, Collectors.counting()));
-
-        Double averageRating = null;
-        if (question.getType() == QuestionType.RATING) {
-            averageRating = responses.stream()
-                    .mapToDouble(r -> {
-                        try {
-                            return Double.parseDouble(r.getAnswer());
-                        } catch (NumberFormatException e) {
-                            return 0;
-                        }
-                    })
-                    .average()
-                    .orElse(0);
-            averageRating = Math.round(averageRating * 100.0) / 100.0;
-        }
+    private QuestionAnalytics buildQuestionAnalytics(QuestionResponse question, QuestionTally tally) {
+        // Not in the tally (yet): report it without answers rather than fail
+        QuestionAnalytics analytics = buildQuestionAnalytics(
+                tally != null ? tally : new QuestionTally(question.getId(), question.getType()));
+        analytics.setQuestionText(question.getText());
+        return analytics;
+    }
 
+    // Also used for stream deltas, which leave out the question text
+    static QuestionAnalytics buildQuestionAnalytics(QuestionTally tally) {
+        RatingStats stats = tally.getRatingStats();
         return QuestionAnalytics.builder()
-                .questionId(question.getId())
-                .questionText(question.getText())
-                .questionType(question.getType().name())
-                .responseCount(responses.size())
-                .answerDistribution(answerDistribution)
-                .averageRating(averageRating)
+                .questionId(tally.getQuestionId())
+                .questionType(tally.getType().name())
+                .responseCount((int) tally.getResponseCount())
+                .answerDistribution(tally.getType() == QuestionType.OPEN_TEXT ? null : tally.getAnswerDistribution())
+                .averageRating(tally.getAverageRating())
+                .ratingStdDev(stats == null ? null : Math.round(stats.stdDev() * 100.0) / 100.0)
+                .ratingMedian(stats == null ? null : stats.median())
+                .ratingHistogram(stats == null ? null : stats.histogramAsMap())
+                .topTerms(tally.getTopTerms())
                 .build();
     }
 }
@@ -0,0 +1,176 @@
+package com.classpulse.classpulse.service;
+
+import com.classpulse.classpulse.cache.codec.CacheCodecs;
+import com.classpulse.classpulse.dto.response.SessionAnalyticsSnapshotResponse;
+import com.classpulse.classpulse.entity.Session;
+import com.classpulse.classpulse.entity.SessionAnalyticsSnapshot;
+import com.classpulse.classpulse.entity.SessionStatus;
+import com.classpulse.classpulse.repository.SessionAnalyticsSnapshotRepository;
+import com.classpulse.classpulse.repository.SessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Frozen analytics of ended sessions. Once a session has ended its responses
+ * can only be deleted, never added or changed, so its analytics are computed
+ * once, in the background after the end commits, and stored encoded. Reads of
+ * ended sessions are served from the snapshot with a strong ETag; decoded
+ * snapshots are cached like other analytics.
+ * <p>
+ * Deleting a response or question (or editing a question) of an ended
+ * session drops the snapshot; the backfill job stores a fresh one, and until
+ * then analytics are computed as for any other session.
+ */
+@Service
+@Transactional(readOnly = true)
+public class AnalyticsSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsSnapshotService.class);
+
+    private static final int BACKFILL_BATCH = 100;
+    private static final int MAX_BACKFILL_ATTEMPTS = 3;
+
+    private final SessionAnalyticsSnapshotRepository snapshotRepository;
+    private final SessionRepository sessionRepository;
+    private final AnalyticsService analyticsService;
+    private final ActiveSessionRegistry activeSessionRegistry;
+    private final CacheEvictionService cacheEvictionService;
+    private final TransactionTemplate transactionTemplate;
+
+    // Failed backfills by session; a session at the limit is skipped until its
+    // analytics change or the node restarts
+    private final Map<Long, Integer> backfillFailures = new ConcurrentHashMap<>();
+    // Last session id of the previous backfill page (scheduler thread only)
+    private long backfillCursor;
+
+    public AnalyticsSnapshotService(SessionAnalyticsSnapshotRepository snapshotRepository,
+            SessionRepository sessionRepository,
+            AnalyticsService analyticsService,
+            ActiveSessionRegistry activeSessionRegistry,
+            CacheEvictionService cacheEvictionService,
+            PlatformTransactionManager transactionManager) {
+        this.snapshotRepository = snapshotRepository;
+        this.sessionRepository = sessionRepository;
+        this.analyticsService = analyticsService;
+        this.activeSessionRegistry = activeSessionRegistry;
+        this.cacheEvictionService = cacheEvictionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Stored analytics of an ended session; empty for other sessions and for
+     * ended ones whose snapshot has not been (re)built yet, which are not cached
+     */
+    @Cacheable(cacheNames = "analytics", key = "'snapshot:' + #sessionId", unless = "#result == null")
+    public Optional<SessionAnalyticsSnapshotResponse> findSnapshot(Long sessionId) {
+        // Live sessions never have one; skip the lookup
+        if (activeSessionRegistry.findActiveSession(sessionId).isPresent()) {
+            return Optional.empty();
+        }
+        return snapshotRepository.findById(sessionId).flatMap(stored -> {
+            try {
+                return Optional.of(new SessionAnalyticsSnapshotResponse(stored.getEtag(),
+                        CacheCodecs.decode(CacheCodecs.SESSION_ANALYTICS, stored.getAnalytics())));
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                // E.g. written by a newer version during a rollout
+                log.warn("Ignoring unreadable analytics snapshot of session {}: {}", sessionId, e.getMessage());
+                return Optional.empty();
+            }
+        });
+    }
+
+    /**
+     * Compute and store the snapshot of a session that has just ended. Call
+     * after the end has committed.
+     */
+    @Async
+    @Transactional
+    public void sessionEnded(Long sessionId) {
+        store(sessionId);
+    }
+
+    /**
+     * Analytics of an ended session changed; the snapshot is rebuilt by the
+     * backfill job
+     */
+    @Transactional
+    public void analyticsChanged(Long sessionId) {
+        // Waits for a snapshot being computed concurrently, which would predate this change
+        sessionRepository.findByIdForUpdate(sessionId);
+        snapshotRepository.deleteBySessionId(sessionId);
+        cacheEvictionService.analyticsSnapshotDropped(sessionId);
+        backfillFailures.remove(sessionId);
+    }
+
+    @Transactional
+    public void sessionDeleted(Long sessionId) {
+        snapshotRepository.deleteBySessionId(sessionId);
+        cacheEvictionService.analyticsSnapshotDropped(sessionId);
+    }
+
+    /**
+     * Store snapshots for ended sessions that have none (ended before
+     * snapshots existed, whose snapshot was dropped, or whose background
+     * computation failed). Each session is stored in its own transaction, so
+     * a failure neither holds other sessions' locks nor rolls them back, and
+     * pages advance past sessions that fail.
+     */
+    @Scheduled(fixedDelayString = "${analytics.snapshot.backfill-ms:60000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void backfill() {
+        List<Long> sessionIds = sessionRepository.findEndedIdsWithoutAnalyticsSnapshot(backfillCursor,
+                PageRequest.of(0, BACKFILL_BATCH));
+        // Start over from the lowest id after the last page
+        backfillCursor = sessionIds.size() < BACKFILL_BATCH ? 0 : sessionIds.get(sessionIds.size() - 1);
+        for (Long sessionId : sessionIds) {
+            if (backfillFailures.getOrDefault(sessionId, 0) >= MAX_BACKFILL_ATTEMPTS) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(tx -> store(sessionId));
+                backfillFailures.remove(sessionId);
+            } catch (RuntimeException e) {
+                int attempts = backfillFailures.merge(sessionId, 1, Integer::sum);
+                log.warn("Failed to store analytics snapshot of session {} (attempt {} of {}): {}",
+                        sessionId, attempts, MAX_BACKFILL_ATTEMPTS, e.getMessage());
+            }
+        }
+    }
+
+    private void store(Long sessionId) {
+        // Locked until commit, so a concurrent deletion waits for the snapshot and then drops it
+        Optional<Session> session = sessionRepository.findByIdForUpdate(sessionId);
+        if (session.isEmpty() || session.get().getStatus() != SessionStatus.ENDED) {
+            return;
+        }
+        byte[] encoded = CacheCodecs.encode(CacheCodecs.SESSION_ANALYTICS,
+                analyticsService.computeSessionAnalytics(sessionId));
+        snapshotRepository.save(new SessionAnalyticsSnapshot(sessionId, encoded, etag(encoded)));
+    }
+
+    private static String etag(byte[] encoded) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(encoded);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
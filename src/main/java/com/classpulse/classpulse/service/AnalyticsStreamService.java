@@ -0,0 +1,171 @@
+package com.classpulse.classpulse.service;
+
+import com.classpulse.classpulse.analytics.QuestionTally;
+import com.classpulse.classpulse.analytics.SessionTally;
+import com.classpulse.classpulse.dto.response.SessionAnalyticsDelta;
+import com.classpulse.classpulse.dto.response.SessionAnalyticsResponse;
+import com.classpulse.classpulse.dto.response.SessionAnalyticsResponse.QuestionAnalytics;
+import com.classpulse.classpulse.entity.SessionStatus;
+import com.classpulse.classpulse.realtime.SseBroadcaster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes live session analytics to teacher screens over SSE.
+ * Tally changes only mark a question dirty; a fixed-rate flush turns all
+ * changes of a session since the previous frame into one delta frame, so a
+ * burst of submits costs at most one frame per interval per session. After a
+ * question change the next frame is a full snapshot instead.
+ * <p>
+ * Frames are built from this node's live tally, which also applies the changes
+ * relayed from other nodes (see {@link LiveTallyService}). Once the tally is due
+ * for a resync, the heartbeat sends a full snapshot, which rebuilds it from the
+ * database, so a screen that only streams still gets exact counts.
+ */
+@Service
+public class AnalyticsStreamService implements LiveTallyService.TallyListener {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsStreamService.class);
+
+    private final AnalyticsService analyticsService;
+    private final LiveTallyService liveTallyService;
+    private final JsonMapper jsonMapper;
+    private final SseBroadcaster broadcaster;
+
+    // sessionId -> question ids changed since the last frame
+    private final Map<Long, Set<Long>> dirtyQuestions = new ConcurrentHashMap<>();
+    // Sessions whose next frame is a full snapshot
+    private final Set<Long> snapshotPending = ConcurrentHashMap.newKeySet();
+
+    public AnalyticsStreamService(AnalyticsService analyticsService,
+            LiveTallyService liveTallyService,
+            JsonMapper jsonMapper,
+            @Value("${analytics.stream.max-connections:1000}") int maxConnections,
+            @Value("${analytics.stream.timeout-ms:3600000}") long timeoutMillis) {
+        this.analyticsService = analyticsService;
+        this.liveTallyService = liveTallyService;
+        this.jsonMapper = jsonMapper;
+        this.broadcaster = new SseBroadcaster("analytics", maxConnections, timeoutMillis);
+        liveTallyService.addListener(this);
+    }
+
+    /**
+     * Open a stream. The first event is the full analytics snapshot, followed by
+     * coalesced "delta" events. A session that is not ACTIVE gets the snapshot
+     * and an "ended" event, and the stream is closed.
+     */
+    public SseEmitter subscribe(Long sessionId) {
+        // Load first so unknown sessions fail with 404 before a stream is opened;
+        // this also makes sure a live tally exists to produce deltas from
+        SessionAnalyticsResponse snapshot = analyticsService.getSessionAnalytics(sessionId);
+        if (!isLive(snapshot)) {
+            return broadcaster.completed("snapshot", jsonMapper.writeValueAsString(snapshot), "ended",
+                    endedPayload(sessionId));
+        }
+        SseEmitter emitter = broadcaster.subscribe(sessionId);
+        broadcaster.send(sessionId, emitter, "snapshot", jsonMapper.writeValueAsString(snapshot));
+        return emitter;
+    }
+
+    @Override
+    public void questionChanged(Long sessionId, Long questionId) {
+        if (broadcaster.hasSubscribers(sessionId)) {
+            dirtyQuestions.computeIfAbsent(sessionId, id -> ConcurrentHashMap.newKeySet()).add(questionId);
+        }
+    }
+
+    @Override
+    public void questionsChanged(Long sessionId) {
+        if (broadcaster.hasSubscribers(sessionId)) {
+            snapshotPending.add(sessionId);
+        }
+    }
+
+    @Override
+    public void sessionClosed(Long sessionId) {
+        dirtyQuestions.remove(sessionId);
+        snapshotPending.remove(sessionId);
+        broadcaster.complete(sessionId, "ended", endedPayload(sessionId));
+    }
+
+    @Scheduled(fixedRateString = "${analytics.stream.frame-interval-ms:250}")
+    public void flushFrames() {
+        for (Long sessionId : snapshotPending) {
+            snapshotPending.remove(sessionId);
+            // The snapshot covers every change made before it
+            dirtyQuestions.remove(sessionId);
+            sendSnapshot(sessionId);
+        }
+        for (Long sessionId : dirtyQuestions.keySet()) {
+            Set<Long> changed = dirtyQuestions.remove(sessionId);
+            if (changed == null || changed.isEmpty()) {
+                continue;
+            }
+            liveTallyService.findLiveTally(sessionId)
+                    .ifPresent(tally -> broadcaster.broadcast(sessionId, "delta",
+                            jsonMapper.writeValueAsString(buildDelta(tally, changed))));
+        }
+    }
+
+    @Scheduled(fixedRateString = "${analytics.stream.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        broadcaster.heartbeat();
+        // A question change drops the live tally; without it no deltas are
+        // produced. A full snapshot rebuilds it, as well as a tally due for a resync.
+        for (Long sessionId : broadcaster.keys()) {
+            if (liveTallyService.findLiveTally(sessionId).filter(tally -> !liveTallyService.needsResync(tally))
+                    .isEmpty()) {
+                sendSnapshot(sessionId);
+            }
+        }
+    }
+
+    // One failing session (e.g. deleted meanwhile) must not stop the others
+    private void sendSnapshot(Long sessionId) {
+        try {
+            SessionAnalyticsResponse snapshot = analyticsService.getSessionAnalytics(sessionId);
+            broadcaster.broadcast(sessionId, "snapshot", jsonMapper.writeValueAsString(snapshot));
+            // Ended without this node hearing of it; close instead of resending the snapshot
+            if (!isLive(snapshot)) {
+                sessionClosed(sessionId);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to send analytics snapshot for session {}: {}", sessionId, e.getMessage());
+        }
+    }
+
+    private static boolean isLive(SessionAnalyticsResponse snapshot) {
+        return SessionStatus.ACTIVE.name().equals(snapshot.getSessionStatus());
+    }
+
+    private static String endedPayload(Long sessionId) {
+        return "{\"sessionId\":" + sessionId + "}";
+    }
+
+    private SessionAnalyticsDelta buildDelta(SessionTally tally, Set<Long> changed) {
+        List<QuestionAnalytics> questions = new ArrayList<>();
+        for (Long questionId : changed) {
+            QuestionTally question = tally.findQuestion(questionId);
+            if (question != null) {
+                questions.add(AnalyticsService.buildQuestionAnalytics(question));
+            }
+        }
+        return SessionAnalyticsDelta.builder()
+                .sessionId(tally.getSessionId())
+                .totalResponses(tally.getTotalResponses())
+                .uniqueParticipants(tally.getUniqueParticipants())
+                .changedQuestions(questions)
+                .build();
+    }
+}
@@ -11,10 +11,15 @@ import com.classpulse.classpulse.security.JwtUtil;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Registration and login. Both hash or verify a password with BCrypt, so
+ * callers run them on the {@link com.classpulse.classpulse.security.PasswordHashingExecutor}.
+ */
 @Service
 @Transactional
 public class AuthService {
@@ -59,9 +64,12 @@ public class AuthService {
                 savedUser.getRole().name());
     }
 
+    // The authenticated principal is the user loaded for the password check;
+    // a hash made with a lower strength is upgraded during that check
     public AuthResponse login(LoginRequest request) {
+        Authentication authentication;
         try {
-            authenticationManager.authenticate(
+            authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
                             request.getEmail(),
                             request.getPassword()));
@@ -69,8 +77,7 @@ public class AuthService {
             throw new BadRequestException("Invalid email or password");
         }
 
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new BadRequestException("Invalid email or password"));
+        User user = (User) authentication.getPrincipal();
 
         String token = jwtUtil.generateToken(user);
 
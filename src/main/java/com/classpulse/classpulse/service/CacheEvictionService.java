@@ -0,0 +1,110 @@
+package com.classpulse.classpulse.service;
+
+import com.classpulse.classpulse.entity.Session;
+import com.classpulse.classpulse.repository.SessionRepository;
+import com.classpulse.classpulse.security.PrincipalCache;
+import com.classpulse.classpulse.security.TokenVersionCache;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Precise eviction of cached read models after writes. Entries are evicted
+ * once the surrounding transaction commits, so a concurrent read cannot cache
+ * the pre-commit state again. Cached entries and their keys:
+ * <ul>
+ * <li>analytics {@code session:<id>}: {@link AnalyticsService#getSessionAnalytics}, sessions that are not ACTIVE</li>
+ * <li>analytics {@code snapshot:<id>}: {@link AnalyticsSnapshotService#findSnapshot}, ended sessions</li>
+ * <li>analytics {@code teacher:<id>}: {@link AnalyticsService#getTeacherDashboard}, estimated variant</li>
+ * <li>sessions {@code <code>}: {@link SessionService#getSessionByCode}</li>
+ * <li>users {@code <id>}: {@link UserService#getUserResponseById}; also drops the user's
+ * {@link PrincipalCache} entries and {@link TokenVersionCache} version on every node</li>
+ * </ul>
+ */
+@Service
+public class CacheEvictionService {
+
+    private final CacheManager cacheManager;
+    private final SessionRepository sessionRepository;
+    private final PrincipalCache principalCache;
+    private final TokenVersionCache tokenVersionCache;
+
+    public CacheEvictionService(CacheManager cacheManager,
+            SessionRepository sessionRepository,
+            PrincipalCache principalCache,
+            TokenVersionCache tokenVersionCache) {
+        this.cacheManager = cacheManager;
+        this.sessionRepository = sessionRepository;
+        this.principalCache = principalCache;
+        this.tokenVersionCache = tokenVersionCache;
+    }
+
+    /**
+     * Session created, started, ended or deleted
+     */
+    public void sessionChanged(Session session) {
+        Long sessionId = session.getId();
+        Long teacherId = session.getCreatedBy().getId();
+        String code = session.getCode();
+        TransactionHooks.afterCommit(() -> {
+            evict("analytics", "session:" + sessionId);
+            evict("analytics", "teacher:" + teacherId);
+            evict("sessions", code);
+        });
+    }
+
+    /**
+     * Question added, changed or removed; also used when a response of a
+     * session that is not ACTIVE is removed
+     */
+    public void sessionContentChanged(Session session) {
+        Long sessionId = session.getId();
+        Long teacherId = session.getCreatedBy().getId();
+        TransactionHooks.afterCommit(() -> {
+            evict("analytics", "session:" + sessionId);
+            evict("analytics", "teacher:" + teacherId);
+        });
+    }
+
+    /**
+     * Stored analytics snapshot of a session dropped
+     */
+    public void analyticsSnapshotDropped(Long sessionId) {
+        TransactionHooks.afterCommit(() -> evict("analytics", "snapshot:" + sessionId));
+    }
+
+    public void teachersChanged(Collection<Long> teacherIds) {
+        if (teacherIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(teacherIds);
+        TransactionHooks.afterCommit(() -> ids.forEach(id -> evict("analytics", "teacher:" + id)));
+    }
+
+    /**
+     * User changed or deleted: the user, their dashboard, their sessions
+     * (which carry the teacher's name), their authenticated principals and
+     * token version. Other nodes drop the principals and version when the
+     * users eviction reaches them.
+     */
+    public void userChanged(Long userId) {
+        List<String> codes = sessionRepository.findCodesByTeacherId(userId);
+        TransactionHooks.afterCommit(() -> {
+            principalCache.userChanged(userId);
+            tokenVersionCache.userChanged(userId);
+            evict("users", userId);
+            evict("analytics", "teacher:" + userId);
+            codes.forEach(code -> evict("sessions", code));
+        });
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.classpulse.classpulse.service;
 
 import com.classpulse.classpulse.dto.response.SessionAnalyticsResponse;
+import com.classpulse.classpulse.dto.response.SessionAnalyticsSnapshotResponse;
 import com.classpulse.classpulse.entity.Session;
 import com.classpulse.classpulse.entity.User;
 import com.classpulse.classpulse.exception.ResourceNotFoundException;
@@ -18,13 +19,16 @@ public class EmailService {
     private final JavaMailSender mailSender;
     private final SessionRepository sessionRepository;
     private final AnalyticsService analyticsService;
+    private final AnalyticsSnapshotService analyticsSnapshotService;
 
     public EmailService(JavaMailSender mailSender,
             SessionRepository sessionRepository,
-            AnalyticsService analyticsService) {
+            AnalyticsService analyticsService,
+            AnalyticsSnapshotService analyticsSnapshotService) {
         this.mailSender = mailSender;
         this.sessionRepository = sessionRepository;
         this.analyticsService = analyticsService;
+        this.analyticsSnapshotService = analyticsSnapshotService;
     }
 
     @Async
@@ -33,7 +37,9 @@ public class EmailService {
                 .orElseThrow(() -> new ResourceNotFoundException("Session", sessionId));
 
         User teacher = session.getCreatedBy();
-        SessionAnalyticsResponse analytics = analyticsService.getSessionAnalytics(sessionId);
+        SessionAnalyticsResponse analytics = analyticsSnapshotService.findSnapshot(sessionId)
+                .map(SessionAnalyticsSnapshotResponse::getAnalytics)
+                .orElseGet(() -> analyticsService.getSessionAnalytics(sessionId));
 
         String subject = "Session Summary: " + session.getTitle();
         String htmlContent = buildSessionSummaryHtml(session, analytics);
@@ -0,0 +1,304 @@
+package com.classpulse.classpulse.service;
+
+import com.classpulse.classpulse.analytics.QuestionTally;
+import com.classpulse.classpulse.analytics.SessionTally;
+import com.classpulse.classpulse.dto.response.TallyVerificationResponse;
+import com.classpulse.classpulse.entity.QuestionType;
+import com.classpulse.classpulse.repository.ResponseRepository;
+import com.classpulse.classpulse.repository.ResponseRepository.AnswerCount;
+import com.classpulse.classpulse.repository.ResponseRepository.UserResponseCount;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Incrementally maintained answer tallies for ACTIVE sessions.
+ * Response writes update the counters after commit; analytics reads are served
+ * from them without touching the responses table. A tally is rebuilt from the
+ * database on first use, after a restart, after a question change and once it
+ * is older than the resync interval.
+ * <p>
+ * Changes committed on this node are relayed in batches over a Redis channel
+ * and applied to the tallies of every other node, so each node counts writes
+ * made anywhere. The resync bounds drift from relays lost while Redis was
+ * unreachable and from changes racing with a rebuild.
+ */
+@Service
+public class LiveTallyService implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveTallyService.class);
+
+    private final ResponseRepository responseRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final JsonMapper jsonMapper;
+    private final String channel;
+    private final long resyncMillis;
+
+    // Identifies the changes this node relayed; it applied them before relaying
+    private final String nodeId = UUID.randomUUID().toString();
+    // Changes committed on this node since the last relay
+    private final Queue<TallyChange> outbound = new ConcurrentLinkedQueue<>();
+
+    private final Map<Long, SessionTally> tallies = new ConcurrentHashMap<>();
+    private final Map<Long, SessionTally> talliesByQuestionId = new ConcurrentHashMap<>();
+    private final List<TallyListener> listeners = new CopyOnWriteArrayList<>();
+
+    public LiveTallyService(ResponseRepository responseRepository,
+            StringRedisTemplate redisTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            JsonMapper jsonMapper,
+            @Value("${analytics.tally.channel:classpulse:tally-changes}") String channel,
+            @Value("${analytics.tally.resync-ms:60000}") long resyncMillis) {
+        this.responseRepository = responseRepository;
+        this.redisTemplate = redisTemplate;
+        this.jsonMapper = jsonMapper;
+        this.channel = channel;
+        this.resyncMillis = resyncMillis;
+        listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+    }
+
+    /**
+     * Tally for a session. Live tallies are kept in memory; others are built
+     * from the database for this call only.
+     *
+     * @param questionTypes type of every question in the session, by id
+     */
+    public SessionTally getSessionTally(Long sessionId, Map<Long, QuestionType> questionTypes, boolean live) {
+        if (!live) {
+            return build(sessionId, questionTypes);
+        }
+        SessionTally tally = tallies.get(sessionId);
+        // A question the tally does not know yet (added on another node, or
+        // read between the registry and tally updates) also forces a rebuild
+        if (tally == null || needsResync(tally)
+                || !tally.getQuestionIds().containsAll(questionTypes.keySet())) {
+            tally = build(sessionId, questionTypes);
+            install(tally);
+        }
+        return tally;
+    }
+
+    /**
+     * In-memory live tally of a session, if one is currently maintained
+     */
+    public Optional<SessionTally> findLiveTally(Long sessionId) {
+        return Optional.ofNullable(tallies.get(sessionId));
+    }
+
+    /**
+     * Whether a live tally is older than the resync interval and is rebuilt on next read
+     */
+    public boolean needsResync(SessionTally tally) {
+        return System.currentTimeMillis() - tally.getBuiltAt() > resyncMillis;
+    }
+
+    public void addListener(TallyListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Rebuild a session's tally from the database and report any drift
+     */
+    public TallyVerificationResponse verify(Long sessionId, Map<Long, QuestionType> questionTypes, boolean live) {
+        SessionTally rebuilt = build(sessionId, questionTypes);
+        SessionTally current = tallies.get(sessionId);
+
+        List<Long> drifted = new ArrayList<>();
+        boolean participantsDrifted = false;
+        if (current != null) {
+            for (Long questionId : questionTypes.keySet()) {
+                QuestionTally expected = rebuilt.findQuestion(questionId);
+                QuestionTally actual = current.findQuestion(questionId);
+                // OPEN_TEXT keeps no per-answer buckets, so the response count is compared too
+                if (actual == null || actual.getResponseCount() != expected.getResponseCount()
+                        || !actual.getAnswerDistribution().equals(expected.getAnswerDistribution())) {
+                    drifted.add(questionId);
+                }
+            }
+            participantsDrifted = current.getUniqueParticipants() != rebuilt.getUniqueParticipants();
+        }
+        if (live) {
+            install(rebuilt);
+        }
+        return new TallyVerificationResponse(sessionId, drifted.isEmpty() && !participantsDrifted, drifted,
+                participantsDrifted);
+    }
+
+    public void responseAdded(Long questionId, Long userId, String answer) {
+        commit(new TallyChange(ChangeType.ADDED, null, questionId, userId, null, answer));
+    }
+
+    public void responseChanged(Long questionId, String oldAnswer, String newAnswer) {
+        commit(new TallyChange(ChangeType.CHANGED, null, questionId, null, oldAnswer, newAnswer));
+    }
+
+    public void responseRemoved(Long questionId, Long userId, String answer) {
+        commit(new TallyChange(ChangeType.REMOVED, null, questionId, userId, answer, null));
+    }
+
+    /**
+     * Question added, changed or removed: the tally is rebuilt on next read
+     */
+    public void questionsChanged(Long sessionId) {
+        commit(new TallyChange(ChangeType.QUESTIONS_CHANGED, sessionId, null, null, null, null));
+    }
+
+    public void sessionClosed(Long sessionId) {
+        commit(new TallyChange(ChangeType.SESSION_CLOSED, sessionId, null, null, null, null));
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.tally.relay-ms:100}")
+    public void relayChanges() {
+        List<TallyChange> changes = new ArrayList<>();
+        TallyChange change;
+        while ((change = outbound.poll()) != null) {
+            changes.add(change);
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(channel, jsonMapper.writeValueAsString(new TallyChanges(nodeId, changes)));
+        } catch (DataAccessException e) {
+            // Not retried: other nodes pick the changes up when their tallies resync
+            log.warn("Could not relay {} tally change(s): {}", changes.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        TallyChanges relayed;
+        try {
+            relayed = jsonMapper.readValue(new String(message.getBody(), StandardCharsets.UTF_8), TallyChanges.class);
+        } catch (JacksonException e) {
+            log.warn("Ignoring malformed tally relay: {}", e.getMessage());
+            return;
+        }
+        if (!nodeId.equals(relayed.node())) {
+            relayed.changes().forEach(this::apply);
+        }
+    }
+
+    private void commit(TallyChange change) {
+        TransactionHooks.afterCommit(() -> {
+            apply(change);
+            outbound.add(change);
+        });
+    }
+
+    private void apply(TallyChange change) {
+        switch (change.type()) {
+            case ADDED -> {
+                SessionTally tally = talliesByQuestionId.get(change.questionId());
+                if (tally != null) {
+                    tally.findQuestion(change.questionId()).add(change.answer());
+                    tally.participantAdded(change.userId(), 1);
+                    notifyChanged(tally.getSessionId(), change.questionId());
+                }
+            }
+            case CHANGED -> {
+                SessionTally tally = talliesByQuestionId.get(change.questionId());
+                if (tally != null) {
+                    QuestionTally question = tally.findQuestion(change.questionId());
+                    question.remove(change.oldAnswer());
+                    question.add(change.answer());
+                    notifyChanged(tally.getSessionId(), change.questionId());
+                }
+            }
+            case REMOVED -> {
+                SessionTally tally = talliesByQuestionId.get(change.questionId());
+                if (tally != null) {
+                    tally.findQuestion(change.questionId()).remove(change.oldAnswer());
+                    tally.participantRemoved(change.userId());
+                    notifyChanged(tally.getSessionId(), change.questionId());
+                }
+            }
+            case QUESTIONS_CHANGED -> {
+                evict(change.sessionId());
+                listeners.forEach(listener -> listener.questionsChanged(change.sessionId()));
+            }
+            case SESSION_CLOSED -> {
+                evict(change.sessionId());
+                listeners.forEach(listener -> listener.sessionClosed(change.sessionId()));
+            }
+        }
+    }
+
+    private void notifyChanged(Long sessionId, Long questionId) {
+        for (TallyListener listener : listeners) {
+            listener.questionChanged(sessionId, questionId);
+        }
+    }
+
+    private SessionTally build(Long sessionId, Map<Long, QuestionType> questionTypes) {
+        SessionTally tally = new SessionTally(sessionId);
+        questionTypes.forEach(tally::question);
+        for (AnswerCount count : responseRepository.countAnswersBySessionId(sessionId)) {
+            QuestionTally question = tally.findQuestion(count.getQuestionId());
+            if (question != null) {
+                question.add(count.getAnswer(), count.getResponseCount());
+            }
+        }
+        for (UserResponseCount count : responseRepository.countResponsesByUserForSession(sessionId)) {
+            tally.participantAdded(count.getUserId(), count.getResponseCount().intValue());
+        }
+        return tally;
+    }
+
+    private void install(SessionTally tally) {
+        SessionTally previous = tallies.put(tally.getSessionId(), tally);
+        tally.getQuestionIds().forEach(questionId -> talliesByQuestionId.put(questionId, tally));
+        if (previous != null) {
+            previous.getQuestionIds().forEach(questionId -> talliesByQuestionId.remove(questionId, previous));
+        }
+    }
+
+    private void evict(Long sessionId) {
+        SessionTally removed = tallies.remove(sessionId);
+        if (removed != null) {
+            removed.getQuestionIds().forEach(questionId -> talliesByQuestionId.remove(questionId, removed));
+        }
+    }
+
+    enum ChangeType {
+        ADDED, CHANGED, REMOVED, QUESTIONS_CHANGED, SESSION_CLOSED
+    }
+
+    // One committed change; answer is the new answer, oldAnswer the one replaced or removed
+    record TallyChange(ChangeType type, Long sessionId, Long questionId, Long userId, String oldAnswer,
+            String answer) {
+    }
+
+    record TallyChanges(String node, List<TallyChange> changes) {
+    }
+
+    /**
+     * Called after a tally changed, on the writing thread or the Redis listener
+     * thread for changes made on other nodes; must be cheap
+     */
+    public interface TallyListener {
+
+        void questionChanged(Long sessionId, Long questionId);
+
+        // The session's tally was dropped; no changes are reported until it is rebuilt
+        void questionsChanged(Long sessionId);
+
+        void sessionClosed(Long sessionId);
+    }
+}
@@ -0,0 +1,104 @@
+package com.classpulse.classpulse.service;
+
+import com.classpulse.classpulse.analytics.HyperLogLog;
+import com.classpulse.classpulse.entity.SessionParticipantSketch;
+import com.classpulse.classpulse.repository.ResponseRepository;
+import com.classpulse.classpulse.repository.SessionParticipantSketchRepository;
+import com.classpulse.classpulse.repository.SessionRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Approximate unique participant counts from per-session HyperLogLog sketches.
+ * A sketch is stored once a session has ended; participants of active sessions
+ * and of sessions that have no stored sketch yet are read from responses.
+ * Deleting a response from an ended session drops its sketch, and the
+ * backfill job stores a fresh one.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ParticipantSketchService {
+
+    private static final int BACKFILL_BATCH = 100;
+
+    private final SessionParticipantSketchRepository sketchRepository;
+    private final SessionRepository sessionRepository;
+    private final ResponseRepository responseRepository;
+
+    public ParticipantSketchService(SessionParticipantSketchRepository sketchRepository,
+            SessionRepository sessionRepository,
+            ResponseRepository responseRepository) {
+        this.sketchRepository = sketchRepository;
+        this.sessionRepository = sessionRepository;
+        this.responseRepository = responseRepository;
+    }
+
+    /**
+     * Union of the participant sketches of all sessions of a teacher
+     */
+    public HyperLogLog teacherUnion(Long teacherId) {
+        return union(sketchRepository.findByTeacherId(teacherId),
+                responseRepository.findUnsketchedParticipantIdsByTeacherId(teacherId));
+    }
+
+    /**
+     * Union of the participant sketches of every session on the platform
+     */
+    public HyperLogLog platformUnion() {
+        return union(sketchRepository.findAll(), responseRepository.findUnsketchedParticipantIds());
+    }
+
+    /**
+     * Store the final sketch of a session once no more answers can arrive
+     */
+    @Transactional
+    public void sessionEnded(Long sessionId) {
+        sketchRepository.save(new SessionParticipantSketch(sessionId, sketchFromResponses(sessionId).toBytes()));
+    }
+
+    /**
+     * A stored sketch cannot forget a participant; drop it so it is rebuilt
+     */
+    @Transactional
+    public void participantsChanged(Long sessionId) {
+        sketchRepository.deleteBySessionId(sessionId);
+    }
+
+    /**
+     * Store sketches for ended sessions that have none (sessions ended before
+     * sketches existed, or whose sketch was dropped)
+     */
+    @Scheduled(fixedDelayString = "${analytics.participants.backfill-ms:300000}")
+    @Transactional
+    public void backfill() {
+        List<Long> sessionIds = sessionRepository.findEndedIdsWithoutParticipantSketch(PageRequest.of(0, BACKFILL_BATCH));
+        for (Long sessionId : sessionIds) {
+            sessionEnded(sessionId);
+        }
+    }
+
+    // Two queries whatever the number of sessions: stored sketches, plus the
+    // participants of all sessions without one
+    private HyperLogLog union(List<SessionParticipantSketch> stored, List<Long> unsketchedParticipantIds) {
+        HyperLogLog union = new HyperLogLog();
+        for (SessionParticipantSketch sketch : stored) {
+            union.merge(HyperLogLog.fromBytes(sketch.getSketch()));
+        }
+        for (Long userId : unsketchedParticipantIds) {
+            union.add(userId);
+        }
+        return union;
+    }
+
+    private HyperLogLog sketchFromResponses(Long sessionId) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (Long userId : responseRepository.findParticipantIdsBySessionId(sessionId)) {
+            sketch.add(userId);
+        }
+        return sketch;
+    }
+}
@@ -1,5 +1,6 @@
 package com.classpulse.classpulse.service;
 
+import com.classpulse.classpulse.dto.response.QuestionResponse;
 import com.classpulse.classpulse.entity.Question;
 import com.classpulse.classpulse.entity.QuestionType;
 import com.classpulse.classpulse.entity.Session;
@@ -8,8 +9,10 @@ import com.classpulse.classpulse.exception.BadRequestException;
 import com.classpulse.classpulse.exception.ResourceNotFoundException;
 import com.classpulse.classpulse.repository.QuestionRepository;
 import com.classpulse.classpulse.repository.SessionRepository;
+import com.classpulse.classpulse.service.ActiveSessionRegistry.ActiveSession;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -19,10 +22,25 @@ public class QuestionService {
 
     private final QuestionRepository questionRepository;
     private final SessionRepository sessionRepository;
+    private final ActiveSessionRegistry activeSessionRegistry;
+    private final LiveTallyService liveTallyService;
+    private final QuestionStreamService questionStreamService;
+    private final TeacherStatsService teacherStatsService;
+    private final CacheEvictionService cacheEvictionService;
+    private final AnalyticsSnapshotService analyticsSnapshotService;
 
-    public QuestionService(QuestionRepository questionRepository, SessionRepository sessionRepository) {
+    public QuestionService(QuestionRepository questionRepository, SessionRepository sessionRepository,
+            ActiveSessionRegistry activeSessionRegistry, LiveTallyService liveTallyService,
+            QuestionStreamService questionStreamService, TeacherStatsService teacherStatsService,
+            CacheEvictionService cacheEvictionService, AnalyticsSnapshotService analyticsSnapshotService) {
         this.questionRepository = questionRepository;
         this.sessionRepository = sessionRepository;
+        this.activeSessionRegistry = activeSessionRegistry;
+        this.liveTallyService = liveTallyService;
+        this.questionStreamService = questionStreamService;
+        this.teacherStatsService = teacherStatsService;
+        this.cacheEvictionService = cacheEvictionService;
+        this.analyticsSnapshotService = analyticsSnapshotService;
     }
 
     @Transactional(readOnly = true)
@@ -41,6 +59,33 @@ public class QuestionService {
         return questionRepository.findBySessionId(sessionId);
     }
 
+    /**
+     * Questions of a session as DTOs. Active sessions are served from the
+     * registry without touching the database.
+     */
+    @Transactional(readOnly = true)
+    public List<QuestionResponse> getQuestionResponsesBySession(Long sessionId) {
+        return activeSessionRegistry.findActiveSession(sessionId)
+                .map(ActiveSession::questions)
+                .orElseGet(() -> questionRepository.findBySessionId(sessionId).stream()
+                        .map(QuestionResponse::fromEntity)
+                        .toList());
+    }
+
+    /**
+     * Subscribe to question changes of the session with the given join code.
+     * The stream starts with the current question list.
+     */
+    @Transactional(readOnly = true)
+    public SseEmitter streamQuestionsByCode(String code) {
+        Session session = sessionRepository.findByCode(code)
+                .orElseThrow(() -> new ResourceNotFoundException("Session", "code", code));
+        if (session.getStatus() == SessionStatus.ENDED) {
+            throw new BadRequestException("Session has ended");
+        }
+        return questionStreamService.subscribe(session.getId(), getQuestionResponsesBySession(session.getId()));
+    }
+
     public Question createQuestion(Long sessionId, String text, QuestionType type, String optionsJson) {
         Session session = sessionRepository.findById(sessionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Session", sessionId));
@@ -55,7 +100,13 @@ public class QuestionService {
         question.setType(type);
         question.setOptionsJson(optionsJson);
 
-        return questionRepository.save(question);
+        Question saved = questionRepository.save(question);
+        teacherStatsService.questionCreated(session.getCreatedBy().getId());
+        activeSessionRegistry.questionSaved(saved);
+        liveTallyService.questionsChanged(saved.getSession().getId());
+        questionStreamService.questionCreated(QuestionResponse.fromEntity(saved));
+        cacheEvictionService.sessionContentChanged(session);
+        return saved;
     }
 
     public Question updateQuestion(Long id, String text, QuestionType type, String optionsJson) {
@@ -63,13 +114,27 @@ public class QuestionService {
         question.setText(text);
         question.setType(type);
         question.setOptionsJson(optionsJson);
-        return questionRepository.save(question);
+        Question saved = questionRepository.save(question);
+        activeSessionRegistry.questionSaved(saved);
+        liveTallyService.questionsChanged(saved.getSession().getId());
+        questionStreamService.questionUpdated(QuestionResponse.fromEntity(saved));
+        cacheEvictionService.sessionContentChanged(saved.getSession());
+        if (saved.getSession().getStatus() == SessionStatus.ENDED) {
+            analyticsSnapshotService.analyticsChanged(saved.getSession().getId());
+        }
+        return saved;
     }
 
     public void deleteQuestion(Long id) {
-        if (!questionRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Question", id);
+        Question question = getQuestionById(id);
+        questionRepository.delete(question);
+        teacherStatsService.questionDeleted(question.getSession().getCreatedBy().getId());
+        activeSessionRegistry.questionDeleted(id);
+        liveTallyService.questionsChanged(question.getSession().getId());
+        questionStreamService.questionDeleted(question.getSession().getId(), id);
+        cacheEvictionService.sessionContentChanged(question.getSession());
+        if (question.getSession().getStatus() == SessionStatus.ENDED) {
+            analyticsSnapshotService.analyticsChanged(question.getSession().getId());
         }
-        questionRepository.deleteById(id);
     }
 }
@@ -0,0 +1,296 @@
+package com.classpulse.classpulse.service;
+
+import com.classpulse.classpulse.dto.response.QuestionResponse;
+import com.classpulse.classpulse.entity.Session;
+import com.classpulse.classpulse.entity.SessionStatus;
+import com.classpulse.classpulse.realtime.SseBroadcaster;
+import com.classpulse.classpulse.repository.QuestionRepository;
+import com.classpulse.classpulse.repository.SessionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes question changes to students joined to a session, replacing the
+ * need to poll the question list. Each event is serialized once and the
+ * same frame is written to every subscriber of the session.
+ * <p>
+ * Students of one session may be connected to different nodes, so events are
+ * relayed over a Redis channel and every node writes them to its own
+ * subscribers. Publishing (serializing and relaying) and delivery (writing to
+ * the sockets) each run on a single thread of their own, which keeps events
+ * in order and off the request and Redis listener threads. When either queue
+ * is full the event is dropped and counted, and the affected subscribers get
+ * a fresh snapshot of the question list instead. If Redis cannot be reached,
+ * events only reach the subscribers of the publishing node.
+ */
+@Service
+public class QuestionStreamService implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(QuestionStreamService.class);
+
+    private static final String BROADCAST = "broadcast";
+    private static final String COMPLETE = "complete";
+
+    private final JsonMapper jsonMapper;
+    private final StringRedisTemplate redisTemplate;
+    private final SessionRepository sessionRepository;
+    private final QuestionRepository questionRepository;
+    private final String channel;
+    private final SseBroadcaster broadcaster;
+    private final ThreadPoolExecutor publishExecutor;
+    private final ThreadPoolExecutor deliveryExecutor;
+
+    // Sessions that missed a dropped event: snapshot for all nodes, or for this node's subscribers only
+    private final Set<Long> resyncEverywhere = ConcurrentHashMap.newKeySet();
+    private final Set<Long> resyncLocal = ConcurrentHashMap.newKeySet();
+
+    private final Counter events;
+    private final Counter deliveries;
+    private final Counter dropped;
+    private final Timer fanOut;
+    private final DistributionSummary payloadSize;
+
+    public QuestionStreamService(JsonMapper jsonMapper, MeterRegistry meterRegistry,
+            StringRedisTemplate redisTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            SessionRepository sessionRepository,
+            QuestionRepository questionRepository,
+            @Value("${questions.stream.channel:classpulse:question-events}") String channel,
+            @Value("${questions.stream.max-connections:5000}") int maxConnections,
+            @Value("${questions.stream.timeout-ms:7200000}") long timeoutMillis,
+            @Value("${questions.stream.fan-out-queue-capacity:1000}") int queueCapacity) {
+        this.jsonMapper = jsonMapper;
+        this.redisTemplate = redisTemplate;
+        this.sessionRepository = sessionRepository;
+        this.questionRepository = questionRepository;
+        this.channel = channel;
+        this.broadcaster = new SseBroadcaster("question", maxConnections, timeoutMillis);
+        this.publishExecutor = singleThreadExecutor("question-stream-publish", queueCapacity);
+        this.deliveryExecutor = singleThreadExecutor("question-stream-delivery", queueCapacity);
+        new ExecutorServiceMetrics(publishExecutor, "question-stream-publish", List.of()).bindTo(meterRegistry);
+        new ExecutorServiceMetrics(deliveryExecutor, "question-stream-delivery", List.of()).bindTo(meterRegistry);
+        listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+
+        Gauge.builder("classpulse.questions.stream.subscribers", broadcaster, SseBroadcaster::getConnectionCount)
+                .description("Open question streams on this node")
+                .register(meterRegistry);
+        Gauge.builder("classpulse.questions.stream.sessions", broadcaster, b -> b.keys().size())
+                .description("Sessions with at least one open question stream")
+                .register(meterRegistry);
+        this.events = Counter.builder("classpulse.questions.stream.events")
+                .description("Question events published by this node")
+                .register(meterRegistry);
+        this.deliveries = Counter.builder("classpulse.questions.stream.deliveries")
+                .description("Question event frames written to subscribers")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("classpulse.questions.stream.dropped")
+                .description("Question events dropped because a fan-out queue was full; a snapshot follows")
+                .register(meterRegistry);
+        this.fanOut = Timer.builder("classpulse.questions.stream.fanout")
+                .description("Time to write one question event to all subscribers of a session")
+                .register(meterRegistry);
+        this.payloadSize = DistributionSummary.builder("classpulse.questions.stream.payload")
+                .description("Serialized size of a question event, shared by all subscribers")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Open a stream for a session; the first event is the current question list
+     */
+    public SseEmitter subscribe(Long sessionId, List<QuestionResponse> questions) {
+        SseEmitter emitter = broadcaster.subscribe(sessionId);
+        broadcaster.send(sessionId, emitter, "snapshot", jsonMapper.writeValueAsString(questions));
+        return emitter;
+    }
+
+    public void questionCreated(QuestionResponse question) {
+        TransactionHooks.afterCommit(() -> publish(question.getSessionId(), "question-created", question));
+    }
+
+    public void questionUpdated(QuestionResponse question) {
+        TransactionHooks.afterCommit(() -> publish(question.getSessionId(), "question-updated", question));
+    }
+
+    public void questionDeleted(Long sessionId, Long questionId) {
+        TransactionHooks.afterCommit(() -> publish(sessionId, "question-deleted",
+                Map.of("sessionId", sessionId, "questionId", questionId)));
+    }
+
+    /**
+     * Close all streams of a session once it has ended or was deleted
+     */
+    public void sessionClosed(Long sessionId) {
+        TransactionHooks.afterCommit(() -> submitPublish(sessionId,
+                () -> relay(COMPLETE, sessionId, "ended", endedPayload(sessionId))));
+    }
+
+    @Scheduled(fixedRateString = "${questions.stream.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        broadcaster.heartbeat();
+    }
+
+    /**
+     * Send a fresh snapshot to sessions that missed an event. A session that
+     * cannot get one yet (queue still full) stays marked for the next run.
+     */
+    @Scheduled(fixedDelayString = "${questions.stream.resync-ms:1000}")
+    public void resyncDroppedSessions() {
+        for (Long sessionId : resyncEverywhere) {
+            resyncEverywhere.remove(sessionId);
+            // Also covers this node's subscribers
+            resyncLocal.remove(sessionId);
+            submitPublish(sessionId, () -> snapshotEvent(sessionId, resyncEverywhere)
+                    .ifPresent(event -> relay(event.action(), sessionId, event.name(), event.json())));
+        }
+        for (Long sessionId : resyncLocal) {
+            resyncLocal.remove(sessionId);
+            submitDelivery(sessionId, () -> snapshotEvent(sessionId, resyncLocal)
+                    .ifPresent(event -> deliver(event.action(), sessionId, event.name(), event.json())));
+        }
+    }
+
+    // An event relayed by any node, including this one
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\t", 4);
+        if (parts.length < 4) {
+            return;
+        }
+        Long sessionId = Long.valueOf(parts[1]);
+        submitDelivery(sessionId, () -> deliver(parts[0], sessionId, parts[2], parts[3]));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        publishExecutor.shutdown();
+        deliveryExecutor.shutdown();
+    }
+
+    private void publish(Long sessionId, String eventName, Object payload) {
+        submitPublish(sessionId, () -> {
+            String json = jsonMapper.writeValueAsString(payload);
+            events.increment();
+            payloadSize.record(json.getBytes(StandardCharsets.UTF_8).length);
+            relay(BROADCAST, sessionId, eventName, json);
+        });
+    }
+
+    // Runs on the publish thread
+    private void relay(String action, Long sessionId, String eventName, String json) {
+        try {
+            redisTemplate.convertAndSend(channel, action + "\t" + sessionId + "\t" + eventName + "\t" + json);
+        } catch (DataAccessException e) {
+            log.warn("Could not relay question event for session {}, delivering on this node only: {}",
+                    sessionId, e.getMessage());
+            submitDelivery(sessionId, () -> deliver(action, sessionId, eventName, json));
+        }
+    }
+
+    // Runs on the delivery thread
+    private void deliver(String action, Long sessionId, String eventName, String json) {
+        if (COMPLETE.equals(action)) {
+            broadcaster.complete(sessionId, eventName, json);
+            return;
+        }
+        if (!broadcaster.hasSubscribers(sessionId)) {
+            return;
+        }
+        Timer.Sample sample = Timer.start();
+        int delivered = broadcaster.broadcast(sessionId, eventName, json);
+        sample.stop(fanOut);
+        deliveries.increment(delivered);
+    }
+
+    private void submitPublish(Long sessionId, Runnable task) {
+        try {
+            publishExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            dropped(sessionId, resyncEverywhere);
+        }
+    }
+
+    private void submitDelivery(Long sessionId, Runnable task) {
+        try {
+            deliveryExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            dropped(sessionId, resyncLocal);
+        }
+    }
+
+    private void dropped(Long sessionId, Set<Long> resync) {
+        dropped.increment();
+        if (resync.add(sessionId)) {
+            log.warn("Question stream queue full, session {} gets a snapshot instead", sessionId);
+        }
+    }
+
+    /**
+     * The current question list; streams of a session that has ended or is
+     * gone are closed instead. On failure the session is marked for the next run.
+     */
+    private Optional<StreamEvent> snapshotEvent(Long sessionId, Set<Long> resync) {
+        try {
+            Optional<Session> session = sessionRepository.findById(sessionId);
+            if (session.isEmpty() || session.get().getStatus() == SessionStatus.ENDED) {
+                return Optional.of(new StreamEvent(COMPLETE, "ended", endedPayload(sessionId)));
+            }
+            List<QuestionResponse> questions = questionRepository.findBySessionId(sessionId).stream()
+                    .map(QuestionResponse::fromEntity)
+                    .toList();
+            return Optional.of(new StreamEvent(BROADCAST, "snapshot", jsonMapper.writeValueAsString(questions)));
+        } catch (RuntimeException e) {
+            log.warn("Could not load question snapshot for session {}, retrying: {}", sessionId, e.getMessage());
+            resync.add(sessionId);
+            return Optional.empty();
+        }
+    }
+
+    private static String endedPayload(Long sessionId) {
+        return "{\"sessionId\":" + sessionId + "}";
+    }
+
+    private record StreamEvent(String action, String name, String json) {
+    }
+
+    private static ThreadPoolExecutor singleThreadExecutor(String name, int queueCapacity) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, name + "-" + threadIndex.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
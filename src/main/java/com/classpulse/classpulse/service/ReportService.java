@@ -1,52 +1,162 @@
 package com.classpulse.classpulse.service;
 
+import com.classpulse.classpulse.analytics.HyperLogLog;
+import com.classpulse.classpulse.coalescing.Coalesced;
 import com.classpulse.classpulse.dto.response.PlatformReportResponse;
 import com.classpulse.classpulse.dto.response.PlatformReportResponse.SessionStats;
 import com.classpulse.classpulse.dto.response.PlatformReportResponse.TeacherStats;
-import com.classpulse.classpulse.entity.*;
+import com.classpulse.classpulse.entity.Role;
+import com.classpulse.classpulse.entity.SessionStatus;
 import com.classpulse.classpulse.repository.QuestionRepository;
 import com.classpulse.classpulse.repository.ResponseRepository;
 import com.classpulse.classpulse.repository.SessionRepository;
+import com.classpulse.classpulse.repository.TableStatisticsRepository;
+import com.classpulse.classpulse.repository.TeacherStatsRepository;
 import com.classpulse.classpulse.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
 
-import java.util.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 
+/**
+ * Platform report. A scheduled job builds the report from count queries and
+ * publishes it as an immutable snapshot, both in memory and in Redis so other
+ * nodes can adopt it instead of computing their own. Requests are served from
+ * the snapshot; {@code refresh} or {@code exact} build a new report on demand,
+ * at most once per {@code reports.platform.min-on-demand-ms} on each node so
+ * repeated requests cannot keep the database busy with full counts.
+ */
 @Service
 @Transactional(readOnly = true)
 public class ReportService {
 
+    private static final Logger log = LoggerFactory.getLogger(ReportService.class);
+
+    private static final String SNAPSHOT_KEY = "reports:platform";
+
     private final UserRepository userRepository;
     private final SessionRepository sessionRepository;
     private final QuestionRepository questionRepository;
     private final ResponseRepository responseRepository;
+    private final TeacherStatsRepository teacherStatsRepository;
+    private final TableStatisticsRepository tableStatisticsRepository;
+    private final ParticipantSketchService participantSketchService;
+    private final StringRedisTemplate redisTemplate;
+    private final JsonMapper jsonMapper;
+    private final Duration refreshInterval;
+    private final Duration minOnDemandInterval;
+    private final boolean approximateCounts;
+
+    private final AtomicReference<PlatformReportResponse> snapshot = new AtomicReference<>();
+    // Last exact report; never published, only reused within the on-demand interval
+    private final AtomicReference<PlatformReportResponse> exactReport = new AtomicReference<>();
 
     public ReportService(UserRepository userRepository,
             SessionRepository sessionRepository,
             QuestionRepository questionRepository,
-            ResponseRepository responseRepository) {
+            ResponseRepository responseRepository,
+            TeacherStatsRepository teacherStatsRepository,
+            TableStatisticsRepository tableStatisticsRepository,
+            ParticipantSketchService participantSketchService,
+            StringRedisTemplate redisTemplate,
+            JsonMapper jsonMapper,
+            @Value("${reports.platform.refresh-ms:300000}") long refreshMillis,
+            @Value("${reports.platform.min-on-demand-ms:60000}") long minOnDemandMillis,
+            @Value("${reports.platform.approximate-counts:false}") boolean approximateCounts) {
         this.userRepository = userRepository;
         this.sessionRepository = sessionRepository;
         this.questionRepository = questionRepository;
         this.responseRepository = responseRepository;
+        this.teacherStatsRepository = teacherStatsRepository;
+        this.tableStatisticsRepository = tableStatisticsRepository;
+        this.participantSketchService = participantSketchService;
+        this.redisTemplate = redisTemplate;
+        this.jsonMapper = jsonMapper;
+        this.refreshInterval = Duration.ofMillis(refreshMillis);
+        this.minOnDemandInterval = Duration.ofMillis(minOnDemandMillis);
+        this.approximateCounts = approximateCounts;
+    }
+
+    /**
+     * Latest platform report snapshot.
+     *
+     * @param refresh build a new snapshot now instead of returning the latest one,
+     *                unless the latest one was built within the on-demand interval
+     * @param exact   exact unique participant count; built on demand, reused within
+     *                the on-demand interval and not published
+     */
+    @Coalesced
+    public PlatformReportResponse getPlatformReport(boolean refresh, boolean exact) {
+        if (exact) {
+            PlatformReportResponse latest = exactReport.get();
+            if (latest != null && isRecent(latest)) {
+                return latest;
+            }
+            PlatformReportResponse report = generatePlatformReport(true);
+            exactReport.set(report);
+            return report;
+        }
+        PlatformReportResponse current = snapshot.get();
+        if (current == null || refresh && !isRecent(current)) {
+            return refreshSnapshot(refresh);
+        }
+        return current;
     }
 
     /**
-     * Generate a platform-wide report with aggregated statistics
+     * Rebuild the snapshot unless another node published one recently
      */
-    public PlatformReportResponse generatePlatformReport() {
-        // Basic counts
-        long totalUsers = userRepository.count();
-        long totalTeachers = userRepository.findByRole(Role.TEACHER).size();
-        long totalStudents = userRepository.findByRole(Role.STUDENT).size();
-        long totalSessions = sessionRepository.count();
-        long activeSessions = sessionRepository.findByStatus(SessionStatus.ACTIVE).size();
-        long totalQuestions = questionRepository.count();
-        long totalResponses = responseRepository.count();
+    @Scheduled(fixedDelayString = "${reports.platform.refresh-ms:300000}")
+    public void scheduledRefresh() {
+        refreshSnapshot(false);
+    }
+
+    private PlatformReportResponse refreshSnapshot(boolean force) {
+        if (!force) {
+            PlatformReportResponse shared = readShared();
+            if (shared != null && shared.getGeneratedAt().isAfter(LocalDateTime.now().minus(refreshInterval))) {
+                snapshot.set(shared);
+                return shared;
+            }
+        }
+        PlatformReportResponse report = generatePlatformReport(false);
+        snapshot.set(report);
+        publishShared(report);
+        return report;
+    }
+
+    /**
+     * Generate a platform-wide report with aggregated statistics.
+     * Unique participants are a HyperLogLog estimate unless {@code exact} is set.
+     */
+    public PlatformReportResponse generatePlatformReport(boolean exact) {
+        // Basic counts; the large tables may use planner estimates
+        TableCount totalUsers = count("users", userRepository::count);
+        long totalTeachers = userRepository.countByRole(Role.TEACHER);
+        long totalStudents = userRepository.countByRole(Role.STUDENT);
+        TableCount totalSessions = count("sessions", sessionRepository::count);
+        long activeSessions = sessionRepository.countByStatus(SessionStatus.ACTIVE);
+        TableCount totalQuestions = count("questions", questionRepository::count);
+        TableCount totalResponses = count("responses", responseRepository::count);
+        boolean countsApproximate = totalUsers.approximate() || totalSessions.approximate()
+                || totalQuestions.approximate() || totalResponses.approximate();
+        HyperLogLog participants = exact ? null : participantSketchService.platformUnion();
+        long uniqueParticipants = exact ? responseRepository.countDistinctUsers() : participants.estimate();
 
         // Get top teachers by session count
         List<TeacherStats> topTeachers = getTopTeachers(5);
@@ -55,41 +165,34 @@ public class ReportService {
         List<SessionStats> recentSessions = getRecentSessionStats(10);
 
         return PlatformReportResponse.builder()
-                .totalUsers(totalUsers)
+                .totalUsers(totalUsers.value())
                 .totalTeachers(totalTeachers)
                 .totalStudents(totalStudents)
-                .totalSessions(totalSessions)
+                .totalSessions(totalSessions.value())
                 .activeSessions(activeSessions)
-                .totalQuestions(totalQuestions)
-                .totalResponses(totalResponses)
+                .totalQuestions(totalQuestions.value())
+                .totalResponses(totalResponses.value())
+                .countsApproximate(countsApproximate)
+                .uniqueParticipants(uniqueParticipants)
+                .uniqueParticipantsApproximate(!exact)
+                .uniqueParticipantsStandardError(exact ? null : participants.standardError())
                 .topTeachers(topTeachers)
                 .recentSessions(recentSessions)
+                .generatedAt(LocalDateTime.now())
                 .build();
     }
 
     /**
-     * Get top teachers by session count and engagement
+     * Get top teachers by session count, from the teacher_stats rollup
      */
     private List<TeacherStats> getTopTeachers(int limit) {
-        List<User> teachers = userRepository.findByRole(Role.TEACHER);
-
-        return teachers.stream()
-                .map(teacher -> {
-                    List<Session> sessions = sessionRepository.findByCreatedBy(teacher);
-                    long responseCount = sessions.stream()
-                            .flatMap(s -> questionRepository.findBySessionId(s.getId()).stream())
-                            .flatMap(q -> responseRepository.findByQuestionId(q.getId()).stream())
-                            .count();
-
-                    return TeacherStats.builder()
-                            .teacherId(teacher.getId())
-                            .teacherName(teacher.getName())
-                            .sessionCount(sessions.size())
-                            .totalResponses(responseCount)
-                            .build();
-                })
-                .sorted((a, b) -> Long.compare(b.getSessionCount(), a.getSessionCount()))
-                .limit(limit)
+        return teacherStatsRepository.findTopBySessionCount(PageRequest.of(0, limit)).stream()
+                .map(row -> TeacherStats.builder()
+                        .teacherId(row.getTeacherId())
+                        .teacherName(row.getTeacherName())
+                        .sessionCount(row.getSessionCount())
+                        .totalResponses(row.getTotalResponses())
+                        .build())
                 .collect(Collectors.toList());
     }
 
@@ -97,25 +200,53 @@ public class ReportService {
      * Get recent sessions with question and response counts
      */
     private List<SessionStats> getRecentSessionStats(int limit) {
-        List<Session> sessions = sessionRepository.findAll(
-                PageRequest.of(0, limit, Sort.by("createdAt").descending())).getContent();
-
-        return sessions.stream()
-                .map(session -> {
-                    List<Question> questions = questionRepository.findBySessionId(session.getId());
-                    int responseCount = questions.stream()
-                            .mapToInt(q -> responseRepository.findByQuestionId(q.getId()).size())
-                            .sum();
-
-                    return SessionStats.builder()
-                            .sessionId(session.getId())
-                            .sessionTitle(session.getTitle())
-                            .teacherName(session.getCreatedBy().getName())
-                            .status(session.getStatus().name())
-                            .questionCount(questions.size())
-                            .responseCount(responseCount)
-                            .build();
-                })
+        return sessionRepository.findRecentWithCounts(PageRequest.of(0, limit)).stream()
+                .map(row -> SessionStats.builder()
+                        .sessionId(row.getSessionId())
+                        .sessionTitle(row.getSessionTitle())
+                        .teacherName(row.getTeacherName())
+                        .status(row.getStatus().name())
+                        .questionCount(row.getQuestionCount().intValue())
+                        .responseCount(row.getResponseCount().intValue())
+                        .build())
                 .collect(Collectors.toList());
     }
+
+    // A planner estimate when enabled and available, else COUNT(*)
+    private TableCount count(String table, LongSupplier exactCount) {
+        if (approximateCounts) {
+            OptionalLong estimate = tableStatisticsRepository.estimateRowCount(table);
+            if (estimate.isPresent()) {
+                return new TableCount(estimate.getAsLong(), true);
+            }
+        }
+        return new TableCount(exactCount.getAsLong(), false);
+    }
+
+    private boolean isRecent(PlatformReportResponse report) {
+        return report.getGeneratedAt().isAfter(LocalDateTime.now().minus(minOnDemandInterval));
+    }
+
+    private record TableCount(long value, boolean approximate) {
+    }
+
+    // Redis is only a way to share the snapshot; failures fall back to local work
+    private PlatformReportResponse readShared() {
+        try {
+            String json = redisTemplate.opsForValue().get(SNAPSHOT_KEY);
+            return json == null ? null : jsonMapper.readValue(json, PlatformReportResponse.class);
+        } catch (DataAccessException | JacksonException e) {
+            log.warn("Could not read shared platform report: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void publishShared(PlatformReportResponse report) {
+        try {
+            redisTemplate.opsForValue().set(SNAPSHOT_KEY, jsonMapper.writeValueAsString(report),
+                    refreshInterval.multipliedBy(2));
+        } catch (DataAccessException e) {
+            log.warn("Could not publish platform report: {}", e.getMessage());
+        }
+    }
 }
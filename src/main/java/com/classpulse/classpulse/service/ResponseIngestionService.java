@@ -0,0 +1,289 @@
+package com.classpulse.classpulse.service;
+
+import com.classpulse.classpulse.dto.response.IngestReceiptResponse;
+import com.classpulse.classpulse.entity.SessionStatus;
+import com.classpulse.classpulse.exception.BadRequestException;
+import com.classpulse.classpulse.exception.ResourceNotFoundException;
+import com.classpulse.classpulse.exception.ServiceUnavailableException;
+import com.classpulse.classpulse.repository.QuestionRepository;
+import com.classpulse.classpulse.repository.ResponseRepository;
+import com.classpulse.classpulse.repository.ResponseRow;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind ingestion for responses.
+ * Requests are validated and acknowledged with a receipt, then persisted by
+ * background flushers as JDBC batches. Each question always maps to the same
+ * shard, and a shard is drained by a single thread, so per-question ordering is
+ * preserved.
+ */
+@Service
+public class ResponseIngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResponseIngestionService.class);
+
+    public static final String QUEUED = "QUEUED";
+    public static final String PERSISTED = "PERSISTED";
+    public static final String REJECTED = "REJECTED";
+    public static final String FAILED = "FAILED";
+
+    private final ResponseRepository responseRepository;
+    private final QuestionRepository questionRepository;
+    private final ActiveSessionRegistry activeSessionRegistry;
+    private final LiveTallyService liveTallyService;
+    private final TeacherStatsService teacherStatsService;
+    private final ResponseTimelineService responseTimelineService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final long maxLatencyNanos;
+    private final long offerTimeoutMillis;
+    private final long receiptTtlMillis;
+
+    private final Shard[] shards;
+    private final Map<String, Receipt> receipts = new ConcurrentHashMap<>();
+    private volatile boolean running;
+
+    public ResponseIngestionService(ResponseRepository responseRepository,
+            QuestionRepository questionRepository,
+            ActiveSessionRegistry activeSessionRegistry,
+            LiveTallyService liveTallyService,
+            TeacherStatsService teacherStatsService,
+            ResponseTimelineService responseTimelineService,
+            PlatformTransactionManager transactionManager,
+            @Value("${responses.ingest.batch-size:200}") int batchSize,
+            @Value("${responses.ingest.max-latency-ms:20}") long maxLatencyMillis,
+            @Value("${responses.ingest.queue-capacity:10000}") int queueCapacity,
+            @Value("${responses.ingest.offer-timeout-ms:50}") long offerTimeoutMillis,
+            @Value("${responses.ingest.shards:4}") int shardCount,
+            @Value("${responses.ingest.receipt-ttl-ms:300000}") long receiptTtlMillis) {
+        this.responseRepository = responseRepository;
+        this.questionRepository = questionRepository;
+        this.activeSessionRegistry = activeSessionRegistry;
+        this.liveTallyService = liveTallyService;
+        this.teacherStatsService = teacherStatsService;
+        this.responseTimelineService = responseTimelineService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatencyMillis);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.receiptTtlMillis = receiptTtlMillis;
+
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, Math.max(1, queueCapacity / shardCount));
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        for (Shard shard : shards) {
+            shard.thread.start();
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // Flushers notice within max latency and drain what is left before exiting
+        running = false;
+        for (Shard shard : shards) {
+            shard.thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Validate a response from an authenticated user and queue it for
+     * persistence. Duplicates are detected at flush time and reported through
+     * the receipt.
+     */
+    public IngestReceiptResponse enqueue(Long questionId, Long userId, String answer) {
+        if (!activeSessionRegistry.isQuestionActive(questionId)) {
+            SessionStatus status = questionRepository.findSessionStatusById(questionId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Question", questionId));
+            throw new BadRequestException(
+                    "Can only respond to questions in active sessions. Session status: " + status);
+        }
+        Receipt receipt = new Receipt(UUID.randomUUID().toString(), new ResponseRow(questionId, userId, answer));
+        receipts.put(receipt.id, receipt);
+
+        Shard shard = shards[Math.floorMod(questionId.hashCode(), shards.length)];
+        boolean accepted;
+        try {
+            accepted = shard.queue.offer(receipt, offerTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (!accepted) {
+            receipts.remove(receipt.id);
+            throw new ServiceUnavailableException("Response ingestion queue is full. Please retry shortly.");
+        }
+        return receipt.toResponse();
+    }
+
+    /**
+     * Outcome of a queued submission. Receipts of other users are reported as
+     * not found, so their outcome cannot be read by guessing an id.
+     */
+    public IngestReceiptResponse getReceipt(String receiptId, Long userId) {
+        Receipt receipt = receipts.get(receiptId);
+        if (receipt == null || !receipt.row.userId().equals(userId)) {
+            throw new ResourceNotFoundException("Receipt", "id", receiptId);
+        }
+        return receipt.toResponse();
+    }
+
+    private void runFlushLoop(Shard shard) {
+        List<Receipt> batch = new ArrayList<>(batchSize);
+        while (running || !shard.queue.isEmpty()) {
+            try {
+                collectBatch(shard.queue, batch);
+            } catch (InterruptedException e) {
+                // Interrupted: persist whatever is still queued and exit
+                shard.queue.drainTo(batch);
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+                return;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+            evictExpiredReceipts(shard);
+        }
+    }
+
+    // Wait for a first item, then linger until the batch is full or max latency
+    // has elapsed since that item arrived
+    private void collectBatch(BlockingQueue<Receipt> queue, List<Receipt> batch) throws InterruptedException {
+        Receipt first = queue.poll(maxLatencyNanos, TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + maxLatencyNanos;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            Receipt next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<Receipt> batch) {
+        List<ResponseRow> rows = batch.stream().map(r -> r.row).toList();
+        try {
+            int[] counts = transactionTemplate.execute(tx -> insert(rows));
+            for (int i = 0; i < batch.size(); i++) {
+                complete(batch.get(i), counts[i]);
+            }
+        } catch (RuntimeException batchFailure) {
+            // One bad row aborts the whole batch; retry row by row to isolate it
+            log.warn("Batch flush of {} responses failed, retrying individually: {}",
+                    batch.size(), batchFailure.getMessage());
+            for (Receipt receipt : batch) {
+                try {
+                    int[] counts = transactionTemplate.execute(tx -> insert(List.of(receipt.row)));
+                    complete(receipt, counts[0]);
+                } catch (RuntimeException e) {
+                    receipt.finish(FAILED, "Failed to persist response: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Runs inside the flush transaction: the queued teacher stats deltas commit with
+    // the rows, and the periodic teacher stats flush applies them to the totals later
+    private int[] insert(List<ResponseRow> rows) {
+        int[] counts = responseRepository.insertAllIfAbsent(rows);
+        List<Long> insertedQuestionIds = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                insertedQuestionIds.add(rows.get(i).questionId());
+            }
+        }
+        teacherStatsService.responsesAdded(insertedQuestionIds);
+        responseTimelineService.responsesAdded(insertedQuestionIds);
+        return counts;
+    }
+
+    private void complete(Receipt receipt, int updateCount) {
+        if (updateCount > 0) {
+            ResponseRow row = receipt.row;
+            liveTallyService.responseAdded(row.questionId(), row.userId(), row.answer());
+            receipt.finish(PERSISTED, null);
+        } else {
+            receipt.finish(REJECTED, "User has already responded to this question or the session is no longer active");
+        }
+    }
+
+    private void evictExpiredReceipts(Shard shard) {
+        long now = System.currentTimeMillis();
+        if (shard.index != 0 || now < shard.nextEvictionAt) {
+            return;
+        }
+        shard.nextEvictionAt = now + receiptTtlMillis / 10;
+        receipts.values().removeIf(r -> r.completedAt > 0 && now - r.completedAt > receiptTtlMillis);
+    }
+
+    private final class Shard {
+        private final int index;
+        private final BlockingQueue<Receipt> queue;
+        private final Thread thread;
+        private long nextEvictionAt;
+
+        private Shard(int index, int capacity) {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.thread = new Thread(() -> runFlushLoop(this), "response-flusher-" + index);
+            this.thread.setDaemon(true);
+        }
+    }
+
+    private static final class Receipt {
+        private final String id;
+        private final ResponseRow row;
+        private volatile String status = QUEUED;
+        private volatile String message;
+        private volatile long completedAt;
+
+        private Receipt(String id, ResponseRow row) {
+            this.id = id;
+            this.row = row;
+        }
+
+        private void finish(String status, String message) {
+            this.message = message;
+            this.status = status;
+            this.completedAt = System.currentTimeMillis();
+        }
+
+        private IngestReceiptResponse toResponse() {
+            return new IngestReceiptResponse(id, row.questionId(), row.userId(), status, message);
+        }
+    }
+}
@@ -1,21 +1,30 @@
 package com.classpulse.classpulse.service;
 
-import com.classpulse.classpulse.entity.Question;
+import com.classpulse.classpulse.dto.request.SubmitResponseRequest;
+import com.classpulse.classpulse.dto.response.BatchSubmitResponse;
+import com.classpulse.classpulse.dto.response.BatchSubmitResponse.ItemResult;
+import com.classpulse.classpulse.dto.response.ResponseResponse;
 import com.classpulse.classpulse.entity.Response;
+import com.classpulse.classpulse.entity.Session;
 import com.classpulse.classpulse.entity.SessionStatus;
 import com.classpulse.classpulse.entity.User;
 import com.classpulse.classpulse.exception.BadRequestException;
 import com.classpulse.classpulse.exception.DuplicateResourceException;
 import com.classpulse.classpulse.exception.ResourceNotFoundException;
 import com.classpulse.classpulse.repository.QuestionRepository;
+import com.classpulse.classpulse.repository.QuestionRepository.QuestionSessionStatus;
 import com.classpulse.classpulse.repository.ResponseRepository;
+import com.classpulse.classpulse.repository.ResponseRepositoryCustom.InsertedResponse;
+import com.classpulse.classpulse.repository.ResponseRepositoryCustom.InsertedRow;
+import com.classpulse.classpulse.repository.ResponseRow;
+import com.classpulse.classpulse.repository.SessionRepository;
 import com.classpulse.classpulse.repository.UserRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.util.*;
 
 @Service
 @Transactional
@@ -23,14 +32,38 @@ public class ResponseService {
 
     private final ResponseRepository responseRepository;
     private final QuestionRepository questionRepository;
+    private final SessionRepository sessionRepository;
     private final UserRepository userRepository;
+    private final ActiveSessionRegistry activeSessionRegistry;
+    private final LiveTallyService liveTallyService;
+    private final ParticipantSketchService participantSketchService;
+    private final TeacherStatsService teacherStatsService;
+    private final ResponseTimelineService responseTimelineService;
+    private final CacheEvictionService cacheEvictionService;
+    private final AnalyticsSnapshotService analyticsSnapshotService;
 
     public ResponseService(ResponseRepository responseRepository,
             QuestionRepository questionRepository,
-            UserRepository userRepository) {
+            SessionRepository sessionRepository,
+            UserRepository userRepository,
+            ActiveSessionRegistry activeSessionRegistry,
+            LiveTallyService liveTallyService,
+            ParticipantSketchService participantSketchService,
+            TeacherStatsService teacherStatsService,
+            ResponseTimelineService responseTimelineService,
+            CacheEvictionService cacheEvictionService,
+            AnalyticsSnapshotService analyticsSnapshotService) {
         this.responseRepository = responseRepository;
         this.questionRepository = questionRepository;
+        this.sessionRepository = sessionRepository;
         this.userRepository = userRepository;
+        this.activeSessionRegistry = activeSessionRegistry;
+        this.liveTallyService = liveTallyService;
+        this.participantSketchService = participantSketchService;
+        this.teacherStatsService = teacherStatsService;
+        this.responseTimelineService = responseTimelineService;
+        this.cacheEvictionService = cacheEvictionService;
+        this.analyticsSnapshotService = analyticsSnapshotService;
     }
 
     @Transactional(readOnly = true)
@@ -63,45 +96,208 @@ public class ResponseService {
         return responseRepository.findByUser(user);
     }
 
-    public Response submitResponse(Long questionId, Long userId, String answer) {
-        Question question = questionRepository.findById(questionId)
-                .orElseThrow(() -> new ResourceNotFoundException("Question", questionId));
+    /**
+     * Submit a response with a single conditional insert. The slower lookups
+     * below only run to explain why nothing was inserted.
+     */
+    public ResponseResponse submitResponse(Long questionId, Long userId, String answer) {
+        InsertedResponse inserted = responseRepository.insertIfAbsent(questionId, userId, answer)
+                .orElseThrow(() -> explainRejectedSubmit(questionId, userId));
+        teacherStatsService.responsesAdded(List.of(questionId));
+        responseTimelineService.responsesAdded(List.of(questionId));
+        liveTallyService.responseAdded(questionId, userId, answer);
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", userId));
+        ResponseResponse dto = new ResponseResponse();
+        dto.setId(inserted.id());
+        dto.setQuestionId(questionId);
+        dto.setUserId(userId);
+        dto.setUserName(inserted.userName());
+        dto.setAnswer(answer);
+        dto.setCreatedAt(inserted.createdAt());
+        return dto;
+    }
 
-        if (question.getSession().getStatus() != SessionStatus.ACTIVE) {
-            throw new BadRequestException("Can only respond to questions in active sessions. Session status: "
-                    + question.getSession().getStatus());
+    /**
+     * Submit many responses at once (quiz mode) for an authenticated user.
+     * Session status is checked with one query and all valid rows are written
+     * with a single multi-row insert. Each item gets its own result; one bad
+     * item does not fail the batch.
+     */
+    public BatchSubmitResponse submitResponses(List<SubmitResponseRequest> requests, Long userId) {
+        // Questions the registry already knows to be active need no lookup
+        Map<Long, SessionStatus> statuses = new HashMap<>();
+        Set<Long> unknownQuestionIds = new HashSet<>();
+        for (SubmitResponseRequest request : requests) {
+            if (activeSessionRegistry.isKnownActive(request.getQuestionId())) {
+                statuses.put(request.getQuestionId(), SessionStatus.ACTIVE);
+            } else {
+                unknownQuestionIds.add(request.getQuestionId());
+            }
+        }
+        if (!unknownQuestionIds.isEmpty()) {
+            for (QuestionSessionStatus status : questionRepository.findSessionStatusesByIdIn(unknownQuestionIds)) {
+                statuses.put(status.getQuestionId(), status.getSessionStatus());
+            }
         }
 
-        if (responseRepository.existsByQuestionAndUser(question, user)) {
-            throw new DuplicateResourceException("User has already responded to this question");
+        ItemResult[] results = new ItemResult[requests.size()];
+        List<ResponseRow> rows = new ArrayList<>();
+        Map<String, Integer> indexByKey = new HashMap<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            SubmitResponseRequest request = requests.get(i);
+            SessionStatus status = statuses.get(request.getQuestionId());
+            String key = request.getQuestionId() + ":" + userId;
+
+            if (status == null) {
+                results[i] = itemResult(i, request, "NOT_FOUND",
+                        "Question not found with id: " + request.getQuestionId());
+            } else if (status != SessionStatus.ACTIVE) {
+                results[i] = itemResult(i, request, "SESSION_NOT_ACTIVE",
+                        "Can only respond to questions in active sessions. Session status: " + status);
+            } else if (indexByKey.putIfAbsent(key, i) != null) {
+                results[i] = itemResult(i, request, "DUPLICATE", "Question answered more than once in this batch");
+            } else {
+                rows.add(new ResponseRow(request.getQuestionId(), userId, request.getAnswer()));
+            }
         }
 
-        Response response = new Response();
-        response.setQuestion(question);
-        response.setUser(user);
-        response.setAnswer(answer);
+        if (!rows.isEmpty()) {
+            List<InsertedRow> insertedRows = responseRepository.insertAllReturningIds(rows);
+            List<Long> insertedQuestionIds = insertedRows.stream().map(InsertedRow::questionId).toList();
+            teacherStatsService.responsesAdded(insertedQuestionIds);
+            responseTimelineService.responsesAdded(insertedQuestionIds);
+            for (InsertedRow inserted : insertedRows) {
+                int i = indexByKey.get(inserted.questionId() + ":" + inserted.userId());
+                liveTallyService.responseAdded(inserted.questionId(), inserted.userId(),
+                        requests.get(i).getAnswer());
+                results[i] = ItemResult.builder()
+                        .index(i)
+                        .questionId(inserted.questionId())
+                        .status("CREATED")
+                        .responseId(inserted.id())
+                        .build();
+            }
+        }
 
-        return responseRepository.save(response);
+        explainRejectedRows(requests, results);
+        int created = 0;
+        for (ItemResult result : results) {
+            if ("CREATED".equals(result.getStatus())) {
+                created++;
+            }
+        }
+
+        return BatchSubmitResponse.builder()
+                .created(created)
+                .rejected(results.length - created)
+                .results(Arrays.asList(results))
+                .build();
     }
 
+    /**
+     * Label the rows the insert skipped, like {@link #explainRejectedSubmit}: the
+     * session may have ended or the question been deleted since the status
+     * check (or the registry was behind another node), so the status is read
+     * again before a row is called a duplicate.
+     */
+    private void explainRejectedRows(List<SubmitResponseRequest> requests, ItemResult[] results) {
+        Set<Long> rejectedQuestionIds = new HashSet<>();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                rejectedQuestionIds.add(requests.get(i).getQuestionId());
+            }
+        }
+        if (rejectedQuestionIds.isEmpty()) {
+            return;
+        }
+        Map<Long, SessionStatus> statuses = new HashMap<>();
+        for (QuestionSessionStatus status : questionRepository.findSessionStatusesByIdIn(rejectedQuestionIds)) {
+            statuses.put(status.getQuestionId(), status.getSessionStatus());
+        }
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            SubmitResponseRequest request = requests.get(i);
+            SessionStatus status = statuses.get(request.getQuestionId());
+            if (status == null) {
+                results[i] = itemResult(i, request, "NOT_FOUND",
+                        "Question not found with id: " + request.getQuestionId());
+            } else if (status != SessionStatus.ACTIVE) {
+                results[i] = itemResult(i, request, "SESSION_NOT_ACTIVE",
+                        "Can only respond to questions in active sessions. Session status: " + status);
+            } else {
+                results[i] = itemResult(i, request, "DUPLICATE", "User has already responded to this question");
+            }
+        }
+    }
+
+    private ItemResult itemResult(int index, SubmitResponseRequest request, String status, String message) {
+        return ItemResult.builder()
+                .index(index)
+                .questionId(request.getQuestionId())
+                .status(status)
+                .message(message)
+                .build();
+    }
+
+    private RuntimeException explainRejectedSubmit(Long questionId, Long userId) {
+        SessionStatus status = questionRepository.findSessionStatusById(questionId).orElse(null);
+        if (status == null) {
+            return new ResourceNotFoundException("Question", questionId);
+        }
+        if (status != SessionStatus.ACTIVE) {
+            return new BadRequestException(
+                    "Can only respond to questions in active sessions. Session status: " + status);
+        }
+        if (!userRepository.existsById(userId)) {
+            return new ResourceNotFoundException("User", userId);
+        }
+        return new DuplicateResourceException("User has already responded to this question");
+    }
+
+    /**
+     * Change an answer while its session is ACTIVE. The status is checked by
+     * the UPDATE itself: the registry may still list a session another node has
+     * just ended.
+     */
     public Response updateResponse(Long id, String answer) {
-        Response response = getResponseById(id);
+        Response existing = getResponseById(id);
+        Long questionId = existing.getQuestion().getId();
+        Long sessionId = existing.getQuestion().getSession().getId();
+        String oldAnswer = existing.getAnswer();
 
-        if (response.getQuestion().getSession().getStatus() != SessionStatus.ACTIVE) {
+        if (responseRepository.updateAnswerIfSessionActive(id, answer) == 0) {
             throw new BadRequestException("Can only update responses in active sessions");
         }
+        liveTallyService.responseChanged(questionId, oldAnswer, answer);
 
-        response.setAnswer(answer);
-        return responseRepository.save(response);
+        // Under the share lock the status cannot change before this commits. If
+        // the session ended between the UPDATE and the lock, its cached and
+        // frozen analytics may predate this change.
+        Session session = sessionRepository.findByIdForShare(sessionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Session", sessionId));
+        if (session.getStatus() != SessionStatus.ACTIVE) {
+            cacheEvictionService.sessionContentChanged(session);
+            analyticsSnapshotService.analyticsChanged(sessionId);
+        }
+        // The update cleared the persistence context; reload for the caller
+        return getResponseById(id);
     }
 
     public void deleteResponse(Long id) {
-        if (!responseRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Response", id);
+        Response response = getResponseById(id);
+        responseRepository.delete(response);
+        teacherStatsService.responseRemoved(response.getQuestion().getId(), response.getCreatedAt());
+        liveTallyService.responseRemoved(response.getQuestion().getId(), response.getUser().getId(),
+                response.getAnswer());
+        Session session = response.getQuestion().getSession();
+        cacheEvictionService.sessionContentChanged(session);
+        if (session.getStatus() == SessionStatus.ENDED) {
+            participantSketchService.participantsChanged(session.getId());
+            responseTimelineService.responsesChanged(session.getId());
+            analyticsSnapshotService.analyticsChanged(session.getId());
         }
-        responseRepository.deleteById(id);
     }
 }
@@ -0,0 +1,166 @@
+package com.classpulse.classpulse.service;
+
+import com.classpulse.classpulse.analytics.ResponseTimeline;
+import com.classpulse.classpulse.analytics.TimeSeries;
+import com.classpulse.classpulse.dto.response.SessionTimelineResponse;
+import com.classpulse.classpulse.entity.Session;
+import com.classpulse.classpulse.entity.SessionStatus;
+import com.classpulse.classpulse.entity.SessionTimeline;
+import com.classpulse.classpulse.exception.ResourceNotFoundException;
+import com.classpulse.classpulse.repository.ResponseRepository;
+import com.classpulse.classpulse.repository.ResponseRepositoryCustom.MinuteCount;
+import com.classpulse.classpulse.repository.SessionRepository;
+import com.classpulse.classpulse.repository.SessionTimelineRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Response rate timelines. While a session is ACTIVE every node counts the
+ * submissions it accepts in a fixed-size, lock-free {@link ResponseTimeline}.
+ * When the session ends its per-minute series is rebuilt from
+ * responses.created_at, so it covers all nodes and restarts, and stored in
+ * compact form. Ended sessions are served from the stored series.
+ * <p>
+ * Live series are not merged across nodes: with several nodes each one
+ * reports only the submissions it accepted, and the response says so with
+ * {@code nodeLocal}. Exact totals for a live session come from the session
+ * analytics; the timeline becomes complete once the session ends.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ResponseTimelineService {
+
+    // Longest stored series (one week of minutes); older minutes are dropped
+    private static final int MAX_STORED_MINUTES = 7 * 24 * 60;
+
+    private final SessionRepository sessionRepository;
+    private final ResponseRepository responseRepository;
+    private final SessionTimelineRepository timelineRepository;
+    private final ActiveSessionRegistry activeSessionRegistry;
+
+    private final Map<Long, ResponseTimeline> timelines = new ConcurrentHashMap<>();
+
+    public ResponseTimelineService(SessionRepository sessionRepository,
+            ResponseRepository responseRepository,
+            SessionTimelineRepository timelineRepository,
+            ActiveSessionRegistry activeSessionRegistry) {
+        this.sessionRepository = sessionRepository;
+        this.responseRepository = responseRepository;
+        this.timelineRepository = timelineRepository;
+        this.activeSessionRegistry = activeSessionRegistry;
+    }
+
+    public SessionTimelineResponse getSessionTimeline(Long sessionId) {
+        Session session = sessionRepository.findById(sessionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Session", sessionId));
+
+        SessionTimelineResponse.SessionTimelineResponseBuilder response = SessionTimelineResponse.builder()
+                .sessionId(sessionId)
+                .status(session.getStatus().name());
+        if (session.getStatus() == SessionStatus.ACTIVE) {
+            long now = Instant.now().getEpochSecond();
+            ResponseTimeline timeline = timelines.computeIfAbsent(sessionId, id -> new ResponseTimeline(now));
+            return response.live(true)
+                    .nodeLocal(true)
+                    .perSecond(toSeries(timeline.perSecond(now)))
+                    .perMinute(toSeries(timeline.perMinute(now)))
+                    .build();
+        }
+        TimeSeries minutes = timelineRepository.findById(sessionId)
+                .map(stored -> TimeSeries.fromBytes(stored.getSeries()))
+                .orElseGet(() -> minutesFromResponses(sessionId));
+        return response.live(false)
+                .nodeLocal(false)
+                .perMinute(toSeries(minutes))
+                .build();
+    }
+
+    /**
+     * Count accepted submissions. The session lookup is served from the
+     * registry; counting happens after commit.
+     */
+    public void responsesAdded(List<Long> questionIds) {
+        if (questionIds.isEmpty()) {
+            return;
+        }
+        long now = Instant.now().getEpochSecond();
+        Map<Long, Integer> countBySession = new HashMap<>();
+        for (Long questionId : questionIds) {
+            activeSessionRegistry.findActiveSessionIdOfQuestion(questionId)
+                    .ifPresent(sessionId -> countBySession.merge(sessionId, 1, Integer::sum));
+        }
+        TransactionHooks.afterCommit(() -> countBySession.forEach((sessionId, count) ->
+                timelines.computeIfAbsent(sessionId, id -> new ResponseTimeline(now)).record(now, count)));
+    }
+
+    /**
+     * Store the per-minute series once no more answers can arrive
+     */
+    @Transactional
+    public void sessionEnded(Long sessionId) {
+        store(sessionId);
+        TransactionHooks.afterCommit(() -> timelines.remove(sessionId));
+    }
+
+    /**
+     * A response of an ended session was removed; store the series again
+     */
+    @Transactional
+    public void responsesChanged(Long sessionId) {
+        store(sessionId);
+    }
+
+    @Transactional
+    public void sessionDeleted(Long sessionId) {
+        timelineRepository.deleteBySessionId(sessionId);
+        TransactionHooks.afterCommit(() -> timelines.remove(sessionId));
+    }
+
+    /**
+     * Drop live timelines of sessions that were ended or deleted on another node
+     */
+    @Scheduled(fixedDelayString = "${analytics.timeline.evict-ms:60000}")
+    public void evictInactive() {
+        timelines.keySet().removeIf(sessionId -> activeSessionRegistry.findActiveSession(sessionId).isEmpty());
+    }
+
+    private void store(Long sessionId) {
+        timelineRepository.save(new SessionTimeline(sessionId, minutesFromResponses(sessionId).toBytes()));
+    }
+
+    private TimeSeries minutesFromResponses(Long sessionId) {
+        List<MinuteCount> minutes = responseRepository.countPerMinuteBySessionId(sessionId);
+        if (minutes.isEmpty()) {
+            return new TimeSeries(0, 60, new long[0]);
+        }
+        long last = minutes.get(minutes.size() - 1).minute();
+        long first = Math.max(minutes.get(0).minute(), last - (MAX_STORED_MINUTES - 1) * 60L);
+        long[] counts = new long[(int) ((last - first) / 60 + 1)];
+        for (MinuteCount minute : minutes) {
+            if (minute.minute() >= first) {
+                counts[(int) ((minute.minute() - first) / 60)] = minute.responseCount();
+            }
+        }
+        return new TimeSeries(first, 60, counts);
+    }
+
+    private static SessionTimelineResponse.Series toSeries(TimeSeries series) {
+        LocalDateTime start = series.counts().length == 0 ? null
+                : LocalDateTime.ofInstant(Instant.ofEpochSecond(series.start()), ZoneId.systemDefault());
+        return SessionTimelineResponse.Series.builder()
+                .start(start)
+                .bucketSeconds(series.bucketSeconds())
+                .total(series.total())
+                .counts(series.counts())
+                .build();
+    }
+}
@@ -1,12 +1,16 @@
 package com.classpulse.classpulse.service;
 
+import com.classpulse.classpulse.coalescing.Coalesced;
+import com.classpulse.classpulse.dto.response.SessionResponse;
 import com.classpulse.classpulse.entity.Session;
 import com.classpulse.classpulse.entity.SessionStatus;
 import com.classpulse.classpulse.entity.User;
 import com.classpulse.classpulse.exception.BadRequestException;
 import com.classpulse.classpulse.exception.ResourceNotFoundException;
+import com.classpulse.classpulse.repository.QuestionRepository;
 import com.classpulse.classpulse.repository.SessionRepository;
 import com.classpulse.classpulse.repository.UserRepository;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -21,10 +25,33 @@ public class SessionService {
 
     private final SessionRepository sessionRepository;
     private final UserRepository userRepository;
-
-    public SessionService(SessionRepository sessionRepository, UserRepository userRepository) {
+    private final QuestionRepository questionRepository;
+    private final ActiveSessionRegistry activeSessionRegistry;
+    private final LiveTallyService liveTallyService;
+    private final QuestionStreamService questionStreamService;
+    private final ParticipantSketchService participantSketchService;
+    private final TeacherStatsService teacherStatsService;
+    private final ResponseTimelineService responseTimelineService;
+    private final CacheEvictionService cacheEvictionService;
+    private final AnalyticsSnapshotService analyticsSnapshotService;
+
+    public SessionService(SessionRepository sessionRepository, UserRepository userRepository,
+            QuestionRepository questionRepository, ActiveSessionRegistry activeSessionRegistry,
+            LiveTallyService liveTallyService, QuestionStreamService questionStreamService,
+            ParticipantSketchService participantSketchService, TeacherStatsService teacherStatsService,
+            ResponseTimelineService responseTimelineService, CacheEvictionService cacheEvictionService,
+            AnalyticsSnapshotService analyticsSnapshotService) {
         this.sessionRepository = sessionRepository;
         this.userRepository = userRepository;
+        this.questionRepository = questionRepository;
+        this.activeSessionRegistry = activeSessionRegistry;
+        this.liveTallyService = liveTallyService;
+        this.questionStreamService = questionStreamService;
+        this.participantSketchService = participantSketchService;
+        this.teacherStatsService = teacherStatsService;
+        this.responseTimelineService = responseTimelineService;
+        this.cacheEvictionService = cacheEvictionService;
+        this.analyticsSnapshotService = analyticsSnapshotService;
     }
 
     // Paginated version
@@ -45,9 +72,13 @@ public class SessionService {
                 .orElseThrow(() -> new ResourceNotFoundException("Session", id));
     }
 
+    // Public join lookup, cached by code
+    @Coalesced
+    @Cacheable(cacheNames = "sessions", key = "#code")
     @Transactional(readOnly = true)
-    public Session getSessionByCode(String code) {
+    public SessionResponse getSessionByCode(String code) {
         return sessionRepository.findByCode(code)
+                .map(SessionResponse::fromEntity)
                 .orElseThrow(() -> new ResourceNotFoundException("Session", "code", code));
     }
 
@@ -80,7 +111,10 @@ public class SessionService {
         session.setStatus(SessionStatus.CREATED);
         session.setCreatedBy(teacher);
 
-        return sessionRepository.save(session);
+        Session saved = sessionRepository.save(session);
+        teacherStatsService.sessionCreated(teacherId);
+        cacheEvictionService.sessionChanged(saved);
+        return saved;
     }
 
     public Session startSession(Long id) {
@@ -90,7 +124,12 @@ public class SessionService {
                     "Session can only be started from CREATED status. Current status: " + session.getStatus());
         }
         session.setStatus(SessionStatus.ACTIVE);
-        return sessionRepository.save(session);
+        Session saved = sessionRepository.save(session);
+        teacherStatsService.sessionStatusChanged(saved.getCreatedBy().getId(), SessionStatus.CREATED,
+                SessionStatus.ACTIVE);
+        activeSessionRegistry.sessionStarted(saved, questionRepository.findBySessionId(id));
+        cacheEvictionService.sessionChanged(saved);
+        return saved;
     }
 
     public Session endSession(Long id) {
@@ -100,14 +139,32 @@ public class SessionService {
                     "Session can only be ended from ACTIVE status. Current status: " + session.getStatus());
         }
         session.setStatus(SessionStatus.ENDED);
-        return sessionRepository.save(session);
+        Session saved = sessionRepository.save(session);
+        participantSketchService.sessionEnded(id);
+        responseTimelineService.sessionEnded(id);
+        teacherStatsService.sessionStatusChanged(saved.getCreatedBy().getId(), SessionStatus.ACTIVE,
+                SessionStatus.ENDED);
+        activeSessionRegistry.sessionStopped(id);
+        liveTallyService.sessionClosed(id);
+        questionStreamService.sessionClosed(id);
+        cacheEvictionService.sessionChanged(saved);
+        // Computed in the background once the final state is visible
+        TransactionHooks.afterCommit(() -> analyticsSnapshotService.sessionEnded(id));
+        return saved;
     }
 
     public void deleteSession(Long id) {
-        if (!sessionRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Session", id);
-        }
-        sessionRepository.deleteById(id);
+        Session session = getSessionById(id);
+        sessionRepository.delete(session);
+        teacherStatsService.sessionDeleted(session.getCreatedBy().getId(), session.getStatus(),
+                session.getCreatedAt());
+        participantSketchService.participantsChanged(id);
+        responseTimelineService.sessionDeleted(id);
+        analyticsSnapshotService.sessionDeleted(id);
+        activeSessionRegistry.sessionStopped(id);
+        liveTallyService.sessionClosed(id);
+        questionStreamService.sessionClosed(id);
+        cacheEvictionService.sessionChanged(session);
     }
 
     private String generateUniqueCode() {
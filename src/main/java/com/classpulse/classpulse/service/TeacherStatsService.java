@@ -0,0 +1,140 @@
+package com.classpulse.classpulse.service;
+
+import com.classpulse.classpulse.entity.SessionStatus;
+import com.classpulse.classpulse.repository.TeacherStatsRepository;
+import com.classpulse.classpulse.repository.TeacherStatsRepositoryCustom.TeacherStatsDelta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Maintains the teacher_stats read model behind the teacher dashboard.
+ * Session and question writes apply their delta in the same transaction, so
+ * the totals commit or roll back together with the change. Responses are too
+ * frequent for that: all students of a class would queue on their teacher's
+ * row until each submit commits. Their transaction only appends a delta row
+ * per question to teacher_response_deltas, and a flush applies the queued
+ * deltas of all teachers in one statement per interval, so the response
+ * totals lag by up to that interval.
+ * <p>
+ * Since the queued deltas commit with the responses, the stored totals plus
+ * the queue always match the source tables, on every node and across
+ * restarts. A scheduled reconciliation recomputes the totals on that basis
+ * and repairs any row that drifted (or was never created, e.g. for history
+ * that predates the table). It also recounts the daily buckets of sessions
+ * and responses from their creation times, so deleting either takes it out of
+ * the day it was created on.
+ */
+@Service
+@Transactional
+public class TeacherStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(TeacherStatsService.class);
+
+    private final TeacherStatsRepository teacherStatsRepository;
+    private final ParticipantSketchService participantSketchService;
+    private final CacheEvictionService cacheEvictionService;
+
+    public TeacherStatsService(TeacherStatsRepository teacherStatsRepository,
+            ParticipantSketchService participantSketchService,
+            CacheEvictionService cacheEvictionService) {
+        this.teacherStatsRepository = teacherStatsRepository;
+        this.participantSketchService = participantSketchService;
+        this.cacheEvictionService = cacheEvictionService;
+    }
+
+    public void sessionCreated(Long teacherId) {
+        teacherStatsRepository.applyDelta(teacherId, new TeacherStatsDelta(1, 0, 0, 0, 1, 0, null));
+    }
+
+    public void sessionStatusChanged(Long teacherId, SessionStatus from, SessionStatus to) {
+        teacherStatsRepository.applyDelta(teacherId, new TeacherStatsDelta(
+                statusDelta(SessionStatus.CREATED, from, to),
+                statusDelta(SessionStatus.ACTIVE, from, to),
+                statusDelta(SessionStatus.ENDED, from, to), 0, 0, 0, null));
+        if (to == SessionStatus.ENDED) {
+            refreshUniqueStudents(teacherId);
+        }
+    }
+
+    /**
+     * @param createdAt the session's creation time; it is taken out of that day's bucket
+     */
+    public void sessionDeleted(Long teacherId, SessionStatus status, LocalDateTime createdAt) {
+        teacherStatsRepository.applyDelta(teacherId, new TeacherStatsDelta(
+                status == SessionStatus.CREATED ? -1 : 0,
+                status == SessionStatus.ACTIVE ? -1 : 0,
+                status == SessionStatus.ENDED ? -1 : 0, 0,
+                createdAt != null ? -1 : 0, 0, createdAt != null ? createdAt.toLocalDate() : null));
+    }
+
+    public void questionCreated(Long teacherId) {
+        teacherStatsRepository.applyDelta(teacherId, new TeacherStatsDelta(0, 0, 0, 1, 0, 1, null));
+    }
+
+    public void questionDeleted(Long teacherId) {
+        teacherStatsRepository.applyDelta(teacherId, new TeacherStatsDelta(0, 0, 0, -1, 0, 0, null));
+    }
+
+    /**
+     * One response was stored per entry; ids may repeat
+     */
+    public void responsesAdded(Collection<Long> questionIds) {
+        teacherStatsRepository.queueResponsesAdded(questionIds);
+    }
+
+    /**
+     * @param createdAt the response's creation time; it is taken out of that day's bucket
+     */
+    public void responseRemoved(Long questionId, LocalDateTime createdAt) {
+        teacherStatsRepository.queueResponseRemoved(questionId, createdAt != null ? createdAt.toLocalDate() : null);
+    }
+
+    /**
+     * Apply the queued response deltas and evict the dashboards of the
+     * teachers they changed. The single statement commits on its own; if it
+     * fails, the deltas stay queued for the next flush.
+     */
+    @Scheduled(fixedDelayString = "${analytics.teacher-stats.flush-ms:1000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void flushResponseDeltas() {
+        try {
+            cacheEvictionService.teachersChanged(teacherStatsRepository.applyResponseDeltas());
+        } catch (RuntimeException e) {
+            log.warn("Failed to apply queued response deltas, retrying: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${analytics.teacher-stats.reconcile-initial-delay-ms:10000}",
+            fixedDelayString = "${analytics.teacher-stats.reconcile-ms:3600000}")
+    public void reconcile() {
+        List<Long> repaired = teacherStatsRepository.reconcile();
+        repaired.forEach(this::refreshUniqueStudents);
+        cacheEvictionService.teachersChanged(repaired);
+        if (!repaired.isEmpty()) {
+            log.warn("Teacher stats reconciliation repaired {} row(s): {}", repaired.size(), repaired);
+        }
+        List<Long> repairedDays = teacherStatsRepository.reconcileDaily();
+        if (!repairedDays.isEmpty()) {
+            log.warn("Teacher stats reconciliation repaired {} daily bucket(s) of teachers {}", repairedDays.size(),
+                    new TreeSet<>(repairedDays));
+        }
+    }
+
+    private void refreshUniqueStudents(Long teacherId) {
+        teacherStatsRepository.updateUniqueStudents(teacherId,
+                participantSketchService.teacherUnion(teacherId).estimate());
+    }
+
+    private static int statusDelta(SessionStatus status, SessionStatus from, SessionStatus to) {
+        return (to == status ? 1 : 0) - (from == status ? 1 : 0);
+    }
+}
@@ -0,0 +1,188 @@
+package com.classpulse.classpulse.service;
+
+import com.classpulse.classpulse.dto.request.CreateUserRequest;
+import com.classpulse.classpulse.entity.Role;
+import com.classpulse.classpulse.exception.BadRequestException;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads the users of an import file one row at a time, so a file of any size
+ * is read in constant memory. CSV starts with a header naming the columns
+ * name, email, password and role in any order; quoted fields may contain
+ * commas and doubled quotes but not line breaks. NDJSON holds one JSON object
+ * per line with the same fields. Blank lines are skipped.
+ */
+final class UserImportReader implements Closeable {
+
+    enum Format {
+        CSV, NDJSON;
+
+        static Format of(String fileName, String contentType) {
+            String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+            if (name.endsWith(".csv") || "text/csv".equals(contentType)) {
+                return CSV;
+            }
+            if (name.endsWith(".ndjson") || name.endsWith(".jsonl") || "application/x-ndjson".equals(contentType)) {
+                return NDJSON;
+            }
+            throw new BadRequestException("Unsupported import file. Use CSV (.csv) or NDJSON (.ndjson, .jsonl)");
+        }
+    }
+
+    private static final List<String> COLUMNS = List.of("name", "email", "password", "role");
+
+    /**
+     * A data row: the user it describes, or why it could not be read
+     */
+    record Row(int line, CreateUserRequest user, String error) {
+    }
+
+    private final BufferedReader in;
+    private final Format format;
+    private final JsonMapper jsonMapper;
+    private final Map<String, Integer> columnIndex = new HashMap<>();
+    private int line;
+
+    /**
+     * @throws BadRequestException if a CSV header is missing a column
+     */
+    UserImportReader(BufferedReader in, Format format, JsonMapper jsonMapper) throws IOException {
+        this.in = in;
+        this.format = format;
+        this.jsonMapper = jsonMapper;
+        if (format == Format.CSV) {
+            readHeader();
+        }
+    }
+
+    /**
+     * Next data row, or null at the end of the file
+     */
+    Row next() throws IOException {
+        String text;
+        do {
+            text = in.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+        } while (text.isBlank());
+        return format == Format.CSV ? parseCsvRow(text) : parseJsonRow(text);
+    }
+
+    /**
+     * Lines read so far, including the header and blank lines
+     */
+    int line() {
+        return line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void readHeader() throws IOException {
+        String header = in.readLine();
+        line++;
+        if (header == null) {
+            throw new BadRequestException("Import file is empty");
+        }
+        // Tolerate the byte order mark spreadsheet exports start with
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+        List<String> names = splitCsv(header);
+        if (names == null) {
+            throw new BadRequestException("CSV header has an unterminated quoted field");
+        }
+        for (int i = 0; i < names.size(); i++) {
+            columnIndex.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = COLUMNS.stream().filter(c -> !columnIndex.containsKey(c)).toList();
+        if (!missing.isEmpty()) {
+            throw new BadRequestException("CSV header is missing columns: " + String.join(", ", missing));
+        }
+    }
+
+    private Row parseCsvRow(String text) {
+        List<String> fields = splitCsv(text);
+        if (fields == null) {
+            return new Row(line, null, "Unterminated quoted field");
+        }
+        CreateUserRequest user = new CreateUserRequest();
+        user.setName(field(fields, "name", true));
+        user.setEmail(field(fields, "email", true));
+        user.setPassword(field(fields, "password", false));
+        String role = field(fields, "role", true);
+        if (role != null) {
+            try {
+                user.setRole(Role.valueOf(role.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                return new Row(line, user, "Invalid role: " + role);
+            }
+        }
+        return new Row(line, user, null);
+    }
+
+    private Row parseJsonRow(String text) {
+        try {
+            return new Row(line, jsonMapper.readValue(text, CreateUserRequest.class), null);
+        } catch (JacksonException e) {
+            return new Row(line, null, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    // Blank and absent fields read as null, so validation reports them as
+    // missing. Passwords are not trimmed: spaces may be part of them.
+    private String field(List<String> fields, String column, boolean trim) {
+        int index = columnIndex.get(column);
+        if (index >= fields.size()) {
+            return null;
+        }
+        String value = trim ? fields.get(index).trim() : fields.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    // RFC 4180 fields of a single line; null if a quoted field is not closed
+    static List<String> splitCsv(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,358 @@
+package com.classpulse.classpulse.service;
+
+import com.classpulse.classpulse.dto.request.CreateUserRequest;
+import com.classpulse.classpulse.dto.response.UserImportJobResponse;
+import com.classpulse.classpulse.dto.response.UserImportJobResponse.RowError;
+import com.classpulse.classpulse.entity.User;
+import com.classpulse.classpulse.exception.BadRequestException;
+import com.classpulse.classpulse.exception.ResourceNotFoundException;
+import com.classpulse.classpulse.exception.ServiceUnavailableException;
+import com.classpulse.classpulse.repository.UserRepository;
+import com.classpulse.classpulse.service.UserImportReader.Format;
+import com.classpulse.classpulse.service.UserImportReader.Row;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of users from a CSV or NDJSON file. The upload is spooled to a
+ * temporary file and imported in the background, one job at a time, while
+ * clients poll the job for progress and rejected rows. Rows are streamed in
+ * batches: each batch checks its emails with one query, hashes the new
+ * passwords in parallel and is inserted with batched statements.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final JsonMapper jsonMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final int maxErrors;
+    private final long jobTtlMillis;
+
+    // Imports run one at a time; hashing within a batch uses all hashing threads
+    private final ThreadPoolExecutor jobExecutor;
+    private final ThreadPoolExecutor hashingExecutor;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public UserImportService(UserRepository userRepository,
+            PasswordEncoder passwordEncoder,
+            Validator validator,
+            JsonMapper jsonMapper,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${users.import.batch-size:500}") int batchSize,
+            @Value("${users.import.hashing-threads:0}") int hashingThreads,
+            @Value("${users.import.hashing-cpu-share:0.5}") double hashingCpuShare,
+            @Value("${users.import.max-queued-jobs:10}") int maxQueuedJobs,
+            @Value("${users.import.max-errors:1000}") int maxErrors,
+            @Value("${users.import.job-ttl-ms:3600000}") long jobTtlMillis) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.jsonMapper = jsonMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+        this.jobTtlMillis = jobTtlMillis;
+        this.jobExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueuedJobs), task -> new Thread(task, "user-import"));
+        // Leave the other cores to logins and requests. When the queue is full the
+        // import thread hashes the next password itself, which paces the batch.
+        int threads = hashingThreads > 0 ? hashingThreads
+                : Math.max(1, (int) (Runtime.getRuntime().availableProcessors() * hashingCpuShare));
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.hashingExecutor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 2),
+                task -> {
+                    Thread thread = new Thread(task, "user-import-hashing-" + threadIndex.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        new ExecutorServiceMetrics(hashingExecutor, "user-import-hashing", List.of()).bindTo(meterRegistry);
+    }
+
+    /**
+     * Accept an import file and queue it. The file type and CSV header are
+     * checked here; everything else is reported per row through the job.
+     */
+    public UserImportJobResponse start(MultipartFile file) {
+        if (file.isEmpty()) {
+            throw new BadRequestException("File is empty");
+        }
+        Format format = Format.of(file.getOriginalFilename(), file.getContentType());
+
+        Path path;
+        UserImportReader reader;
+        try {
+            path = Files.createTempFile("user-import-", "." + format.name().toLowerCase());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store import file", e);
+        }
+        try {
+            file.transferTo(path);
+            reader = new UserImportReader(Files.newBufferedReader(path, StandardCharsets.UTF_8), format, jsonMapper);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(path);
+            if (e instanceof BadRequestException badRequest) {
+                throw badRequest;
+            }
+            throw new RuntimeException("Failed to store import file", e);
+        }
+
+        evictExpiredJobs();
+        Job job = new Job(UUID.randomUUID().toString(), file.getOriginalFilename());
+        jobs.put(job.id, job);
+        try {
+            jobExecutor.execute(() -> run(job, reader, path));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            closeQuietly(reader);
+            deleteQuietly(path);
+            throw new ServiceUnavailableException("Too many user imports queued. Please retry later.");
+        }
+        return job.toResponse();
+    }
+
+    public UserImportJobResponse getJob(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import job", "id", jobId);
+        }
+        return job.toResponse();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobExecutor.shutdownNow();
+        hashingExecutor.shutdownNow();
+    }
+
+    private void run(Job job, UserImportReader reader, Path path) {
+        job.status = RUNNING;
+        job.startedAt = LocalDateTime.now();
+        // Emails seen earlier in this file; a repeat is rejected like an existing user
+        Set<String> seenEmails = new HashSet<>();
+        try (reader) {
+            List<Row> batch = new ArrayList<>(batchSize);
+            Row row;
+            while ((row = reader.next()) != null) {
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    importBatch(job, batch, seenEmails);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                importBatch(job, batch, seenEmails);
+            }
+            job.finish(COMPLETED, null);
+        } catch (Exception e) {
+            log.warn("User import {} stopped at line {}: {}", job.id, reader.line(), e.getMessage());
+            job.finish(FAILED, "Import stopped at line " + reader.line() + ": " + e.getMessage());
+        } finally {
+            deleteQuietly(path);
+        }
+    }
+
+    private void importBatch(Job job, List<Row> batch, Set<String> seenEmails) {
+        List<Row> valid = new ArrayList<>(batch.size());
+        for (Row row : batch) {
+            String error = row.error() != null ? row.error() : validate(row.user());
+            if (error != null) {
+                job.reject(row, error);
+            } else if (!seenEmails.add(row.user().getEmail())) {
+                job.reject(row, "Email appears more than once in the file");
+            } else {
+                valid.add(row);
+            }
+        }
+
+        Set<String> existing = valid.isEmpty() ? Set.of()
+                : userRepository.findExistingEmails(valid.stream().map(r -> r.user().getEmail()).toList());
+        List<Row> accepted = new ArrayList<>(valid.size());
+        for (Row row : valid) {
+            if (existing.contains(row.user().getEmail())) {
+                job.reject(row, "User already exists with email: " + row.user().getEmail());
+            } else {
+                accepted.add(row);
+            }
+        }
+
+        // BCrypt dominates the import; spread the batch over the hashing threads
+        List<CompletableFuture<User>> hashed = accepted.stream()
+                .map(row -> CompletableFuture.supplyAsync(() -> toUser(row.user()), hashingExecutor))
+                .toList();
+        List<User> users = hashed.stream().map(CompletableFuture::join).toList();
+        insert(job, accepted, users);
+        job.processed += batch.size();
+    }
+
+    private void insert(Job job, List<Row> rows, List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(tx -> userRepository.saveAll(users));
+            job.created += users.size();
+        } catch (RuntimeException batchFailure) {
+            // A concurrent registration can take an email after the check; one
+            // conflict aborts the batch, so retry row by row to isolate it
+            log.warn("Batch insert of {} imported users failed, retrying individually: {}",
+                    users.size(), batchFailure.getMessage());
+            for (int i = 0; i < users.size(); i++) {
+                User user = users.get(i);
+                // Assigned by the failed attempt; a set id would make save() merge
+                user.setId(null);
+                try {
+                    transactionTemplate.executeWithoutResult(tx -> userRepository.save(user));
+                    job.created++;
+                } catch (DataIntegrityViolationException e) {
+                    job.reject(rows.get(i), "User already exists with email: " + user.getEmail());
+                } catch (RuntimeException e) {
+                    job.reject(rows.get(i), "Failed to create user: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private String validate(CreateUserRequest user) {
+        Set<ConstraintViolation<CreateUserRequest>> violations = validator.validate(user);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private User toUser(CreateUserRequest request) {
+        User user = new User();
+        user.setName(request.getName());
+        user.setEmail(request.getEmail());
+        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setRole(request.getRole());
+        return user;
+    }
+
+    private void evictExpiredJobs() {
+        long now = System.currentTimeMillis();
+        jobs.values().removeIf(job -> job.completedAtMillis > 0 && now - job.completedAtMillis > jobTtlMillis);
+    }
+
+    private static void closeQuietly(UserImportReader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            log.warn("Failed to close import file: {}", e.getMessage());
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete import file {}: {}", path, e.getMessage());
+        }
+    }
+
+    // Written by the import thread only, read by status requests
+    private final class Job {
+        private final String id;
+        private final String fileName;
+        private final List<RowError> errors = Collections.synchronizedList(new ArrayList<>());
+        private volatile String status = QUEUED;
+        private volatile String message;
+        private volatile int processed;
+        private volatile int created;
+        private volatile int rejected;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime completedAt;
+        private volatile long completedAtMillis;
+
+        private Job(String id, String fileName) {
+            this.id = id;
+            this.fileName = fileName;
+        }
+
+        private void reject(Row row, String error) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                String email = row.user() == null ? null : row.user().getEmail();
+                errors.add(new RowError(row.line(), email, error));
+            }
+        }
+
+        private void finish(String status, String message) {
+            this.message = message;
+            this.completedAt = LocalDateTime.now();
+            this.completedAtMillis = System.currentTimeMillis();
+            this.status = status;
+        }
+
+        private UserImportJobResponse toResponse() {
+            List<RowError> errorsCopy;
+            synchronized (errors) {
+                errorsCopy = List.copyOf(errors);
+            }
+            return UserImportJobResponse.builder()
+                    .jobId(id)
+                    .fileName(fileName)
+                    .status(status)
+                    .message(message)
+                    .processed(processed)
+                    .created(created)
+                    .rejected(rejected)
+                    .errors(errorsCopy)
+                    .startedAt(startedAt)
+                    .completedAt(completedAt)
+                    .build();
+        }
+    }
+}
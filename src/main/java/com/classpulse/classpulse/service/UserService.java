@@ -1,10 +1,12 @@
 package com.classpulse.classpulse.service;
 
+import com.classpulse.classpulse.dto.response.UserResponse;
 import com.classpulse.classpulse.entity.Role;
 import com.classpulse.classpulse.entity.User;
 import com.classpulse.classpulse.exception.DuplicateResourceException;
 import com.classpulse.classpulse.exception.ResourceNotFoundException;
 import com.classpulse.classpulse.repository.UserRepository;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,9 +17,11 @@ import java.util.List;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final CacheEvictionService cacheEvictionService;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, CacheEvictionService cacheEvictionService) {
         this.userRepository = userRepository;
+        this.cacheEvictionService = cacheEvictionService;
     }
 
     @Transactional(readOnly = true)
@@ -31,6 +35,13 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User", id));
     }
 
+    // Cached public view of a user
+    @Cacheable(cacheNames = "users", key = "#id")
+    @Transactional(readOnly = true)
+    public UserResponse getUserResponseById(Long id) {
+        return UserResponse.fromEntity(getUserById(id));
+    }
+
     @Transactional(readOnly = true)
     public User getUserByEmail(String email) {
         return userRepository.findByEmail(email)
@@ -56,9 +67,14 @@ public class UserService {
 
     public User updateUser(Long id, User updatedUser) {
         User existingUser = getUserById(id);
+        // Tokens carry email and role; issue new ones when either changes
+        if (!existingUser.getEmail().equals(updatedUser.getEmail()) || existingUser.getRole() != updatedUser.getRole()) {
+            existingUser.setTokenVersion(existingUser.getTokenVersion() + 1);
+        }
         existingUser.setName(updatedUser.getName());
         existingUser.setEmail(updatedUser.getEmail());
         existingUser.setRole(updatedUser.getRole());
+        cacheEvictionService.userChanged(id);
         return userRepository.save(existingUser);
     }
 
@@ -67,5 +83,6 @@ public class UserService {
             throw new ResourceNotFoundException("User", id);
         }
         userRepository.deleteById(id);
+        cacheEvictionService.userChanged(id);
     }
 }
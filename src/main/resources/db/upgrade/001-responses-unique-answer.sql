@@ -0,0 +1,15 @@
+-- One answer per user and question. Older rows may contain duplicates left by the
+-- check-then-insert race in the original submit path; keep the earliest answer.
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_indexes
+                   WHERE tablename = 'responses' AND indexname = 'uk_responses_question_user') THEN
+        DELETE FROM responses r
+        USING responses d
+        WHERE r.question_id = d.question_id
+          AND r.user_id = d.user_id
+          AND r.id > d.id;
+
+        CREATE UNIQUE INDEX uk_responses_question_user ON responses (question_id, user_id);
+    END IF;
+END $$;
@@ -0,0 +1,26 @@
+-- Move ids from IDENTITY columns to pooled sequences (allocationSize = 50).
+-- Each sequence is advanced past the highest existing id, and becomes the column
+-- default so raw SQL inserts draw from the same sequence as Hibernate. A raw
+-- insert consumes a whole pooled block, which keeps it disjoint from the blocks
+-- Hibernate hands out.
+DO $$
+DECLARE
+    t RECORD;
+    max_id BIGINT;
+    last_id BIGINT;
+BEGIN
+    FOR t IN SELECT * FROM (VALUES ('users', 'users_seq'),
+                                   ('sessions', 'sessions_seq'),
+                                   ('questions', 'questions_seq'),
+                                   ('responses', 'responses_seq')) AS v(tbl, seq) LOOP
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I START WITH 1 INCREMENT BY 50', t.seq);
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', t.tbl);
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', t.tbl, t.seq);
+
+        EXECUTE format('SELECT COALESCE(MAX(id), 0) FROM %I', t.tbl) INTO max_id;
+        EXECUTE format('SELECT last_value FROM %I', t.seq) INTO last_id;
+        IF max_id > 0 AND max_id >= last_id THEN
+            PERFORM setval(t.seq, max_id);
+        END IF;
+    END LOOP;
+END $$;
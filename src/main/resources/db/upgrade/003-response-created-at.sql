@@ -0,0 +1,7 @@
+-- Responses carry their creation time. The raw SQL insert paths rely on the
+-- column default; rows written before the column existed stay NULL.
+DO $$
+BEGIN
+    ALTER TABLE responses ADD COLUMN IF NOT EXISTS created_at TIMESTAMP(6);
+    ALTER TABLE responses ALTER COLUMN created_at SET DEFAULT LOCALTIMESTAMP;
+END $$;
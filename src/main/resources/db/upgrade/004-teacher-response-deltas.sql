@@ -0,0 +1,9 @@
+-- Response deltas not yet applied to teacher_stats. Rows are appended in the
+-- transaction that inserts or deletes the responses, so they take no shared
+-- lock, and are drained by the periodic flush (TeacherStatsService).
+CREATE TABLE IF NOT EXISTS teacher_response_deltas (
+    question_id BIGINT NOT NULL,
+    day DATE,
+    added INTEGER NOT NULL,
+    removed INTEGER NOT NULL
+)
@@ -0,0 +1,91 @@
+package com.classpulse.classpulse;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Wraps the DataSource so tests can see every JDBC round trip: one entry (the
+ * lower-cased SQL) per executed prepared statement or batch.
+ * Import with {@code @Import(StatementCountingConfig.class)}.
+ */
+@TestConfiguration
+public class StatementCountingConfig {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeBatch", "executeLargeUpdate", "executeLargeBatch");
+
+    private static final List<String> executed = new CopyOnWriteArrayList<>();
+
+    public static void reset() {
+        executed.clear();
+    }
+
+    public static List<String> executedStatements() {
+        return List.copyOf(executed);
+    }
+
+    public static long roundTrips(String sqlPrefix) {
+        return executed.stream().filter(sql -> sql.startsWith(sqlPrefix)).count();
+    }
+
+    @Bean
+    static BeanPostProcessor countingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return proxy(DataSource.class, dataSource, (target, method, args) -> {
+                        Object result = invoke(target, method, args);
+                        return result instanceof Connection connection
+                                ? proxy(Connection.class, connection, StatementCountingConfig::onConnection)
+                                : result;
+                    });
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static Object onConnection(Object target, Method method, Object[] args) throws Throwable {
+        Object result = invoke(target, method, args);
+        if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+            String sql = ((String) args[0]).trim().toLowerCase();
+            return proxy(PreparedStatement.class, statement, (stmt, m, a) -> {
+                if (EXECUTE_METHODS.contains(m.getName()) && (a == null || a.length == 0)) {
+                    executed.add(sql);
+                }
+                return invoke(stmt, m, a);
+            });
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, Handler handler) {
+        return (T) Proxy.newProxyInstance(StatementCountingConfig.class.getClassLoader(), new Class<?>[] { type },
+                (p, method, args) -> handler.handle(target, method, args));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    interface Handler {
+        Object handle(Object target, Method method, Object[] args) throws Throwable;
+    }
+}
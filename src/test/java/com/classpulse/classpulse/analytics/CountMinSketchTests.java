@@ -0,0 +1,65 @@
+package com.classpulse.classpulse.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountMinSketchTests {
+
+    private static final int WIDTH = 1024;
+
+    @Test
+    void neverUndercountsAndRarelyOvercountsMuch() {
+        CountMinSketch sketch = new CountMinSketch(4, WIDTH);
+        Map<String, Long> actual = new HashMap<>();
+        Random random = new Random(42);
+        long total = 0;
+        // Skewed stream: a few frequent items, a long tail of rare ones
+        for (int i = 0; i < 200_000; i++) {
+            String item = "item-" + (int) (Math.pow(random.nextDouble(), 3) * 20_000);
+            sketch.add(item, 1);
+            actual.merge(item, 1L, Long::sum);
+            total++;
+        }
+
+        // Count-Min bound: error <= e * N / width with probability 1 - e^-depth per item
+        long bound = (long) Math.ceil(Math.E * total / WIDTH);
+        int overBound = 0;
+        for (Map.Entry<String, Long> entry : actual.entrySet()) {
+            long estimate = sketch.estimate(entry.getKey());
+            assertTrue(estimate >= entry.getValue(), entry.getKey() + " undercounted: " + estimate);
+            if (estimate - entry.getValue() > bound) {
+                overBound++;
+            }
+        }
+        assertTrue(overBound <= actual.size() * 0.02 + 1, overBound + " of " + actual.size() + " beyond the bound");
+    }
+
+    @Test
+    void decrementsTakeCountsBackOut() {
+        CountMinSketch sketch = new CountMinSketch(4, WIDTH);
+        sketch.add("photosynthesis", 5);
+        sketch.add("photosynthesis", -2);
+        sketch.add("osmosis", 1);
+        sketch.add("osmosis", -1);
+
+        assertEquals(3, sketch.estimate("photosynthesis"));
+        assertEquals(0, sketch.estimate("osmosis"));
+    }
+
+    @Test
+    void equalStringHashCodesDoNotShareCounters() {
+        // "Aa" and "BB" have the same String.hashCode
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        CountMinSketch sketch = new CountMinSketch(4, WIDTH);
+        sketch.add("BB", 100);
+
+        assertEquals(0, sketch.estimate("Aa"));
+        assertEquals(100, sketch.estimate("BB"));
+    }
+}
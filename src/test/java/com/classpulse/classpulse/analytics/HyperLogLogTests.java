@@ -0,0 +1,122 @@
+package com.classpulse.classpulse.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTests {
+
+    @Test
+    void estimatesStayWithinThreeStandardErrors() {
+        for (int count : new int[] { 10, 100, 1_000, 10_000, 100_000, 1_000_000 }) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (long id = 1; id <= count; id++) {
+                sketch.add(id);
+            }
+            double error = Math.abs(sketch.estimate() - count) / (double) count;
+            assertTrue(error < 3 * sketch.standardError(),
+                    "estimate " + sketch.estimate() + " for " + count + " distinct ids");
+        }
+    }
+
+    @Test
+    void repeatedValuesAreCountedOnce() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int round = 0; round < 50; round++) {
+            for (long id = 1; id <= 30; id++) {
+                sketch.add(id);
+            }
+        }
+        assertEquals(30, sketch.estimate());
+    }
+
+    @Test
+    void mergeEqualsSketchOfTheUnion() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        HyperLogLog union = new HyperLogLog();
+        // Overlapping classes: ids 20k-30k attend both
+        for (long id = 0; id < 30_000; id++) {
+            first.add(id);
+            union.add(id);
+        }
+        for (long id = 20_000; id < 50_000; id++) {
+            second.add(id);
+            union.add(id);
+        }
+
+        first.merge(second);
+
+        assertArrayEquals(union.toBytes(), first.toBytes());
+        assertEquals(union.estimate(), first.estimate());
+        assertThrows(IllegalArgumentException.class, () -> first.merge(new HyperLogLog(10)));
+    }
+
+    @Test
+    void smallSketchRoundTripsSparse() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (long id = 1; id <= 30; id++) {
+            sketch.add(id);
+        }
+
+        byte[] bytes = sketch.toBytes();
+        HyperLogLog copy = HyperLogLog.fromBytes(bytes);
+
+        assertEquals(2, bytes[0], "sparse format");
+        assertTrue(bytes.length <= 2 + 30 * 3);
+        assertArrayEquals(bytes, copy.toBytes());
+        assertEquals(sketch.estimate(), copy.estimate());
+    }
+
+    @Test
+    void largeSketchRoundTripsDense() {
+        HyperLogLog sketch = new HyperLogLog(10);
+        for (long id = 1; id <= 10_000; id++) {
+            sketch.add(id);
+        }
+
+        byte[] bytes = sketch.toBytes();
+        HyperLogLog copy = HyperLogLog.fromBytes(bytes);
+
+        assertEquals(1, bytes[0], "dense format");
+        assertEquals(2 + 1024, bytes.length);
+        assertArrayEquals(bytes, copy.toBytes());
+        assertEquals(sketch.estimate(), copy.estimate());
+    }
+
+    @Test
+    void emptySketchRoundTrips() {
+        HyperLogLog copy = HyperLogLog.fromBytes(new HyperLogLog().toBytes());
+        assertEquals(0, copy.estimate());
+    }
+
+    @Test
+    void rejectsMalformedBytes() {
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(null));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[] { 2 }));
+        // Unknown format
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[] { 9, 12 }));
+        // Precision out of range, including a negative byte
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[] { 2, 3 }));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[] { 2, 17 }));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[] { 2, -1 }));
+        // Sparse register index beyond the 16 registers of precision 4
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[] { 2, 4, 0, 16, 1 }));
+        // Sparse entry cut short
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[] { 2, 4, 0, 1 }));
+        // Dense with the wrong number of registers
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[] { 1, 4, 0, 0 }));
+        // Register values add() cannot produce
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[] { 2, 4, 0, 1, 62 }));
+        byte[] dense = new byte[2 + 16];
+        dense[0] = 1;
+        dense[1] = 4;
+        Arrays.fill(dense, 2, dense.length, (byte) -3);
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(dense));
+    }
+}
@@ -0,0 +1,96 @@
+package com.classpulse.classpulse.analytics;
+
+import com.classpulse.classpulse.analytics.RatingAggregator.RatingStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RatingAggregatorTests {
+
+    @Test
+    void parsesWithoutExceptions() {
+        assertEquals(4.0, RatingAggregator.parse("4"));
+        assertEquals(4.5, RatingAggregator.parse(" 4.5 "));
+        assertEquals(-1.0, RatingAggregator.parse("-1"));
+        assertTrue(Double.isNaN(RatingAggregator.parse("four")));
+        assertTrue(Double.isNaN(RatingAggregator.parse("")));
+        assertTrue(Double.isNaN(RatingAggregator.parse(".")));
+        assertTrue(Double.isNaN(RatingAggregator.parse("1.2.3")));
+        assertTrue(Double.isNaN(RatingAggregator.parse(null)));
+    }
+
+    @Test
+    void matchesTwoPassStatistics() {
+        RatingAggregator aggregator = new RatingAggregator();
+        for (String answer : new String[] { "1", "2", "2", "3", "5", "5", "oops" }) {
+            aggregator.add(answer, 1);
+        }
+        RatingStats stats = aggregator.snapshot();
+
+        assertEquals(6, stats.count());
+        assertEquals(1, stats.invalid());
+        assertEquals(3.0, stats.mean(), 1e-9);
+        assertEquals(2.8, stats.variance(), 1e-9);
+        assertEquals(2.5, stats.median());
+        assertEquals(Map.of("1", 1L, "2", 2L, "3", 1L, "5", 2L), stats.histogramAsMap());
+    }
+
+    @Test
+    void weightedAddEqualsRepeatedAdd() {
+        RatingAggregator weighted = new RatingAggregator();
+        weighted.add("4", 3);
+        weighted.add("2", 2);
+
+        RatingAggregator repeated = new RatingAggregator();
+        for (String answer : new String[] { "4", "4", "4", "2", "2" }) {
+            repeated.add(answer, 1);
+        }
+
+        assertEquals(repeated.snapshot().mean(), weighted.snapshot().mean(), 1e-9);
+        assertEquals(repeated.snapshot().variance(), weighted.snapshot().variance(), 1e-9);
+    }
+
+    @Test
+    void removeUndoesAdd() {
+        RatingAggregator aggregator = new RatingAggregator();
+        aggregator.add("2", 1);
+        aggregator.add("4", 1);
+        aggregator.add("9", 1);
+        aggregator.remove("9");
+
+        RatingStats stats = aggregator.snapshot();
+        assertEquals(2, stats.count());
+        assertEquals(3.0, stats.mean(), 1e-9);
+        assertEquals(2.0, stats.variance(), 1e-9);
+        assertEquals(Map.of("2", 1L, "4", 1L), stats.histogramAsMap());
+
+        aggregator.remove("2");
+        aggregator.remove("4");
+        assertEquals(0, aggregator.snapshot().count());
+        assertNull(aggregator.snapshot().median());
+    }
+
+    @Test
+    void mergeEqualsSingleAggregator() {
+        RatingAggregator first = new RatingAggregator();
+        RatingAggregator second = new RatingAggregator();
+        RatingAggregator all = new RatingAggregator();
+        String[] answers = { "1", "3", "4", "4", "5", "7", "10", "2" };
+        for (int i = 0; i < answers.length; i++) {
+            (i % 3 == 0 ? first : second).add(answers[i], 1);
+            all.add(answers[i], 1);
+        }
+
+        first.merge(second);
+        RatingStats merged = first.snapshot();
+        RatingStats expected = all.snapshot();
+        assertEquals(expected.count(), merged.count());
+        assertEquals(expected.mean(), merged.mean(), 1e-9);
+        assertEquals(expected.variance(), merged.variance(), 1e-9);
+        assertEquals(expected.histogramAsMap(), merged.histogramAsMap());
+    }
+}
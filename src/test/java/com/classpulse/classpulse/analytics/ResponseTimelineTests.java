@@ -0,0 +1,71 @@
+package com.classpulse.classpulse.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseTimelineTests {
+
+    private static final long START = 1_700_000_040L; // A minute boundary
+
+    @Test
+    void concurrentRecordsAreNotLost() throws InterruptedException {
+        ResponseTimeline timeline = new ResponseTimeline(START);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 12_000; i++) {
+                    timeline.record(START + i % 120, 1);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        TimeSeries seconds = timeline.perSecond(START + 119);
+        assertEquals(START, seconds.start());
+        assertEquals(120, seconds.counts().length);
+        assertEquals(96_000, seconds.total());
+
+        TimeSeries minutes = timeline.perMinute(START + 119);
+        assertArrayEquals(new long[] { 48_000, 48_000 }, minutes.counts());
+    }
+
+    @Test
+    void reusedSlotsForgetOldBuckets() {
+        ResponseTimeline timeline = new ResponseTimeline(START);
+        timeline.record(START, 5);
+        timeline.record(START + ResponseTimeline.SECOND_BUCKETS, 2);
+        // Too late for the second ring, whose slot now holds a newer second;
+        // the minute ring still has that minute
+        timeline.record(START, 1);
+
+        TimeSeries seconds = timeline.perSecond(START + ResponseTimeline.SECOND_BUCKETS);
+        assertEquals(START + 1, seconds.start());
+        assertEquals(2, seconds.total());
+        assertEquals(8, timeline.perMinute(START + ResponseTimeline.SECOND_BUCKETS).total());
+    }
+
+    @Test
+    void serializedFormRoundTrips() {
+        long[] counts = new long[600];
+        counts[0] = 3;
+        counts[299] = 200;
+        counts[599] = 1;
+        TimeSeries series = new TimeSeries(START, 60, counts);
+
+        byte[] bytes = series.toBytes();
+        TimeSeries decoded = TimeSeries.fromBytes(bytes);
+
+        assertEquals(START, decoded.start());
+        assertEquals(60, decoded.bucketSeconds());
+        assertArrayEquals(counts, decoded.counts());
+        assertTrue(bytes.length < 24);
+    }
+}
@@ -0,0 +1,65 @@
+package com.classpulse.classpulse.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TermSummaryTests {
+
+    private static final List<String> HEAVY = List.of("mitochondria", "ribosome", "nucleus", "membrane",
+            "chloroplast", "vacuole", "cytoplasm", "lysosome", "enzyme", "protein");
+
+    @Test
+    void splitsAnswersIntoTermsAndPhrases() {
+        assertEquals(Set.of("cell", "wall", "cell wall", "plants"),
+                TermSummary.terms("The CELL wall, in plants!"));
+        // Stop words and single characters break phrases
+        assertEquals(Set.of("energy", "sun"), TermSummary.terms("energy from a sun"));
+    }
+
+    @Test
+    void recallsHeavyHittersAmongManyRareTerms() {
+        TermSummary summary = new TermSummary();
+        // Heavy term i appears in 300 - 20i answers; 20,000 answers carry one-off terms
+        for (int round = 0; round < 300; round++) {
+            for (int i = 0; i < HEAVY.size(); i++) {
+                if (round < 300 - 20 * i) {
+                    summary.add(HEAVY.get(i), 1);
+                }
+            }
+            for (int n = 0; n < 66; n++) {
+                summary.add("rare" + (round * 66 + n), 1);
+            }
+        }
+
+        Map<String, Long> top = summary.getTopTerms();
+
+        assertEquals(HEAVY, List.copyOf(top.keySet()));
+        for (int i = 0; i < HEAVY.size(); i++) {
+            long count = top.get(HEAVY.get(i));
+            // Estimates only ever overcount
+            assertTrue(count >= 300 - 20 * i, HEAVY.get(i) + " undercounted: " + count);
+        }
+    }
+
+    @Test
+    void removedAnswersLeaveTheTopList() {
+        TermSummary summary = new TermSummary();
+        summary.add("osmosis", 3);
+        summary.add("diffusion", 1);
+        for (int i = 0; i < 3; i++) {
+            summary.remove("osmosis");
+        }
+
+        Map<String, Long> top = summary.getTopTerms();
+
+        assertFalse(top.containsKey("osmosis"));
+        assertEquals(1, (long) top.get("diffusion"));
+    }
+}
@@ -0,0 +1,182 @@
+package com.classpulse.classpulse.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Latency of cached lookups while the Redis tier is healthy, killed and back
+ * again. The Redis stand-in behaves like a Lettuce client whose server went
+ * away: every command blocks for the command timeout, then fails.
+ */
+class CircuitBreakingCacheTests {
+
+    private static final Duration REDIS_TIMEOUT = Duration.ofMillis(50);
+    private static final Duration OPEN_DURATION = Duration.ofMillis(200);
+    private static final int FAILURE_THRESHOLD = 5;
+    private static final int LOOKUPS = 2000;
+
+    private final FaultyRedisCache redis = new FaultyRedisCache();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker("redis-test", FAILURE_THRESHOLD,
+            OPEN_DURATION, Duration.ofMillis(20));
+    // L1 far smaller than the key space, so most lookups go to Redis
+    private final TwoLevelCache cache = new TwoLevelCache("analytics",
+            new CircuitBreakingCache(redis, circuitBreaker), 50, Duration.ofMinutes(1), () -> {
+            });
+    private final AtomicInteger computed = new AtomicInteger();
+
+    @Test
+    void p99StaysFlatWhenRedisIsKilled() {
+        long healthyP99 = p99(runLookups());
+
+        redis.kill();
+        long[] degraded = runLookups();
+        long slowCalls = Arrays.stream(degraded).filter(n -> n >= REDIS_TIMEOUT.toNanos()).count();
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        // Only the calls that opened the circuit waited for the timeout
+        assertTrue(slowCalls <= FAILURE_THRESHOLD, "calls that hit the Redis timeout: " + slowCalls);
+        assertTrue(p99(degraded) < Math.max(5 * healthyP99, Duration.ofMillis(5).toNanos()),
+                "p99 " + p99(degraded) + "ns with Redis down vs " + healthyP99 + "ns healthy");
+    }
+
+    @Test
+    void recoversWhenRedisComesBack() throws InterruptedException {
+        redis.kill();
+        runLookups();
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        redis.revive();
+        Thread.sleep(OPEN_DURATION.toMillis() + 50);
+        int redisCallsBefore = redis.calls.get();
+        runLookups();
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(redis.calls.get() - redisCallsBefore > LOOKUPS / 2, "lookups reach Redis again");
+    }
+
+    @Test
+    void openCircuitStillServesLocalTier() {
+        String value = lookup("session:1");
+        redis.kill();
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            lookup("other:" + i);
+        }
+        int computedBefore = computed.get();
+
+        assertEquals(value, lookup("session:1"));
+        assertEquals(computedBefore, computed.get());
+    }
+
+    private long[] runLookups() {
+        long[] latencies = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            long start = System.nanoTime();
+            lookup("session:" + (i * 7919 % 1000));
+            latencies[i] = System.nanoTime() - start;
+        }
+        return latencies;
+    }
+
+    // What the caching interceptor does around an @Cacheable method
+    private String lookup(String key) {
+        Cache.ValueWrapper cached = cache.get(key);
+        if (cached != null) {
+            return (String) cached.get();
+        }
+        String value = "analytics for " + key;
+        computed.incrementAndGet();
+        cache.put(key, value);
+        return value;
+    }
+
+    private static long p99(long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) (sorted.length * 0.99) - 1];
+    }
+
+    private static final class FaultyRedisCache implements Cache {
+
+        private final Map<Object, Object> store = new ConcurrentHashMap<>();
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile boolean down;
+
+        void kill() {
+            down = true;
+        }
+
+        void revive() {
+            down = false;
+        }
+
+        private void command() {
+            calls.incrementAndGet();
+            if (down) {
+                try {
+                    Thread.sleep(REDIS_TIMEOUT.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new QueryTimeoutException("Redis command timed out");
+            }
+        }
+
+        @Override
+        public String getName() {
+            return "analytics";
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return store;
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            command();
+            Object value = store.get(key);
+            return value == null ? null : new SimpleValueWrapper(value);
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            command();
+            return type.cast(store.get(key));
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            command();
+            store.put(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            command();
+            store.remove(key);
+        }
+
+        @Override
+        public void clear() {
+            command();
+            store.clear();
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.classpulse.classpulse.cache;
+
+import com.classpulse.classpulse.config.RedisConfig;
+import com.classpulse.classpulse.dto.response.UserResponse;
+import com.classpulse.classpulse.entity.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.CacheErrorHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The cache stack as the application wires it ({@link RedisConfig}): the
+ * caching interceptor around an {@code @Cacheable} bean, the degrading error
+ * handler, the two-level manager and a real {@code RedisCacheManager}. Only
+ * the connection factory is a stand-in: an in-memory Redis that can be
+ * killed, after which every command blocks for the command timeout and fails
+ * the way Lettuce reports a timeout.
+ */
+@SpringJUnitConfig(RedisCacheFaultTests.Config.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class RedisCacheFaultTests {
+
+    private static final Duration REDIS_TIMEOUT = Duration.ofMillis(50);
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final long OPEN_MILLIS = 200;
+
+    @Autowired
+    private UserLookup lookup;
+
+    @Autowired
+    private FaultyRedis redis;
+
+    @Autowired
+    private TwoLevelCacheManager cacheManager;
+
+    @Autowired
+    private RecordingErrorHandler errorHandler;
+
+    @Test
+    void valuesAreStoredInRedisAndReadBack() {
+        UserResponse first = lookup.find(1L);
+        assertTrue(redis.store.containsKey("users::1"));
+
+        // Another node, or this one after its L1 entry expired
+        ((TwoLevelCache) cacheManager.getCache("users")).clearLocal();
+        UserResponse cached = lookup.find(1L);
+
+        assertEquals(1, lookup.loads());
+        assertEquals(first.getEmail(), cached.getEmail());
+        assertEquals(Role.STUDENT, cached.getRole());
+    }
+
+    @Test
+    void killedRedisDegradesToComputingValues() {
+        lookup.find(1L);
+        redis.kill();
+
+        int slowCalls = 0;
+        for (long id = 2; id <= 100; id++) {
+            long start = System.nanoTime();
+            UserResponse user = lookup.find(id);
+            if (System.nanoTime() - start >= REDIS_TIMEOUT.toNanos()) {
+                slowCalls++;
+            }
+            assertEquals("student" + id + "@school.org", user.getEmail());
+        }
+
+        assertEquals(100, lookup.loads());
+        // Only the calls that opened the circuit waited for the timeout
+        assertTrue(slowCalls <= FAILURE_THRESHOLD, "calls that hit the Redis timeout: " + slowCalls);
+        assertFalse(circuitBreaker().isClosed());
+        // Absorbed by the circuit breaker before the error handler saw them
+        assertEquals(0, errorHandler.getErrors.get());
+
+        lookup.find(1L);
+        assertEquals(100, lookup.loads(), "L1 still serves while Redis is down");
+    }
+
+    @Test
+    void evictionsQueuedDuringAnOutageReachRedisWhenItIsBack() throws InterruptedException {
+        lookup.find(1L);
+        redis.kill();
+        for (long id = 2; id <= FAILURE_THRESHOLD + 1; id++) {
+            lookup.find(id);
+        }
+        assertFalse(circuitBreaker().isClosed());
+
+        lookup.changed(1L);
+        cacheManager.flushEvictions();
+        assertTrue(redis.store.containsKey("users::1"), "eviction stays queued while the circuit is open");
+        int loads = lookup.loads();
+        lookup.find(1L);
+        assertEquals(loads + 1, lookup.loads(), "a pending key bypasses the stale Redis entry");
+
+        redis.revive();
+        Thread.sleep(OPEN_MILLIS + 50);
+        // The flush is the probe that closes the circuit again
+        cacheManager.flushEvictions();
+
+        assertTrue(circuitBreaker().isClosed());
+        assertFalse(redis.store.containsKey("users::1"));
+        assertEquals(List.of("evict\tusers\t1\n"), redis.published);
+        lookup.find(1L);
+        assertTrue(redis.store.containsKey("users::1"), "the key is cacheable again");
+    }
+
+    @Test
+    void unserializableValueIsReturnedUncached() {
+        assertEquals("computed", lookup.unserializable(1L).name);
+
+        assertEquals(1, errorHandler.putErrors.get());
+        assertTrue(redis.store.isEmpty());
+        assertTrue(circuitBreaker().isClosed(), "a bad value is not a Redis failure");
+    }
+
+    private CircuitBreaker circuitBreaker() {
+        return cacheManager.circuitBreaker();
+    }
+
+    @Configuration
+    @EnableCaching
+    static class Config implements CachingConfigurer {
+
+        @Bean
+        FaultyRedis faultyRedis() {
+            return new FaultyRedis();
+        }
+
+        @Bean
+        RedisConnectionFactory redisConnectionFactory(FaultyRedis redis) {
+            return redis.connectionFactory();
+        }
+
+        @Bean
+        StringRedisTemplate stringRedisTemplate(RedisConnectionFactory connectionFactory) {
+            return new StringRedisTemplate(connectionFactory);
+        }
+
+        @Bean
+        TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory, StringRedisTemplate redisTemplate) {
+            return new RedisConfig().cacheManager(connectionFactory, redisTemplate, new SimpleMeterRegistry(),
+                    JsonMapper.builder().build(), "test:cache-invalidation", true, 1000, 60_000,
+                    FAILURE_THRESHOLD, OPEN_MILLIS, 1000);
+        }
+
+        @Bean
+        RecordingErrorHandler recordingErrorHandler() {
+            return new RecordingErrorHandler();
+        }
+
+        @Override
+        public CacheErrorHandler errorHandler() {
+            return recordingErrorHandler();
+        }
+
+        @Bean
+        UserLookup userLookup() {
+            return new UserLookup();
+        }
+    }
+
+    static class UserLookup {
+
+        private final AtomicInteger loads = new AtomicInteger();
+
+        // A method, not the field: the test holds the caching proxy
+        public int loads() {
+            return loads.get();
+        }
+
+        @Cacheable(cacheNames = "users", key = "#id")
+        public UserResponse find(Long id) {
+            loads.incrementAndGet();
+            UserResponse user = new UserResponse();
+            user.setId(id);
+            user.setName("Student " + id);
+            user.setEmail("student" + id + "@school.org");
+            user.setRole(Role.STUDENT);
+            return user;
+        }
+
+        @CacheEvict(cacheNames = "users", key = "#id")
+        public void changed(Long id) {
+        }
+
+        @Cacheable(cacheNames = "users", key = "'broken:' + #id")
+        public Unserializable unserializable(Long id) {
+            return new Unserializable("computed");
+        }
+    }
+
+    public static class Unserializable {
+
+        final String name;
+
+        Unserializable(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            throw new IllegalStateException("cannot be written");
+        }
+    }
+
+    static class RecordingErrorHandler extends DegradingCacheErrorHandler {
+
+        final AtomicInteger getErrors = new AtomicInteger();
+        final AtomicInteger putErrors = new AtomicInteger();
+
+        @Override
+        public void handleCacheGetError(RuntimeException exception, Cache cache, Object key) {
+            getErrors.incrementAndGet();
+            super.handleCacheGetError(exception, cache, key);
+        }
+
+        @Override
+        public void handleCachePutError(RuntimeException exception, Cache cache, Object key, Object value) {
+            putErrors.incrementAndGet();
+            super.handleCachePutError(exception, cache, key, value);
+        }
+    }
+
+    /**
+     * Just the commands the cache writer and the invalidation broadcast use,
+     * over a map. Default interface methods run as declared, so they reach
+     * these commands too.
+     */
+    static final class FaultyRedis {
+
+        final Map<String, byte[]> store = new ConcurrentHashMap<>();
+        final List<String> published = new CopyOnWriteArrayList<>();
+        private volatile boolean down;
+
+        void kill() {
+            down = true;
+        }
+
+        void revive() {
+            down = false;
+        }
+
+        RedisConnectionFactory connectionFactory() {
+            return proxy(RedisConnectionFactory.class, (proxy, method, args) -> switch (method.getName()) {
+                case "getConnection" -> connection();
+                case "getConvertPipelineAndTxResults" -> false;
+                case "translateExceptionIfPossible" -> null;
+                default -> unhandled(proxy, method, args);
+            });
+        }
+
+        private RedisConnection connection() {
+            RedisStringCommands stringCommands = proxy(RedisStringCommands.class,
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "get", "getEx" -> {
+                            command();
+                            yield store.get(key(args[0]));
+                        }
+                        case "set" -> {
+                            command();
+                            store.put(key(args[0]), (byte[]) args[1]);
+                            yield true;
+                        }
+                        default -> unhandled(proxy, method, args);
+                    });
+            RedisKeyCommands keyCommands = proxy(RedisKeyCommands.class,
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "del", "unlink" -> {
+                            command();
+                            long deleted = 0;
+                            for (Object key : (Object[]) args[0]) {
+                                deleted += store.remove(key(key)) != null ? 1 : 0;
+                            }
+                            yield deleted;
+                        }
+                        default -> unhandled(proxy, method, args);
+                    });
+            return proxy(RedisConnection.class, (proxy, method, args) -> switch (method.getName()) {
+                case "stringCommands" -> stringCommands;
+                case "keyCommands" -> keyCommands;
+                case "publish" -> {
+                    command();
+                    published.add(new String((byte[]) args[1], StandardCharsets.UTF_8));
+                    yield 1L;
+                }
+                case "close" -> null;
+                case "isClosed", "isPipelined", "isQueueing" -> false;
+                default -> unhandled(proxy, method, args);
+            });
+        }
+
+        // A Lettuce client whose server went away: the command times out
+        private void command() {
+            if (down) {
+                try {
+                    Thread.sleep(REDIS_TIMEOUT.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new QueryTimeoutException("Redis command timed out after " + REDIS_TIMEOUT.toMillis() + " ms");
+            }
+        }
+
+        private static String key(Object key) {
+            return new String((byte[]) key, StandardCharsets.UTF_8);
+        }
+
+        private static Object unhandled(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.isDefault()) {
+                return InvocationHandler.invokeDefault(proxy, method, args);
+            }
+            throw new UnsupportedOperationException("Not supported by the Redis stand-in: " + method);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "equals" -> proxy == args[0];
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "toString" -> type.getSimpleName() + " stand-in";
+                        default -> handler.invoke(proxy, method, args);
+                    });
+        }
+    }
+}
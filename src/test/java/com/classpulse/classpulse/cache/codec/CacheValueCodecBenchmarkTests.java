@@ -0,0 +1,96 @@
+package com.classpulse.classpulse.cache.codec;
+
+import com.classpulse.classpulse.dto.response.SessionAnalyticsResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Size and encode/decode time of a 50-question session analytics payload in
+ * the cache's binary codec, plain JSON and JDK serialization. Run with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class CacheValueCodecBenchmarkTests {
+
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 50_000;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final SessionAnalyticsResponse payload = CacheValuePayloads.sessionAnalytics(50);
+
+    @Test
+    void compareFormats() {
+        CacheValueSerializer codec = new CacheValueSerializer(CacheCodecs.all(), jsonMapper, true);
+        Result binary = measure("binary codec", codec::serialize, codec::deserialize);
+        Result json = measure("json",
+                jsonMapper::writeValueAsBytes,
+                bytes -> jsonMapper.readValue(bytes, SessionAnalyticsResponse.class));
+        Result jdk = measure("jdk", CacheValueCodecBenchmarkTests::jdkSerialize,
+                CacheValueCodecBenchmarkTests::jdkDeserialize);
+
+        System.out.printf("%-14s %8s %12s %12s%n", "format", "bytes", "encode ns", "decode ns");
+        for (Result result : new Result[] { binary, json, jdk }) {
+            System.out.printf("%-14s %8d %12d %12d%n", result.name, result.size, result.encodeNanos, result.decodeNanos);
+        }
+
+        assertTrue(binary.size < json.size, "binary should be smaller than JSON");
+        assertTrue(binary.size < jdk.size, "binary should be smaller than JDK serialization");
+    }
+
+    private Result measure(String name, Function<Object, byte[]> encode, Function<byte[], Object> decode) {
+        byte[] bytes = encode.apply(payload);
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += encode.apply(payload).length;
+            sink += decode.apply(bytes).hashCode();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += encode.apply(payload).length;
+        }
+        long encodeNanos = (System.nanoTime() - start) / MEASURED_ITERATIONS;
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += decode.apply(bytes).hashCode();
+        }
+        long decodeNanos = (System.nanoTime() - start) / MEASURED_ITERATIONS;
+        if (sink == 42) {
+            System.out.print("");
+        }
+        return new Result(name, bytes.length, encodeNanos, decodeNanos);
+    }
+
+    private static byte[] jdkSerialize(Object value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object jdkDeserialize(byte[] bytes) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Result(String name, int size, long encodeNanos, long decodeNanos) {
+    }
+}
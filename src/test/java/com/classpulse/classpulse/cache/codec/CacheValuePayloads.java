@@ -0,0 +1,56 @@
+package com.classpulse.classpulse.cache.codec;
+
+import com.classpulse.classpulse.dto.response.SessionAnalyticsResponse;
+import com.classpulse.classpulse.dto.response.SessionAnalyticsResponse.QuestionAnalytics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+final class CacheValuePayloads {
+
+    private CacheValuePayloads() {
+    }
+
+    /** Ended session with an even mix of MCQ, rating and open-text questions. */
+    static SessionAnalyticsResponse sessionAnalytics(int questionCount) {
+        List<QuestionAnalytics> questions = new ArrayList<>();
+        for (int i = 0; i < questionCount; i++) {
+            QuestionAnalytics.QuestionAnalyticsBuilder question = QuestionAnalytics.builder()
+                    .questionId(1000L + i)
+                    .questionText("Question " + i + ": which of these best describes the topic we just covered?")
+                    .responseCount(120);
+            switch (i % 3) {
+                case 0 -> question.questionType("MCQ")
+                        .answerDistribution(counts("Option A", 40, "Option B", 35, "Option C", 30, "Option D", 15));
+                case 1 -> question.questionType("RATING")
+                        .averageRating(3.85)
+                        .ratingStdDev(1.1024)
+                        .ratingMedian(4.0)
+                        .ratingHistogram(counts("1", 6, "2", 10, "3", 24, "4", 45, "5", 35));
+                default -> question.questionType("OPEN_TEXT")
+                        .topTerms(counts("recursion", 31, "base case", 22, "stack", 17, "call stack", 12, "loop", 9));
+            }
+            questions.add(question.build());
+        }
+        return SessionAnalyticsResponse.builder()
+                .sessionId(42L)
+                .sessionTitle("Algorithms — week 5")
+                .sessionStatus("ENDED")
+                .totalQuestions(questionCount)
+                .totalResponses(120 * questionCount)
+                .uniqueParticipants(124)
+                .averageResponsesPerQuestion(120.0)
+                .questionAnalytics(questions)
+                .build();
+    }
+
+    private static Map<String, Long> counts(Object... keysAndCounts) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndCounts.length; i += 2) {
+            counts.put((String) keysAndCounts[i], ((Integer) keysAndCounts[i + 1]).longValue());
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,121 @@
+package com.classpulse.classpulse.cache.codec;
+
+import com.classpulse.classpulse.dto.response.SessionAnalyticsResponse;
+import com.classpulse.classpulse.dto.response.SessionAnalyticsResponse.QuestionAnalytics;
+import com.classpulse.classpulse.dto.response.SessionAnalyticsSnapshotResponse;
+import com.classpulse.classpulse.dto.response.SessionResponse;
+import com.classpulse.classpulse.dto.response.TeacherDashboardResponse;
+import com.classpulse.classpulse.dto.response.UserResponse;
+import com.classpulse.classpulse.entity.Role;
+import com.classpulse.classpulse.entity.SessionStatus;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CacheValueSerializerTests {
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final CacheValueSerializer binary = new CacheValueSerializer(CacheCodecs.all(), jsonMapper, true);
+    private final CacheValueSerializer json = new CacheValueSerializer(CacheCodecs.all(), jsonMapper, false);
+
+    @Test
+    void sessionAnalyticsRoundTripsInBothFormats() {
+        SessionAnalyticsResponse original = CacheValuePayloads.sessionAnalytics(6);
+        for (CacheValueSerializer serializer : List.of(binary, json)) {
+            SessionAnalyticsResponse copy = assertInstanceOf(SessionAnalyticsResponse.class,
+                    serializer.deserialize(serializer.serialize(original)));
+            assertEquals(original.getSessionTitle(), copy.getSessionTitle());
+            assertEquals(original.getTotalResponses(), copy.getTotalResponses());
+            assertEquals(original.getQuestionAnalytics().size(), copy.getQuestionAnalytics().size());
+            for (int i = 0; i < 6; i++) {
+                QuestionAnalytics expected = original.getQuestionAnalytics().get(i);
+                QuestionAnalytics actual = copy.getQuestionAnalytics().get(i);
+                assertEquals(expected.getQuestionId(), actual.getQuestionId());
+                assertEquals(expected.getAnswerDistribution(), actual.getAnswerDistribution());
+                assertEquals(expected.getAverageRating(), actual.getAverageRating());
+                assertEquals(expected.getRatingHistogram(), actual.getRatingHistogram());
+                assertEquals(expected.getTopTerms(), actual.getTopTerms());
+            }
+            // Most frequent term first, as produced by the service
+            assertEquals(List.copyOf(original.getQuestionAnalytics().get(2).getTopTerms().keySet()),
+                    List.copyOf(copy.getQuestionAnalytics().get(2).getTopTerms().keySet()));
+        }
+    }
+
+    @Test
+    void analyticsSnapshotKeepsItsEtag() {
+        SessionAnalyticsSnapshotResponse original = new SessionAnalyticsSnapshotResponse(
+                "0f1e2d3c4b5a69788796a5b4c3d2e1f0", CacheValuePayloads.sessionAnalytics(3));
+        SessionAnalyticsSnapshotResponse copy = assertInstanceOf(SessionAnalyticsSnapshotResponse.class,
+                binary.deserialize(binary.serialize(original)));
+        assertEquals(original.getEtag(), copy.getEtag());
+        assertEquals(original.getAnalytics().getSessionTitle(), copy.getAnalytics().getSessionTitle());
+        assertEquals(3, copy.getAnalytics().getQuestionAnalytics().size());
+    }
+
+    @Test
+    void smallDtosRoundTrip() {
+        SessionResponse session = new SessionResponse();
+        session.setId(7L);
+        session.setTitle(null);
+        session.setCode("ABC123");
+        session.setStatus(SessionStatus.ACTIVE);
+        session.setCreatedById(3L);
+        session.setCreatedByName("Ada");
+        SessionResponse sessionCopy = (SessionResponse) binary.deserialize(binary.serialize(session));
+        assertEquals("ABC123", sessionCopy.getCode());
+        assertNull(sessionCopy.getTitle());
+        assertEquals(SessionStatus.ACTIVE, sessionCopy.getStatus());
+
+        UserResponse user = new UserResponse();
+        user.setId(-1L);
+        user.setName("Grace");
+        user.setEmail("grace@example.com");
+        user.setRole(Role.TEACHER);
+        UserResponse userCopy = (UserResponse) binary.deserialize(binary.serialize(user));
+        assertEquals(-1L, userCopy.getId());
+        assertEquals(Role.TEACHER, userCopy.getRole());
+
+        TeacherDashboardResponse dashboard = TeacherDashboardResponse.builder()
+                .teacherId(3L)
+                .totalUniqueStudents(812)
+                .uniqueStudentsApproximate(true)
+                .uniqueStudentsStandardError(0.0081)
+                .averageResponsesPerSession(211.5)
+                .build();
+        TeacherDashboardResponse dashboardCopy = (TeacherDashboardResponse) binary.deserialize(binary.serialize(dashboard));
+        assertEquals(812, dashboardCopy.getTotalUniqueStudents());
+        assertEquals(0.0081, dashboardCopy.getUniqueStudentsStandardError());
+        assertEquals(211.5, dashboardCopy.getAverageResponsesPerSession());
+    }
+
+    @Test
+    void unreadableValuesAreMisses() {
+        byte[] bytes = binary.serialize(CacheValuePayloads.sessionAnalytics(3));
+
+        byte[] newerVersion = bytes.clone();
+        newerVersion[2] = 2;
+        assertNull(binary.deserialize(newerVersion));
+
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length / 2);
+        assertNull(binary.deserialize(truncated));
+
+        // Header of a JDK-serialized value, as stored before this codec
+        assertNull(binary.deserialize(new byte[] { (byte) 0xAC, (byte) 0xED, 0, 5 }));
+    }
+
+    @Test
+    void jsonValuesAreLimitedToOwnDtos() {
+        BinaryWriter out = new BinaryWriter(64);
+        out.writeByte(CacheValueSerializer.FORMAT_JSON);
+        out.writeString("java.net.URL");
+        out.writeBytes("\"http://example.com\"".getBytes());
+        assertNull(binary.deserialize(out.toByteArray()));
+    }
+}
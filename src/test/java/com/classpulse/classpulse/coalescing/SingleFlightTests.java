@@ -0,0 +1,104 @@
+package com.classpulse.classpulse.coalescing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTests {
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    @Test
+    void concurrentCallersShareOneExecution() throws Throwable {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<SingleFlight.Result>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    try {
+                        return singleFlight.execute("key", 5000, () -> {
+                            executions.incrementAndGet();
+                            release.await();
+                            return "value";
+                        });
+                    } catch (Throwable t) {
+                        throw new IllegalStateException(t);
+                    }
+                }));
+            }
+            // Let every caller join the flight before it completes
+            while (singleFlight.inFlightCount() == 0 || executions.get() == 0) {
+                Thread.sleep(1);
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            int shared = 0;
+            for (Future<SingleFlight.Result> result : results) {
+                assertEquals("value", result.get(5, TimeUnit.SECONDS).value());
+                shared += result.get().shared() ? 1 : 0;
+            }
+            assertEquals(1, executions.get());
+            assertEquals(7, shared);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // The flight is over; the next call runs again
+        singleFlight.execute("key", 5000, executions::incrementAndGet);
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void waitingCallersSeeTheSameExceptionOrTimeOut() throws Throwable {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalArgumentException failure = new IllegalArgumentException("boom");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> leader = executor.submit(() -> {
+                try {
+                    return singleFlight.execute("key", 5000, () -> {
+                        started.countDown();
+                        release.await();
+                        throw failure;
+                    });
+                } catch (Throwable t) {
+                    return t;
+                }
+            });
+            started.await();
+
+            assertThrows(TimeoutException.class, () -> singleFlight.execute("key", 10, () -> "unused"));
+
+            Future<Throwable> follower = executor.submit(() -> {
+                try {
+                    singleFlight.execute("key", 5000, () -> "unused");
+                    return null;
+                } catch (Throwable t) {
+                    return t;
+                }
+            });
+            Thread.sleep(200);
+            release.countDown();
+            assertSame(failure, leader.get(5, TimeUnit.SECONDS));
+            assertSame(failure, follower.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.classpulse.classpulse.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives 10M requests from distinct client addresses through the filter and
+ * checks that the bucket store and the heap stop growing once the store is
+ * full. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class RateLimitingFilterLoadTests {
+
+    private static final long MAX_BUCKETS = 100_000;
+    private static final int DISTINCT_KEYS = 10_000_000;
+    private static final int REPORT_EVERY = 1_000_000;
+
+    @Test
+    void memoryStaysFlatUnderRotatingClientAddresses() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RateLimitingFilter filter = new RateLimitingFilter(meterRegistry, MAX_BUCKETS, 120_000);
+        FilterChain chain = (request, response) -> {
+        };
+
+        long baselineHeap = 0;
+        long maxHeap = 0;
+        long start = System.nanoTime();
+        for (int i = 1; i <= DISTINCT_KEYS; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/sessions");
+            // A spoofed X-Forwarded-For per request, as a client rotating the header would send
+            request.addHeader("X-Forwarded-For", "client-" + i);
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+            if (i % REPORT_EVERY == 0) {
+                long buckets = filter.bucketCount();
+                long heap = usedHeapAfterGc();
+                if (i == REPORT_EVERY) {
+                    baselineHeap = heap;
+                }
+                maxHeap = Math.max(maxHeap, heap);
+                double evictions = meterRegistry.get("cache.evictions").tag("cache", "rate-limit-buckets")
+                        .functionCounter().count();
+                System.out.printf("%,12d keys %,10d buckets %,12.0f evicted %,8d KB heap%n",
+                        i, buckets, evictions, heap / 1024);
+                assertTrue(buckets <= MAX_BUCKETS, "bucket store exceeded its bound: " + buckets);
+            }
+        }
+        System.out.printf("%,d requests in %d ms%n", DISTINCT_KEYS, (System.nanoTime() - start) / 1_000_000);
+
+        // 10x the keys seen at the first sample must not mean noticeably more heap
+        long growth = maxHeap - baselineHeap;
+        assertTrue(growth < 32L * 1024 * 1024, "heap grew by " + growth / 1024 + " KB after the store filled");
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,85 @@
+package com.classpulse.classpulse.repository;
+
+import com.classpulse.classpulse.StatementCountingConfig;
+import com.classpulse.classpulse.entity.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@Import(StatementCountingConfig.class)
+class InsertBatchingTests {
+
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Session session;
+
+    @AfterEach
+    void cleanUp() {
+        if (session != null) {
+            questionRepository.deleteAll(questionRepository.findBySessionId(session.getId()));
+            sessionRepository.delete(session);
+            userRepository.delete(session.getCreatedBy());
+        }
+    }
+
+    @Test
+    void questionInsertsAreSentInBatches() {
+        int n = 120;
+        session = createSession();
+
+        StatementCountingConfig.reset();
+        transactionTemplate.executeWithoutResult(tx -> {
+            List<Question> questions = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                Question question = new Question();
+                question.setSession(session);
+                question.setText("Question " + i);
+                question.setType(QuestionType.RATING);
+                questions.add(question);
+            }
+            questionRepository.saveAll(questions);
+        });
+
+        // Number of JDBC round trips that executed an INSERT INTO questions
+        assertEquals((n + BATCH_SIZE - 1) / BATCH_SIZE, StatementCountingConfig.roundTrips("insert into questions"));
+        assertEquals(n, questionRepository.findBySessionId(session.getId()).size());
+    }
+
+    private Session createSession() {
+        User teacher = new User();
+        teacher.setName("Batching Teacher");
+        teacher.setEmail("batching-" + UUID.randomUUID() + "@classpulse.test");
+        teacher.setPassword("unused");
+        teacher.setRole(Role.TEACHER);
+        userRepository.save(teacher);
+
+        Session created = new Session();
+        created.setTitle("Batching session");
+        created.setCode(UUID.randomUUID().toString().substring(0, 6));
+        created.setStatus(SessionStatus.ACTIVE);
+        created.setCreatedBy(teacher);
+        return sessionRepository.save(created);
+    }
+}
@@ -0,0 +1,159 @@
+package com.classpulse.classpulse.security;
+
+import com.classpulse.classpulse.entity.Role;
+import com.classpulse.classpulse.entity.User;
+import com.classpulse.classpulse.repository.UserRepository;
+import com.classpulse.classpulse.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Request authentication from JWTs: principals come from the token's claims,
+ * the token version revokes tokens of changed and deleted users, and tokens
+ * issued before the claims existed still work by loading the user.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class JwtAuthenticationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoSpyBean
+    private CustomUserDetailsService userDetailsService;
+
+    private final List<User> users = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        userRepository.deleteAll(userRepository.findAllById(users.stream().map(User::getId).toList()));
+    }
+
+    @Test
+    void principalIsReadFromTokenClaims() throws Exception {
+        User student = createStudent();
+        String token = jwtUtil.generateToken(student);
+
+        getOwnResponses(student, token).andExpect(status().isOk());
+
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void tokenVersionBumpRevokesOlderTokens() throws Exception {
+        User student = createStudent();
+        String oldToken = jwtUtil.generateToken(student);
+        getOwnResponses(student, oldToken).andExpect(status().isOk());
+
+        User changes = new User();
+        changes.setName(student.getName());
+        changes.setEmail("renamed-" + student.getEmail());
+        changes.setRole(Role.STUDENT);
+        User updated = userService.updateUser(student.getId(), changes);
+
+        getOwnResponses(student, oldToken).andExpect(status().isForbidden());
+        getOwnResponses(student, jwtUtil.generateToken(updated)).andExpect(status().isOk());
+    }
+
+    @Test
+    void tokensOfDeletedUsersAreRejected() throws Exception {
+        User student = createStudent();
+        String token = jwtUtil.generateToken(student);
+        getOwnResponses(student, token).andExpect(status().isOk());
+
+        userService.deleteUser(student.getId());
+
+        getOwnResponses(student, token).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void legacyTokenWithoutClaimsLoadsTheUser() throws Exception {
+        User student = createStudent();
+        String legacyToken = jwtUtil.generateToken(Map.of(), student);
+
+        getOwnResponses(student, legacyToken).andExpect(status().isOk());
+        verify(userDetailsService).loadUserByUsername(student.getEmail());
+
+        // Resolved once, then served from the principal cache
+        clearInvocations(userDetailsService);
+        getOwnResponses(student, legacyToken).andExpect(status().isOk());
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void legacyTokenOfDeletedUserIsRejected() throws Exception {
+        User student = createStudent();
+        String legacyToken = jwtUtil.generateToken(Map.of(), student);
+
+        userService.deleteUser(student.getId());
+
+        getOwnResponses(student, legacyToken).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void submittingForAnotherUserIsRejected() throws Exception {
+        User student = createStudent();
+        User other = createStudent();
+        String token = jwtUtil.generateToken(student);
+
+        mockMvc.perform(post("/api/responses")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"questionId\": 1, \"userId\": " + other.getId() + ", \"answer\": \"A\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Cannot submit a response for another user"));
+
+        mockMvc.perform(post("/api/responses/batch")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"responses\": [{\"questionId\": 1, \"answer\": \"A\"},"
+                        + " {\"questionId\": 2, \"userId\": " + other.getId() + ", \"answer\": \"B\"}]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private ResultActions getOwnResponses(User student, String token) throws Exception {
+        return mockMvc.perform(get("/api/responses/user/{userId}", student.getId())
+                .header("Authorization", "Bearer " + token));
+    }
+
+    private User createStudent() {
+        User user = new User();
+        user.setName("Auth test student");
+        user.setEmail("auth-" + UUID.randomUUID() + "@test.local");
+        user.setPassword("not-used");
+        user.setRole(Role.STUDENT);
+        User saved = userRepository.save(user);
+        users.add(saved);
+        return saved;
+    }
+}
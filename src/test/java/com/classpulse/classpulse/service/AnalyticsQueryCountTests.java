@@ -0,0 +1,148 @@
+package com.classpulse.classpulse.service;
+
+import com.classpulse.classpulse.StatementCountingConfig;
+import com.classpulse.classpulse.dto.response.TeacherDashboardResponse;
+import com.classpulse.classpulse.entity.*;
+import com.classpulse.classpulse.repository.QuestionRepository;
+import com.classpulse.classpulse.repository.ResponseRepository;
+import com.classpulse.classpulse.repository.SessionRepository;
+import com.classpulse.classpulse.repository.TeacherStatsRepository;
+import com.classpulse.classpulse.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@Import(StatementCountingConfig.class)
+class AnalyticsQueryCountTests {
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private TeacherStatsService teacherStatsService;
+
+    @Autowired
+    private TeacherStatsRepository teacherStatsRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private ResponseRepository responseRepository;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<Session> sessions = new ArrayList<>();
+    private final List<Question> questions = new ArrayList<>();
+    private final List<Response> responses = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        users.forEach(user -> teacherStatsRepository.deleteById(user.getId()));
+        responseRepository.deleteAll(responses);
+        questionRepository.deleteAll(questions);
+        sessionRepository.deleteAll(sessions);
+        userRepository.deleteAll(users);
+    }
+
+    @Test
+    void teacherDashboardStatementCountDoesNotGrowWithData() {
+        List<User> students = createStudents(5);
+        User small = createTeacherWithData(1, 1, students.subList(0, 1));
+        User large = createTeacherWithData(12, 6, students);
+        // Test data bypasses the services; build the teacher_stats rows from it
+        teacherStatsService.reconcile();
+
+        for (boolean exact : new boolean[] { true, false }) {
+            int smallCount = countStatements(() -> analyticsService.getTeacherDashboard(small.getId(), exact));
+            int largeCount = countStatements(() -> analyticsService.getTeacherDashboard(large.getId(), exact));
+            assertEquals(smallCount, largeCount, "exact=" + exact + ": " + StatementCountingConfig.executedStatements());
+        }
+
+        TeacherDashboardResponse dashboard = analyticsService.getTeacherDashboard(large.getId(), true);
+        assertEquals(12, dashboard.getTotalSessions());
+        assertEquals(12 * 6, dashboard.getTotalQuestions());
+        assertEquals(12 * 6 * students.size(), dashboard.getTotalResponses());
+        assertEquals(students.size(), dashboard.getTotalUniqueStudents());
+    }
+
+    @Test
+    void sessionAnalyticsStatementCountDoesNotGrowWithData() {
+        List<User> students = createStudents(5);
+        createTeacherWithData(1, 1, students.subList(0, 1));
+        Session small = sessions.get(sessions.size() - 1);
+        createTeacherWithData(1, 20, students);
+        Session large = sessions.get(sessions.size() - 1);
+
+        int smallCount = countStatements(() -> analyticsService.getSessionAnalytics(small.getId()));
+        int largeCount = countStatements(() -> analyticsService.getSessionAnalytics(large.getId()));
+        assertEquals(smallCount, largeCount, StatementCountingConfig.executedStatements().toString());
+    }
+
+    private int countStatements(Runnable action) {
+        StatementCountingConfig.reset();
+        action.run();
+        return StatementCountingConfig.executedStatements().size();
+    }
+
+    private List<User> createStudents(int count) {
+        List<User> students = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            students.add(createUser(Role.STUDENT));
+        }
+        return students;
+    }
+
+    private User createTeacherWithData(int sessionCount, int questionsPerSession, List<User> students) {
+        User teacher = createUser(Role.TEACHER);
+        for (int s = 0; s < sessionCount; s++) {
+            Session session = new Session();
+            session.setTitle("Query count session " + s);
+            session.setCode(UUID.randomUUID().toString().substring(0, 6));
+            session.setStatus(SessionStatus.ENDED);
+            session.setCreatedBy(teacher);
+            sessions.add(sessionRepository.save(session));
+
+            for (int q = 0; q < questionsPerSession; q++) {
+                Question question = new Question();
+                question.setSession(session);
+                question.setText("Question " + q);
+                question.setType(QuestionType.RATING);
+                questions.add(questionRepository.save(question));
+
+                for (User student : students) {
+                    Response response = new Response();
+                    response.setQuestion(question);
+                    response.setUser(student);
+                    response.setAnswer(String.valueOf(1 + (q + s) % 5));
+                    responses.add(responseRepository.save(response));
+                }
+            }
+        }
+        return teacher;
+    }
+
+    private User createUser(Role role) {
+        User user = new User();
+        user.setName("Query count " + role);
+        user.setEmail("query-count-" + UUID.randomUUID() + "@classpulse.test");
+        user.setPassword("unused");
+        user.setRole(role);
+        users.add(userRepository.save(user));
+        return user;
+    }
+}
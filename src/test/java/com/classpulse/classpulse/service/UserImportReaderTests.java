@@ -0,0 +1,72 @@
+package com.classpulse.classpulse.service;
+
+import com.classpulse.classpulse.entity.Role;
+import com.classpulse.classpulse.exception.BadRequestException;
+import com.classpulse.classpulse.service.UserImportReader.Format;
+import com.classpulse.classpulse.service.UserImportReader.Row;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UserImportReaderTests {
+
+    @Test
+    void splitsQuotedCsvFields() {
+        assertEquals(List.of("a", "b", ""), UserImportReader.splitCsv("a,b,"));
+        assertEquals(List.of("Doe, Jane", "say \"hi\""), UserImportReader.splitCsv("\"Doe, Jane\",\"say \"\"hi\"\"\""));
+        assertNull(UserImportReader.splitCsv("\"unterminated,x"));
+    }
+
+    @Test
+    void readsCsvRowsByHeaderName() throws IOException {
+        UserImportReader reader = csv("""
+                email,role,name,password
+                jane@school.org,student,Jane Doe, secret1
+
+                "bob@school.org",TEACHER,"Smith, Bob",secret2
+                eve@school.org,janitor,Eve,secret3
+                """);
+
+        Row jane = reader.next();
+        assertEquals(2, jane.line());
+        assertEquals("jane@school.org", jane.user().getEmail());
+        assertEquals("Jane Doe", jane.user().getName());
+        assertEquals(" secret1", jane.user().getPassword());
+        assertEquals(Role.STUDENT, jane.user().getRole());
+        assertNull(jane.error());
+
+        Row bob = reader.next();
+        assertEquals(4, bob.line());
+        assertEquals("Smith, Bob", bob.user().getName());
+        assertEquals(Role.TEACHER, bob.user().getRole());
+
+        Row eve = reader.next();
+        assertEquals("Invalid role: janitor", eve.error());
+
+        assertNull(reader.next());
+    }
+
+    @Test
+    void rejectsHeaderWithoutRequiredColumns() {
+        BadRequestException e = assertThrows(BadRequestException.class, () -> csv("name,email\n"));
+        assertEquals("CSV header is missing columns: password, role", e.getMessage());
+    }
+
+    @Test
+    void detectsFormatFromFileName() {
+        assertEquals(Format.CSV, Format.of("Students.CSV", null));
+        assertEquals(Format.NDJSON, Format.of("students.jsonl", "application/octet-stream"));
+        assertThrows(BadRequestException.class, () -> Format.of("students.xlsx", null));
+    }
+
+    private static UserImportReader csv(String text) throws IOException {
+        return new UserImportReader(new BufferedReader(new StringReader(text)), Format.CSV, null);
+    }
+}